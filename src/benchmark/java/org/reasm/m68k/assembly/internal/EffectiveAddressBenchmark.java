@@ -0,0 +1,90 @@
+package org.reasm.m68k.assembly.internal;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.reasm.AssemblyMessage;
+import org.reasm.expressions.EvaluationContext;
+import org.reasm.m68k.benchmarks.SyntheticSources;
+import org.reasm.m68k.expressions.internal.Tokenizer;
+
+import ca.fragag.Consumer;
+
+/**
+ * Benchmarks the parsing and encoding of effective addresses by {@link EffectiveAddress}.
+ *
+ * @author Francis Gagné
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class EffectiveAddressBenchmark {
+
+    @Param({ "10000", "100000", "1000000" })
+    public int lines;
+
+    @Param({ "MC68000", "MC68EC000", "MC68010", "CPU32", "MC68020", "MC68030", "MC68EC030", "MC68040", "MC68EC040" })
+    public String architectureName;
+
+    private String[] operands;
+    private final M68KTestAssemblyContext context = new M68KTestAssemblyContext();
+    private final Tokenizer tokenizer = new Tokenizer();
+    private final EffectiveAddress ea = new EffectiveAddress();
+    private final EvaluationContext evaluationContext = new EvaluationContext(null, 0, null);
+    private int numberOfMessages;
+    private final Consumer<AssemblyMessage> assemblyMessageConsumer = new Consumer<AssemblyMessage>() {
+        @Override
+        public void accept(AssemblyMessage message) {
+            EffectiveAddressBenchmark.this.numberOfMessages++;
+        }
+    };
+
+    /**
+     * Parses and encodes all the operands.
+     *
+     * @return the total number of words in the encoded effective addresses
+     */
+    @Benchmark
+    public int getEffectiveAddress() {
+        final Tokenizer tokenizer = this.tokenizer;
+        final EffectiveAddress ea = this.ea;
+        int words = 0;
+        for (String operand : this.operands) {
+            tokenizer.setCharSequence(operand);
+            EffectiveAddress.getEffectiveAddress(tokenizer, null, AddressingModeCategory.ALL_MASK, false, InstructionSize.WORD, 2,
+                    this.evaluationContext, this.context, this.assemblyMessageConsumer, ea);
+            words += ea.numberOfWords;
+        }
+
+        return words;
+    }
+
+    /**
+     * Generates the operands and checks that they are all valid.
+     */
+    @Setup
+    public void setUp() {
+        this.operands = SyntheticSources.generateOperands(this.lines);
+        this.context.instructionSet = SyntheticSources.getArchitecture(this.architectureName).getInstructionSet();
+
+        this.numberOfMessages = 0;
+        this.getEffectiveAddress();
+        if (this.numberOfMessages != 0) {
+            throw new IllegalStateException("The synthetic operands raised messages");
+        }
+    }
+
+}
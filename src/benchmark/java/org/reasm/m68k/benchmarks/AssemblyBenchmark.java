@@ -0,0 +1,113 @@
+package org.reasm.m68k.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nonnull;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.reasm.Assembly;
+import org.reasm.AssemblyCompletionStatus;
+import org.reasm.Configuration;
+import org.reasm.Environment;
+import org.reasm.m68k.M68KArchitecture;
+import org.reasm.source.SourceFile;
+
+/**
+ * Benchmarks a complete assembly, from parsing the source to the last {@link Assembly#step()}, on a program that contains mostly
+ * instructions.
+ *
+ * @author Francis Gagné
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class AssemblyBenchmark {
+
+    /**
+     * Assembles a program completely.
+     *
+     * @param code
+     *            the program's source code
+     * @param architecture
+     *            the target architecture
+     * @return the assembly
+     * @throws IOException
+     *             an I/O exception occurred
+     */
+    @Nonnull
+    static Assembly assemble(@Nonnull String code, @Nonnull M68KArchitecture architecture) throws IOException {
+        final Configuration configuration = new Configuration(Environment.DEFAULT, new SourceFile(code, null), architecture);
+        final Assembly assembly = new Assembly(configuration);
+        while (assembly.step() != AssemblyCompletionStatus.COMPLETE) {
+        }
+
+        return assembly;
+    }
+
+    /**
+     * Assembles a program once to make sure that it assembles without errors, so that the benchmark doesn't measure error
+     * handling.
+     *
+     * @param code
+     *            the program's source code
+     * @param architecture
+     *            the target architecture
+     * @throws IOException
+     *             an I/O exception occurred
+     */
+    static void checkProgram(@Nonnull String code, @Nonnull M68KArchitecture architecture) throws IOException {
+        final Assembly assembly = assemble(code, architecture);
+        if (!assembly.getMessages().isEmpty()) {
+            throw new IllegalStateException("The synthetic program raised messages: " + assembly.getMessages());
+        }
+    }
+
+    @Param({ "10000", "100000", "1000000" })
+    public int lines;
+
+    @Param({ "MC68000", "MC68EC000", "MC68010", "CPU32", "MC68020", "MC68030", "MC68EC030", "MC68040", "MC68EC040" })
+    public String architectureName;
+
+    private String code;
+    private M68KArchitecture architecture;
+
+    /**
+     * Assembles the synthetic program.
+     *
+     * @return the assembly
+     * @throws IOException
+     *             an I/O exception occurred
+     */
+    @Benchmark
+    public Assembly assembleProgram() throws IOException {
+        return assemble(this.code, this.architecture);
+    }
+
+    /**
+     * Generates the synthetic program.
+     *
+     * @throws IOException
+     *             an I/O exception occurred
+     */
+    @Setup
+    public void setUp() throws IOException {
+        this.code = SyntheticSources.generateProgram(this.lines);
+        this.architecture = SyntheticSources.getArchitecture(this.architectureName);
+        checkProgram(this.code, this.architecture);
+    }
+
+}
@@ -0,0 +1,68 @@
+package org.reasm.m68k.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.reasm.Assembly;
+import org.reasm.m68k.M68KArchitecture;
+
+/**
+ * Benchmarks a complete assembly on a program that consists mostly of macro invocations. Macros are expanded while the program
+ * is assembled, so this benchmark mostly measures macro expansion.
+ *
+ * @author Francis Gagné
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class MacroExpansionBenchmark {
+
+    @Param({ "10000", "100000", "1000000" })
+    public int lines;
+
+    @Param({ "MC68000", "MC68EC000", "MC68010", "CPU32", "MC68020", "MC68030", "MC68EC030", "MC68040", "MC68EC040" })
+    public String architectureName;
+
+    private String code;
+    private M68KArchitecture architecture;
+
+    /**
+     * Assembles the synthetic program.
+     *
+     * @return the assembly
+     * @throws IOException
+     *             an I/O exception occurred
+     */
+    @Benchmark
+    public Assembly assembleMacroProgram() throws IOException {
+        return AssemblyBenchmark.assemble(this.code, this.architecture);
+    }
+
+    /**
+     * Generates the synthetic program.
+     *
+     * @throws IOException
+     *             an I/O exception occurred
+     */
+    @Setup
+    public void setUp() throws IOException {
+        this.code = SyntheticSources.generateMacroProgram(this.lines);
+        this.architecture = SyntheticSources.getArchitecture(this.architectureName);
+        AssemblyBenchmark.checkProgram(this.code, this.architecture);
+    }
+
+}
@@ -0,0 +1,167 @@
+package org.reasm.m68k.benchmarks;
+
+import javax.annotation.Nonnull;
+
+import org.reasm.m68k.M68KArchitecture;
+
+/**
+ * Generates synthetic inputs for the benchmarks. The generated inputs only depend on the requested size, so that results from
+ * different runs can be compared.
+ *
+ * @author Francis Gagné
+ */
+public final class SyntheticSources {
+
+    // Each block starts with a label and is followed by these instructions. All of them are valid on every architecture.
+    @Nonnull
+    private static final String[] INSTRUCTIONS = new String[] { " MOVE.L D0,D1", " ADD.W #$1234,D2", " LEA L%d(PC),A0",
+            " MOVE.W (A0)+,D3", " MOVE.B 4(A1,D2.W),D4", " CMPI.L #100000,D5", " BNE L%d", " MOVEM.L D0-D7/A0-A6,-(SP)",
+            " MOVEM.L (SP)+,D0-D7/A0-A6", " DC.W $4E71,L%d&$FFFF", " BRA L%d" };
+
+    @Nonnull
+    private static final String MACRO_DEFINITIONS = "SAVE MACRO\n MOVEM.L \\1,-(SP)\n ENDM\n"
+            + "RESTORE MACRO\n MOVEM.L (SP)+,\\1\n ENDM\n" + "ADDTO MACRO value,reg\n ADD.\\0 #value,reg\n ENDM\n";
+
+    @Nonnull
+    private static final String[] MACRO_INVOCATIONS = new String[] { " SAVE D0-D7/A0-A6", " ADDTO.W 1,D0", " ADDTO.L L%d,D1",
+            " RESTORE D0-D7/A0-A6" };
+
+    @Nonnull
+    private static final String[] OPERANDS = new String[] { "D0", "A1", "(A2)", "(A3)+", "-(A4)", "4(A5)", "-8(A6,D0.W)",
+            "$12(A0,A1.L)", "$1234.W", "$12345678.L", "$1234", "8(PC)", "2(PC,D3.L)", "#$12", "#$1234*2+1", "#-1", "#%10101010" };
+
+    @Nonnull
+    private static final String[] EXPRESSIONS = new String[] { "1", "$FF", "1+2*3", "($1234&$FF)<<2", "%1010|$F0^~3",
+            "(((1+2)*(3+4))/5)%6", "10>5?1:0", "-$8000", "\"string\"", "1.5*2.25", "1<2&&3>=2||0", "$7FFFFFFF+1" };
+
+    /**
+     * Generates expressions that use all the kinds of literals and most operators.
+     *
+     * @param count
+     *            the number of expressions to generate
+     * @return the expressions
+     */
+    @Nonnull
+    public static String[] generateExpressions(int count) {
+        return repeat(EXPRESSIONS, count);
+    }
+
+    /**
+     * Generates an assembler program with approximately the specified number of lines, most of which are macro invocations.
+     *
+     * @param lines
+     *            the number of lines to generate
+     * @return the program
+     */
+    @Nonnull
+    public static String generateMacroProgram(int lines) {
+        final StringBuilder sb = new StringBuilder(MACRO_DEFINITIONS.length() + lines * 20);
+        sb.append(MACRO_DEFINITIONS);
+
+        int label = 0;
+        for (int line = 0; line < lines; label++) {
+            appendLabel(sb, label);
+            line++;
+
+            for (int i = 0; i < MACRO_INVOCATIONS.length && line < lines; i++, line++) {
+                appendFormatted(sb, MACRO_INVOCATIONS[i], label);
+            }
+        }
+
+        return sb.toString();
+    }
+
+    /**
+     * Generates effective address operands that use all the addressing modes supported by every architecture.
+     *
+     * @param count
+     *            the number of operands to generate
+     * @return the operands
+     */
+    @Nonnull
+    public static String[] generateOperands(int count) {
+        return repeat(OPERANDS, count);
+    }
+
+    /**
+     * Generates an assembler program with approximately the specified number of lines. The program contains labels that are
+     * referenced both backwards and forwards.
+     *
+     * @param lines
+     *            the number of lines to generate
+     * @return the program
+     */
+    @Nonnull
+    public static String generateProgram(int lines) {
+        final StringBuilder sb = new StringBuilder(lines * 20);
+        int label = 0;
+        for (int line = 0; line < lines; label++) {
+            appendLabel(sb, label);
+            line++;
+
+            for (int i = 0; i < INSTRUCTIONS.length && line < lines; i++, line++) {
+                appendFormatted(sb, INSTRUCTIONS[i], i == INSTRUCTIONS.length - 1 ? label + 1 : label);
+            }
+        }
+
+        // Define the label that the last block branches to.
+        appendLabel(sb, label);
+        return sb.toString();
+    }
+
+    /**
+     * Gets the architecture with the specified name.
+     *
+     * @param name
+     *            the name of the architecture's constant in {@link M68KArchitecture}
+     * @return the architecture
+     */
+    @Nonnull
+    public static M68KArchitecture getArchitecture(@Nonnull String name) {
+        switch (name) {
+        case "MC68000":
+            return M68KArchitecture.MC68000;
+        case "MC68EC000":
+            return M68KArchitecture.MC68EC000;
+        case "MC68010":
+            return M68KArchitecture.MC68010;
+        case "CPU32":
+            return M68KArchitecture.CPU32;
+        case "MC68020":
+            return M68KArchitecture.MC68020;
+        case "MC68030":
+            return M68KArchitecture.MC68030;
+        case "MC68EC030":
+            return M68KArchitecture.MC68EC030;
+        case "MC68040":
+            return M68KArchitecture.MC68040;
+        case "MC68EC040":
+            return M68KArchitecture.MC68EC040;
+        default:
+            throw new IllegalArgumentException("Unknown architecture: " + name);
+        }
+    }
+
+    private static void appendFormatted(@Nonnull StringBuilder sb, @Nonnull String template, int label) {
+        sb.append(template.replace("%d", Integer.toString(label))).append('\n');
+    }
+
+    private static void appendLabel(@Nonnull StringBuilder sb, int label) {
+        sb.append('L').append(label).append(":\n");
+    }
+
+    @Nonnull
+    private static String[] repeat(@Nonnull String[] values, int count) {
+        final String[] result = new String[count];
+        for (int i = 0; i < count; i++) {
+            result[i] = values[i % values.length];
+        }
+
+        return result;
+    }
+
+    // This class is not meant to be instantiated.
+    private SyntheticSources() {
+    }
+
+}
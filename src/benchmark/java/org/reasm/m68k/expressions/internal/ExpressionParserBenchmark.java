@@ -0,0 +1,63 @@
+package org.reasm.m68k.expressions.internal;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.reasm.m68k.benchmarks.SyntheticSources;
+
+/**
+ * Benchmarks {@link ExpressionParser#parse(Tokenizer, org.reasm.expressions.SymbolLookup, ca.fragag.Consumer)}.
+ *
+ * @author Francis Gagné
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ExpressionParserBenchmark {
+
+    @Param({ "10000", "100000", "1000000" })
+    public int lines;
+
+    private String[] expressions;
+    private final Tokenizer tokenizer = new Tokenizer();
+
+    /**
+     * Parses all the expressions.
+     *
+     * @param blackhole
+     *            a blackhole that consumes the parsed expressions
+     * @throws InvalidTokenException
+     *             an expression contains an invalid token
+     */
+    @Benchmark
+    public void parse(Blackhole blackhole) throws InvalidTokenException {
+        final Tokenizer tokenizer = this.tokenizer;
+        for (String expression : this.expressions) {
+            tokenizer.setCharSequence(expression);
+            blackhole.consume(ExpressionParser.parse(tokenizer, null, null));
+        }
+    }
+
+    /**
+     * Generates the expressions.
+     */
+    @Setup
+    public void setUp() {
+        this.expressions = SyntheticSources.generateExpressions(this.lines);
+    }
+
+}
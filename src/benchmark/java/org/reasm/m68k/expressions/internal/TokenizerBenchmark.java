@@ -0,0 +1,65 @@
+package org.reasm.m68k.expressions.internal;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.reasm.m68k.benchmarks.SyntheticSources;
+
+/**
+ * Benchmarks {@link Tokenizer#advance()}.
+ *
+ * @author Francis Gagné
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class TokenizerBenchmark {
+
+    @Param({ "10000", "100000", "1000000" })
+    public int lines;
+
+    private String[] expressions;
+    private final Tokenizer tokenizer = new Tokenizer();
+
+    /**
+     * Tokenizes all the expressions.
+     *
+     * @return the number of tokens
+     */
+    @Benchmark
+    public int advance() {
+        final Tokenizer tokenizer = this.tokenizer;
+        int tokens = 0;
+        for (String expression : this.expressions) {
+            tokenizer.setCharSequence(expression);
+            while (tokenizer.getTokenType() != TokenType.END) {
+                tokenizer.advance();
+                tokens++;
+            }
+        }
+
+        return tokens;
+    }
+
+    /**
+     * Generates the expressions.
+     */
+    @Setup
+    public void setUp() {
+        this.expressions = SyntheticSources.generateExpressions(this.lines);
+    }
+
+}
@@ -0,0 +1,85 @@
+package org.reasm.m68k.source;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.reasm.m68k.benchmarks.SyntheticSources;
+import org.reasm.source.SourceNode;
+
+import ca.fragag.text.Document;
+
+/**
+ * Benchmarks {@link M68KParser#parse(Document)} and {@link M68KParser#reparse(Document, SourceNode, int, int, int)}.
+ *
+ * @author Francis Gagné
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class M68KParserBenchmark {
+
+    // The line that is replaced in the middle of the program for the reparse benchmark.
+    private static final String OLD_LINE = " MOVE.L D0,D1";
+    private static final String NEW_LINE = " MOVE.L D1,D0";
+
+    @Param({ "10000", "100000", "1000000" })
+    public int lines;
+
+    private Document document;
+    private SourceNode parsedDocument;
+    private Document editedDocument;
+    private int replaceOffset;
+
+    /**
+     * Parses the synthetic program.
+     *
+     * @return the parsed program
+     */
+    @Benchmark
+    public SourceNode parse() {
+        return M68KParser.INSTANCE.parse(this.document);
+    }
+
+    /**
+     * Reparses the synthetic program after a line in the middle of the program was changed.
+     *
+     * @return the reparsed program
+     */
+    @Benchmark
+    public SourceNode reparse() {
+        return M68KParser.INSTANCE.reparse(this.editedDocument, this.parsedDocument, this.replaceOffset, OLD_LINE.length(),
+                NEW_LINE.length());
+    }
+
+    /**
+     * Generates and parses the synthetic program, and prepares the edited program.
+     */
+    @Setup
+    public void setUp() {
+        final String code = SyntheticSources.generateProgram(this.lines);
+        this.document = new Document(code);
+        this.parsedDocument = M68KParser.INSTANCE.parse(this.document);
+
+        this.replaceOffset = code.indexOf(OLD_LINE, code.length() / 2);
+        if (this.replaceOffset == -1) {
+            this.replaceOffset = code.indexOf(OLD_LINE);
+        }
+
+        this.editedDocument = new Document(code.substring(0, this.replaceOffset) + NEW_LINE
+                + code.substring(this.replaceOffset + OLD_LINE.length()));
+    }
+
+}
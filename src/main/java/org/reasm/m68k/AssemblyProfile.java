@@ -0,0 +1,215 @@
+package org.reasm.m68k;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Collects statistics on an assembly: how many times each mnemonic was assembled and how much time was spent on it, how many times
+ * each macro was expanded, how many expressions were parsed and evaluated, how many branches were enlarged ahead of a pass by the
+ * branch relaxation, how many instructions were laid out instead of encoded, how many instructions had their output replayed
+ * from a previous pass and how many passes were performed.
+ * <p>
+ * To profile an assembly, create an AssemblyProfile and pass it in the {@link ConfigurationOptions#PROFILE} option. The
+ * statistics are complete once the assembly has completed. If the same AssemblyProfile is used for several assemblies, the
+ * statistics are accumulated. When the option is not set, the assembler doesn't collect any statistics.
+ * <p>
+ * This class is not thread-safe.
+ *
+ * @author Francis Gagné
+ */
+public final class AssemblyProfile {
+
+    @Nonnull
+    private static long[] getCounters(@Nonnull HashMap<String, long[]> map, @Nonnull String name) {
+        long[] counters = map.get(name);
+        if (counters == null) {
+            counters = new long[2];
+            map.put(name, counters);
+        }
+
+        return counters;
+    }
+
+    @Nonnull
+    private static Map<String, Long> toSortedMap(@Nonnull Map<String, long[]> counters, int index) {
+        final TreeMap<String, Long> result = new TreeMap<>();
+        for (Map.Entry<String, long[]> entry : counters.entrySet()) {
+            result.put(entry.getKey(), entry.getValue()[index]);
+        }
+
+        return Collections.unmodifiableMap(result);
+    }
+
+    // For each mnemonic: the number of times it was assembled and the cumulative time, in nanoseconds.
+    @Nonnull
+    private final HashMap<String, long[]> mnemonics = new HashMap<>();
+    @Nonnull
+    private final HashMap<String, long[]> macroExpansions = new HashMap<>();
+    private long expressionParses;
+    private long expressionEvaluations;
+    private long laidOutInstructions;
+    private long relaxedBranches;
+    private long replayedInstructions;
+    private int passes;
+
+    /**
+     * Gets the number of expressions that were evaluated.
+     *
+     * @return the number of evaluated expressions
+     */
+    public final long getExpressionEvaluations() {
+        return this.expressionEvaluations;
+    }
+
+    /**
+     * Gets the number of operands or expressions that were parsed. Operands that were parsed on an earlier pass and reused are not
+     * counted again.
+     *
+     * @return the number of parsed operands or expressions
+     */
+    public final long getExpressionParses() {
+        return this.expressionParses;
+    }
+
+    /**
+     * Gets the number of times an instruction was laid out instead of being encoded, when the
+     * {@link ConfigurationOptions#LAYOUT_PASSES} option is enabled.
+     *
+     * @return the number of laid out instructions
+     */
+    public final long getLaidOutInstructions() {
+        return this.laidOutInstructions;
+    }
+
+    /**
+     * Gets the number of times each macro was expanded.
+     *
+     * @return a {@link Map} of macro names to expansion counts, sorted by macro name
+     */
+    @Nonnull
+    public final Map<String, Long> getMacroExpansionCounts() {
+        return toSortedMap(this.macroExpansions, 0);
+    }
+
+    /**
+     * Gets the number of times each mnemonic (instruction, directive or macro) was assembled.
+     *
+     * @return a {@link Map} of mnemonic names to call counts, sorted by mnemonic name
+     */
+    @Nonnull
+    public final Map<String, Long> getMnemonicCounts() {
+        return toSortedMap(this.mnemonics, 0);
+    }
+
+    /**
+     * Gets the cumulative time spent assembling each mnemonic (instruction, directive or macro). For a macro, this is the time
+     * spent expanding the macro; the lines in the macro's body are counted under their own mnemonic.
+     *
+     * @return a {@link Map} of mnemonic names to cumulative times in nanoseconds, sorted by mnemonic name
+     */
+    @Nonnull
+    public final Map<String, Long> getMnemonicNanoseconds() {
+        return toSortedMap(this.mnemonics, 1);
+    }
+
+    /**
+     * Gets the number of passes that were performed.
+     *
+     * @return the number of passes
+     */
+    public final int getPasses() {
+        return this.passes;
+    }
+
+    /**
+     * Gets the number of times the branch relaxation enlarged an unsized branch ahead of a pass, when the
+     * {@link ConfigurationOptions#OPTIMIZE_UNSIZED_BRANCHES} option is enabled. Each enlargement saves the pass that would
+     * otherwise be needed for the branch to grow.
+     *
+     * @return the number of relaxed branches
+     */
+    public final long getRelaxedBranches() {
+        return this.relaxedBranches;
+    }
+
+    /**
+     * Gets the number of times an instruction had its output replayed from a previous pass instead of being assembled, because
+     * the symbols it depends on and the program counter had not changed.
+     *
+     * @return the number of replayed instructions
+     */
+    public final long getReplayedInstructions() {
+        return this.replayedInstructions;
+    }
+
+    /**
+     * Records an expression evaluation. This method is called by the assembler.
+     */
+    public final void recordExpressionEvaluation() {
+        this.expressionEvaluations++;
+    }
+
+    /**
+     * Records an expression parse. This method is called by the assembler.
+     */
+    public final void recordExpressionParse() {
+        this.expressionParses++;
+    }
+
+    /**
+     * Records an instruction that was laid out instead of being encoded. This method is called by the assembler.
+     */
+    public final void recordLaidOutInstruction() {
+        this.laidOutInstructions++;
+    }
+
+    /**
+     * Records a macro expansion. This method is called by the assembler.
+     *
+     * @param macroName
+     *            the name of the macro
+     */
+    public final void recordMacroExpansion(@Nonnull String macroName) {
+        getCounters(this.macroExpansions, macroName)[0]++;
+    }
+
+    /**
+     * Records that a mnemonic was assembled. This method is called by the assembler.
+     *
+     * @param mnemonicName
+     *            the name of the mnemonic
+     * @param nanoseconds
+     *            the time spent assembling the mnemonic, in nanoseconds
+     */
+    public final void recordMnemonic(@Nonnull String mnemonicName, long nanoseconds) {
+        final long[] counters = getCounters(this.mnemonics, mnemonicName);
+        counters[0]++;
+        counters[1] += nanoseconds;
+    }
+
+    /**
+     * Records the start of a pass. This method is called by the assembler.
+     */
+    public final void recordPass() {
+        this.passes++;
+    }
+
+    /**
+     * Records that the branch relaxation enlarged an unsized branch. This method is called by the assembler.
+     */
+    public final void recordRelaxedBranch() {
+        this.relaxedBranches++;
+    }
+
+    /**
+     * Records an instruction whose output was replayed from a previous pass. This method is called by the assembler.
+     */
+    public final void recordReplayedInstruction() {
+        this.replayedInstructions++;
+    }
+
+}
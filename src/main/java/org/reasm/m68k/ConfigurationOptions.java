@@ -26,6 +26,18 @@ public final class ConfigurationOptions {
     @Nonnull
     public static final String AUTOMATIC_EVEN = "automaticEven";
 
+    /** The option key for {@link #incrementalCache()}. Value type: {@link IncrementalAssemblyCache}. */
+    @Nonnull
+    public static final String INCREMENTAL_CACHE = "incrementalCache";
+
+    /** The option key for {@link #layoutPasses()}. Value type: {@link Boolean}. */
+    @Nonnull
+    public static final String LAYOUT_PASSES = "layoutPasses";
+
+    /** The option key for {@link #memoryMappedIncbin()}. Value type: {@link Boolean}. */
+    @Nonnull
+    public static final String MEMORY_MAPPED_INCBIN = "memoryMappedIncbin";
+
     /** The option key for {@link #optimizeCmpiToTst()}. Value type: {@link Boolean}. */
     @Nonnull
     public static final String OPTIMIZE_CMPI_TO_TST = "optimizeCmpiToTst";
@@ -50,6 +62,10 @@ public final class ConfigurationOptions {
     @Nonnull
     public static final String OPTIMIZE_ZERO_DISPLACEMENT = "optimizeZeroDisplacement";
 
+    /** The option key for {@link #profile()}. Value type: {@link AssemblyProfile}. */
+    @Nonnull
+    public static final String PROFILE = "profile";
+
     /**
      * Creates a new ConfigurationOptions with the specified options.
      *
@@ -68,12 +84,16 @@ public final class ConfigurationOptions {
         }
 
         boolean automaticEven = false;
+        IncrementalAssemblyCache incrementalCache = null;
+        boolean layoutPasses = false;
+        boolean memoryMappedIncbin = false;
         boolean optimizeCmpiToTst = false;
         boolean optimizeUnsizedBranches = false;
         boolean optimizeUnsizedAbsoluteAddressingToPcRelative = false;
         boolean optimizeToAddqSubq = false;
         boolean optimizeMoveToMoveq = false;
         boolean optimizeZeroDisplacement = false;
+        AssemblyProfile profile = null;
 
         for (Map.Entry<String, Object> option : options.entrySet()) {
             final Object value = option.getValue();
@@ -87,6 +107,30 @@ public final class ConfigurationOptions {
 
                 break;
 
+            case INCREMENTAL_CACHE:
+                if (value instanceof IncrementalAssemblyCache) {
+                    incrementalCache = (IncrementalAssemblyCache) value;
+                    isEntryValid = true;
+                }
+
+                break;
+
+            case LAYOUT_PASSES:
+                if (value instanceof Boolean) {
+                    layoutPasses = ((Boolean) value).booleanValue();
+                    isEntryValid = true;
+                }
+
+                break;
+
+            case MEMORY_MAPPED_INCBIN:
+                if (value instanceof Boolean) {
+                    memoryMappedIncbin = ((Boolean) value).booleanValue();
+                    isEntryValid = true;
+                }
+
+                break;
+
             case OPTIMIZE_CMPI_TO_TST:
                 if (value instanceof Boolean) {
                     optimizeCmpiToTst = ((Boolean) value).booleanValue();
@@ -133,6 +177,14 @@ public final class ConfigurationOptions {
                     isEntryValid = true;
                 }
 
+                break;
+
+            case PROFILE:
+                if (value instanceof AssemblyProfile) {
+                    profile = (AssemblyProfile) value;
+                    isEntryValid = true;
+                }
+
                 break;
             }
 
@@ -141,28 +193,40 @@ public final class ConfigurationOptions {
             }
         }
 
-        return new ConfigurationOptions(automaticEven, optimizeCmpiToTst, optimizeMoveToMoveq, optimizeToAddqSubq,
-                optimizeUnsizedAbsoluteAddressingToPcRelative, optimizeUnsizedBranches, optimizeZeroDisplacement);
+        return new ConfigurationOptions(automaticEven, incrementalCache, layoutPasses, memoryMappedIncbin, optimizeCmpiToTst,
+                optimizeMoveToMoveq, optimizeToAddqSubq, optimizeUnsizedAbsoluteAddressingToPcRelative, optimizeUnsizedBranches,
+                optimizeZeroDisplacement, profile);
     }
 
     private final boolean automaticEven;
+    @CheckForNull
+    private final IncrementalAssemblyCache incrementalCache;
+    private final boolean layoutPasses;
+    private final boolean memoryMappedIncbin;
     private final boolean optimizeCmpiToTst;
     private final boolean optimizeMoveToMoveq;
     private final boolean optimizeToAddqSubq;
     private final boolean optimizeUnsizedAbsoluteAddressingToPcRelative;
     private final boolean optimizeUnsizedBranches;
     private final boolean optimizeZeroDisplacement;
+    @CheckForNull
+    private final AssemblyProfile profile;
 
-    private ConfigurationOptions(boolean automaticEven, boolean optimizeCmpiToTst, boolean optimizeMoveToMoveq,
+    private ConfigurationOptions(boolean automaticEven, @CheckForNull IncrementalAssemblyCache incrementalCache,
+            boolean layoutPasses, boolean memoryMappedIncbin, boolean optimizeCmpiToTst, boolean optimizeMoveToMoveq,
             boolean optimizeToAddqSubq, boolean optimizeUnsizedAbsoluteAddressingToPcRelative, boolean optimizeUnsizedBranches,
-            boolean optimizeZeroDisplacement) {
+            boolean optimizeZeroDisplacement, @CheckForNull AssemblyProfile profile) {
         this.automaticEven = automaticEven;
+        this.incrementalCache = incrementalCache;
+        this.layoutPasses = layoutPasses;
+        this.memoryMappedIncbin = memoryMappedIncbin;
         this.optimizeCmpiToTst = optimizeCmpiToTst;
         this.optimizeUnsizedBranches = optimizeUnsizedBranches;
         this.optimizeUnsizedAbsoluteAddressingToPcRelative = optimizeUnsizedAbsoluteAddressingToPcRelative;
         this.optimizeToAddqSubq = optimizeToAddqSubq;
         this.optimizeMoveToMoveq = optimizeMoveToMoveq;
         this.optimizeZeroDisplacement = optimizeZeroDisplacement;
+        this.profile = profile;
     }
 
     /**
@@ -175,6 +239,46 @@ public final class ConfigurationOptions {
         return this.automaticEven;
     }
 
+    /**
+     * Gets the {@link IncrementalAssemblyCache} that holds data that can be reused by subsequent assemblies of the same program.
+     *
+     * @return the {@link IncrementalAssemblyCache}, or <code>null</code> if the program must be assembled from scratch
+     */
+    @CheckForNull
+    public final IncrementalAssemblyCache incrementalCache() {
+        return this.incrementalCache;
+    }
+
+    /**
+     * Gets a value indicating whether instructions should only be laid out, instead of being encoded, on passes that are known
+     * not to be the last one. A pass is known not to be the last one once a constant symbol is defined with a value that differs
+     * from the value that the same symbol had when it was read earlier in the same pass, or once a name that was undefined when it
+     * was read is defined in the same namespace. From then on, until the end of the pass, an instruction that was encoded on a
+     * previous pass is replaced with as many zeroes as it produced then, without evaluating its operands. The last pass always
+     * encodes every instruction. Laying out an instruction with the size it had on a previous pass may delay the convergence of
+     * the program counter, so this may occasionally cause an extra pass.
+     *
+     * @return <code>true</code> to lay out instructions on passes that are known not to be the last one, or <code>false</code>
+     *         to encode instructions on every pass
+     */
+    public final boolean layoutPasses() {
+        return this.layoutPasses;
+    }
+
+    /**
+     * Gets a value indicating whether the <code>INCBIN</code> directive should map files in memory instead of reading them
+     * completely. When this option is enabled and the assembly's {@link org.reasm.FileFetcher} is a {@link MappableFileFetcher},
+     * the file path is resolved on the file system by the file fetcher, and each file is mapped only once per assembly. The
+     * mappings are released when the assembly completes. Files that the file fetcher doesn't resolve on the file system are
+     * fetched through the file fetcher as usual.
+     *
+     * @return <code>true</code> to map files included with <code>INCBIN</code> in memory, or <code>false</code> to fetch them
+     *         through the assembly's {@link org.reasm.FileFetcher}
+     */
+    public final boolean memoryMappedIncbin() {
+        return this.memoryMappedIncbin;
+    }
+
     /**
      * Gets a value indicating whether the <code>CMPI</code> instruction should be encoded as <code>TST</code> when the immediate
      * data is zero (<code>#0</code>).
@@ -241,4 +345,14 @@ public final class ConfigurationOptions {
         return this.optimizeZeroDisplacement;
     }
 
+    /**
+     * Gets the {@link AssemblyProfile} that collects statistics on the assembly.
+     *
+     * @return the {@link AssemblyProfile}, or <code>null</code> if statistics must not be collected
+     */
+    @CheckForNull
+    public final AssemblyProfile profile() {
+        return this.profile;
+    }
+
 }
@@ -0,0 +1,45 @@
+package org.reasm.m68k;
+
+import javax.annotation.Nonnull;
+
+import org.reasm.m68k.assembly.internal.IncrementalAssemblyState;
+
+/**
+ * Holds data that the assembler can reuse when a program is assembled again after it has been edited, such as macro definitions
+ * whose body was left untouched by {@link M68KArchitecture#reparse(ca.fragag.text.Document, org.reasm.source.AbstractSourceFile,
+ * int, int, int)}.
+ * <p>
+ * To assemble a program incrementally, create an IncrementalAssemblyCache and pass the same instance in the
+ * {@link ConfigurationOptions#INCREMENTAL_CACHE} option of each assembly of that program. Data is only reused for source nodes
+ * that are shared between the parsed forms of successive versions of the source files, so reusing the cache never changes the
+ * result of an assembly.
+ * <p>
+ * Two kinds of data are reused:
+ * <ul>
+ * <li>the analysis of macro definitions: the substitutions in a macro's body and, if the source file that contains the macro has
+ * not changed, the macro's instantiations;</li>
+ * <li>the output of the instructions that raised no messages: when an instruction on an unchanged line is reached with the same
+ * program counter, instruction set and encoding as in a previous assembly, and the symbols it read then still have the same
+ * value, its output is replayed instead of assembling it again.</li>
+ * </ul>
+ * <p>
+ * This class is not thread-safe: the assemblies that share an IncrementalAssemblyCache must not run concurrently.
+ *
+ * @author Francis Gagné
+ */
+public final class IncrementalAssemblyCache {
+
+    @Nonnull
+    private final IncrementalAssemblyState state = new IncrementalAssemblyState();
+
+    /**
+     * Gets the data that the assembler keeps in this cache. This method is called by the assembler.
+     *
+     * @return the data
+     */
+    @Nonnull
+    public final IncrementalAssemblyState getState() {
+        return this.state;
+    }
+
+}
@@ -2,7 +2,12 @@ package org.reasm.m68k;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
@@ -132,6 +137,54 @@ public final class M68KArchitecture extends Architecture {
         return M68KParser.INSTANCE.parse(text);
     }
 
+    /**
+     * Parses a collection of source files concurrently with this architecture. Each source file is parsed on its own task on the
+     * specified {@link ForkJoinPool}, and the parsed form is cached in the source file (see
+     * {@link AbstractSourceFile#getParsed(Architecture)}), so that an assembly that includes these source files later doesn't have
+     * to parse them again.
+     * <p>
+     * This is useful when a program includes many files: the files can be fetched and parsed ahead of the assembly, which is
+     * single-threaded. The {@link FileFetcher} used by the assembly must return the same source file objects for the parsed forms
+     * to be reused.
+     *
+     * @param sourceFiles
+     *            the source files to parse. Each source file must appear only once in the collection.
+     * @param pool
+     *            the {@link ForkJoinPool} on which to parse the source files
+     * @return the parsed forms of the source files, in the iteration order of the collection
+     */
+    @Nonnull
+    public final List<SourceNode> parseAll(@Nonnull Collection<? extends AbstractSourceFile<?>> sourceFiles, @Nonnull ForkJoinPool pool) {
+        if (sourceFiles == null) {
+            throw new NullPointerException("sourceFiles");
+        }
+
+        if (pool == null) {
+            throw new NullPointerException("pool");
+        }
+
+        final SourceNode[] parsed = new SourceNode[sourceFiles.size()];
+        final ArrayList<RecursiveAction> tasks = new ArrayList<>(parsed.length);
+        for (final AbstractSourceFile<?> sourceFile : sourceFiles) {
+            final int index = tasks.size();
+            tasks.add(new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    parsed[index] = sourceFile.getParsed(M68KArchitecture.this);
+                }
+            });
+        }
+
+        pool.invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                invokeAll(tasks);
+            }
+        });
+
+        return Collections.unmodifiableList(Arrays.asList(parsed));
+    }
+
     @Nonnull
     @Override
     public final SourceNode reparse(@Nonnull Document text, @Nonnull AbstractSourceFile<?> oldSourceFile, int replaceOffset,
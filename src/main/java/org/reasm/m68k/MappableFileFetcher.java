@@ -0,0 +1,33 @@
+package org.reasm.m68k;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+import org.reasm.FileFetcher;
+
+/**
+ * A {@link FileFetcher} that can resolve the path of a binary file to a file on the file system, so that the <code>INCBIN</code>
+ * directive can map the file in memory when the {@link ConfigurationOptions#MEMORY_MAPPED_INCBIN} option is enabled.
+ *
+ * @author Francis Gagné
+ */
+public interface MappableFileFetcher extends FileFetcher {
+
+    /**
+     * Resolves the path of a binary file to a file on the file system. The file at the resolved path must contain the same data
+     * that {@link #fetchBinaryFile(String)} would return for the same file path.
+     *
+     * @param filePath
+     *            the path of the binary file, as specified in the source code
+     * @return the path of the file on the file system, or <code>null</code> to fetch the file with
+     *         {@link #fetchBinaryFile(String)} instead
+     * @throws IOException
+     *             an I/O exception occurred
+     */
+    @CheckForNull
+    Path resolveBinaryFilePath(@Nonnull String filePath) throws IOException;
+
+}
@@ -0,0 +1,274 @@
+package org.reasm.m68k;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+
+import org.reasm.Assembly;
+import org.reasm.AssemblyCompletionStatus;
+import org.reasm.AssemblyMessage;
+import org.reasm.Configuration;
+import org.reasm.Environment;
+import org.reasm.FileFetcher;
+import org.reasm.source.SourceFile;
+
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Assembles a program for several variants (combinations of an {@link M68KArchitecture} and {@link ConfigurationOptions}) in
+ * parallel.
+ * <p>
+ * Each variant is assembled by an independent {@link Assembly} on its own task on a {@link ForkJoinPool}. The variants share the
+ * main source file and, when a {@link FileFetcher} is specified, the source files it fetches, through a {@link ParsedSourceCache}
+ * that is discarded once the variants have been assembled. Each source file is therefore only parsed once for all the variants
+ * that have the same architecture. The main source file is parsed before the variants are started.
+ * <p>
+ * The {@link FileFetcher} is called concurrently by the variants, so it must be thread-safe. The {@link ConfigurationOptions} of
+ * different variants must not share an {@link AssemblyProfile} or an {@link IncrementalAssemblyCache}, because these objects are
+ * not thread-safe.
+ *
+ * @author Francis Gagné
+ */
+@Immutable
+public final class MultiVariantBuild {
+
+    /**
+     * A combination of an architecture and configuration options for which a program is assembled.
+     *
+     * @author Francis Gagné
+     */
+    @Immutable
+    public static final class Variant {
+
+        @Nonnull
+        private final M68KArchitecture architecture;
+        @Nonnull
+        private final ConfigurationOptions configurationOptions;
+
+        /**
+         * Initializes a new Variant.
+         *
+         * @param architecture
+         *            the architecture
+         * @param configurationOptions
+         *            the configuration options
+         */
+        public Variant(@Nonnull M68KArchitecture architecture, @Nonnull ConfigurationOptions configurationOptions) {
+            if (architecture == null) {
+                throw new NullPointerException("architecture");
+            }
+
+            if (configurationOptions == null) {
+                throw new NullPointerException("configurationOptions");
+            }
+
+            this.architecture = architecture;
+            this.configurationOptions = configurationOptions;
+        }
+
+        /**
+         * Gets the architecture of this variant.
+         *
+         * @return the architecture
+         */
+        @Nonnull
+        public final M68KArchitecture getArchitecture() {
+            return this.architecture;
+        }
+
+        /**
+         * Gets the configuration options of this variant.
+         *
+         * @return the configuration options
+         */
+        @Nonnull
+        public final ConfigurationOptions getConfigurationOptions() {
+            return this.configurationOptions;
+        }
+
+    }
+
+    /**
+     * The result of the assembly of a program for a {@link Variant}.
+     *
+     * @author Francis Gagné
+     */
+    @Immutable
+    public static final class VariantResult {
+
+        @Nonnull
+        private final Variant variant;
+        @Nonnull
+        private final byte[] output;
+        @Nonnull
+        private final List<AssemblyMessage> messages;
+
+        VariantResult(@Nonnull Variant variant, @Nonnull byte[] output, @Nonnull List<AssemblyMessage> messages) {
+            this.variant = variant;
+            this.output = output;
+            this.messages = messages;
+        }
+
+        /**
+         * Gets the messages that were raised while assembling the program for the variant.
+         *
+         * @return an unmodifiable list of the messages
+         */
+        @Nonnull
+        public final List<AssemblyMessage> getMessages() {
+            return this.messages;
+        }
+
+        /**
+         * Gets the assembled data of the program for the variant.
+         *
+         * @return a copy of the assembled data
+         */
+        @Nonnull
+        public final byte[] getOutput() {
+            return this.output.clone();
+        }
+
+        /**
+         * Gets the variant for which the program was assembled.
+         *
+         * @return the variant
+         */
+        @Nonnull
+        public final Variant getVariant() {
+            return this.variant;
+        }
+
+    }
+
+    @Nonnull
+    private final Environment environment;
+    @Nonnull
+    private final SourceFile mainSourceFile;
+    @CheckForNull
+    private final FileFetcher fileFetcher;
+
+    /**
+     * Initializes a new MultiVariantBuild.
+     *
+     * @param environment
+     *            the environment in which the program is assembled
+     * @param mainSourceFile
+     *            the main source file of the program
+     * @param fileFetcher
+     *            the thread-safe {@link FileFetcher} that fetches the files included by the program, or <code>null</code> to use
+     *            the default file fetcher
+     */
+    public MultiVariantBuild(@Nonnull Environment environment, @Nonnull SourceFile mainSourceFile,
+            @CheckForNull FileFetcher fileFetcher) {
+        if (environment == null) {
+            throw new NullPointerException("environment");
+        }
+
+        if (mainSourceFile == null) {
+            throw new NullPointerException("mainSourceFile");
+        }
+
+        this.environment = environment;
+        this.mainSourceFile = mainSourceFile;
+        this.fileFetcher = fileFetcher;
+    }
+
+    /**
+     * Assembles the program for each of the specified variants, in parallel.
+     *
+     * @param variants
+     *            the variants to assemble the program for
+     * @param pool
+     *            the {@link ForkJoinPool} on which to assemble the variants
+     * @return the results of the variants, in the same order as the variants
+     * @throws IOException
+     *             an I/O exception occurred while assembling one of the variants
+     */
+    @Nonnull
+    public final List<VariantResult> assemble(@Nonnull List<Variant> variants, @Nonnull ForkJoinPool pool) throws IOException {
+        if (variants == null) {
+            throw new NullPointerException("variants");
+        }
+
+        if (pool == null) {
+            throw new NullPointerException("pool");
+        }
+
+        // Parse the main source file before starting the variants, so that they don't all parse it concurrently.
+        final HashSet<M68KArchitecture> architectures = new HashSet<>();
+        for (Variant variant : variants) {
+            if (architectures.add(variant.getArchitecture())) {
+                this.mainSourceFile.getParsed(variant.getArchitecture());
+            }
+        }
+
+        // Share the source files that the variants include.
+        final FileFetcher fileFetcher = this.fileFetcher == null ? null : new ParsedSourceCache(Long.MAX_VALUE)
+                .wrap(this.fileFetcher);
+
+        final VariantResult[] results = new VariantResult[variants.size()];
+        final IOException[] exceptions = new IOException[variants.size()];
+        final ArrayList<RecursiveAction> tasks = new ArrayList<>(variants.size());
+        for (int i = 0; i < variants.size(); i++) {
+            final int index = i;
+            final Variant variant = variants.get(i);
+            tasks.add(new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    try {
+                        results[index] = MultiVariantBuild.this.assemble(variant, fileFetcher);
+                    } catch (IOException e) {
+                        exceptions[index] = e;
+                    }
+                }
+            });
+        }
+
+        pool.invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                invokeAll(tasks);
+            }
+        });
+
+        for (IOException exception : exceptions) {
+            if (exception != null) {
+                throw exception;
+            }
+        }
+
+        return Collections.unmodifiableList(Arrays.asList(results));
+    }
+
+    @Nonnull
+    private VariantResult assemble(@Nonnull Variant variant, @CheckForNull FileFetcher fileFetcher) throws IOException {
+        Configuration configuration = new Configuration(this.environment, this.mainSourceFile, variant.getArchitecture())
+                .setCustomConfigurationOptions(ImmutableMap.<Object, Object> of(ConfigurationOptions.KEY,
+                        variant.getConfigurationOptions()));
+        if (fileFetcher != null) {
+            configuration = configuration.setFileFetcher(fileFetcher);
+        }
+
+        final Assembly assembly = new Assembly(configuration);
+        while (assembly.step() != AssemblyCompletionStatus.COMPLETE) {
+        }
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assembly.writeAssembledDataTo(out);
+
+        final List<AssemblyMessage> messages = new ArrayList<AssemblyMessage>(assembly.getMessages());
+        return new VariantResult(variant, out.toByteArray(), Collections.unmodifiableList(messages));
+    }
+
+}
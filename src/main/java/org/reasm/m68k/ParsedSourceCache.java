@@ -0,0 +1,246 @@
+package org.reasm.m68k;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.ThreadSafe;
+
+import org.reasm.FileFetcher;
+import org.reasm.source.SourceFile;
+
+import ca.fragag.text.DocumentReader;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.Weigher;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+/**
+ * A cache of source files that shares the source files fetched by several assemblies, along with their parsed forms.
+ * <p>
+ * When several assemblies include the same files (e.g. when a program is assembled with several configurations), each assembly
+ * fetches its own source files, which must then be parsed again. A {@link FileFetcher} returned by {@link #wrap(FileFetcher)}
+ * returns the same {@link SourceFile} object for all the source files that have the same file path and the same text (compared
+ * by their SHA-256 hash), so that the source file is only parsed once for each architecture (see
+ * {@link SourceFile#getParsed(org.reasm.Architecture)}). Only the source files that are fetched through the file fetcher are
+ * cached; macro instantiations are not.
+ * <p>
+ * The cache's capacity is measured in characters of source text, which is proportional to the memory used by the source files
+ * and their parsed forms. When the capacity is exceeded, the source files that were fetched least recently are evicted. The
+ * cache keeps the source files it contains reachable, so it should be discarded or {@linkplain #clear() cleared} once the
+ * assemblies that share it have completed.
+ *
+ * @author Francis Gagné
+ */
+@ThreadSafe
+public final class ParsedSourceCache {
+
+    /**
+     * A {@link FileFetcher} that shares the source files fetched by another {@link FileFetcher} through a
+     * {@link ParsedSourceCache}.
+     *
+     * @author Francis Gagné
+     */
+    @Immutable
+    private static final class CachingFileFetcher implements MappableFileFetcher {
+
+        @Nonnull
+        private final ParsedSourceCache cache;
+        @Nonnull
+        private final FileFetcher fileFetcher;
+
+        CachingFileFetcher(@Nonnull ParsedSourceCache cache, @Nonnull FileFetcher fileFetcher) {
+            this.cache = cache;
+            this.fileFetcher = fileFetcher;
+        }
+
+        @Override
+        public byte[] fetchBinaryFile(String filePath) throws IOException {
+            return this.fileFetcher.fetchBinaryFile(filePath);
+        }
+
+        @Override
+        public SourceFile fetchSourceFile(String filePath) throws IOException {
+            final SourceFile sourceFile = this.fileFetcher.fetchSourceFile(filePath);
+            if (sourceFile == null) {
+                return null;
+            }
+
+            return this.cache.intern(sourceFile);
+        }
+
+        @Override
+        public Path resolveBinaryFilePath(String filePath) throws IOException {
+            if (this.fileFetcher instanceof MappableFileFetcher) {
+                return ((MappableFileFetcher) this.fileFetcher).resolveBinaryFilePath(filePath);
+            }
+
+            return null;
+        }
+
+    }
+
+    /**
+     * The key of a source file in the cache.
+     *
+     * @author Francis Gagné
+     */
+    @Immutable
+    private static final class Key {
+
+        @Nonnull
+        final HashCode hash;
+        final int length;
+
+        Key(@Nonnull HashCode hash, int length) {
+            this.hash = hash;
+            this.length = length;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+
+            if (obj == null) {
+                return false;
+            }
+
+            if (this.getClass() != obj.getClass()) {
+                return false;
+            }
+
+            final Key other = (Key) obj;
+            if (this.length != other.length) {
+                return false;
+            }
+
+            if (!this.hash.equals(other.hash)) {
+                return false;
+            }
+
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hash.hashCode();
+        }
+
+    }
+
+    @Nonnull
+    private static final Weigher<Key, SourceFile> WEIGHER = new Weigher<Key, SourceFile>() {
+        @Override
+        public int weigh(Key key, SourceFile value) {
+            return key.length;
+        }
+    };
+
+    @Nonnull
+    private static Key createKey(@Nonnull SourceFile sourceFile) {
+        final Hasher hasher = Hashing.sha256().newHasher();
+        final String filePath = sourceFile.getFilePath();
+        if (filePath != null) {
+            hasher.putInt(filePath.length());
+            hasher.putUnencodedChars(filePath);
+        } else {
+            hasher.putInt(-1);
+        }
+
+        int length = 0;
+        final DocumentReader reader = new DocumentReader(sourceFile.getText());
+        while (!reader.atEnd()) {
+            hasher.putInt(reader.getCurrentCodePoint());
+            reader.advance();
+            length++;
+        }
+
+        return new Key(hasher.hash(), length);
+    }
+
+    private final long capacity;
+    @Nonnull
+    private final Cache<Key, SourceFile> cache;
+
+    /**
+     * Initializes a new ParsedSourceCache.
+     *
+     * @param capacity
+     *            the capacity of the cache, in characters of source text
+     */
+    public ParsedSourceCache(long capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("capacity must not be negative");
+        }
+
+        this.capacity = capacity;
+
+        // Use a single segment, so that the least recently used source files of the whole cache are evicted first.
+        this.cache = CacheBuilder.newBuilder().concurrencyLevel(1).maximumWeight(capacity).weigher(WEIGHER).build();
+    }
+
+    /**
+     * Removes all the source files from the cache.
+     */
+    public final void clear() {
+        this.cache.invalidateAll();
+    }
+
+    /**
+     * Gets the capacity of the cache.
+     *
+     * @return the capacity of the cache, in characters of source text
+     */
+    public final long getCapacity() {
+        return this.capacity;
+    }
+
+    /**
+     * Gets the source file in the cache that has the same file path and the same text as the specified source file, or adds the
+     * specified source file to the cache.
+     *
+     * @param sourceFile
+     *            the source file
+     * @return the source file in the cache, or <code>sourceFile</code> if the cache didn't contain an equivalent source file
+     */
+    @Nonnull
+    public final SourceFile intern(@Nonnull SourceFile sourceFile) {
+        if (sourceFile == null) {
+            throw new NullPointerException("sourceFile");
+        }
+
+        final Key key = createKey(sourceFile);
+        final SourceFile cachedSourceFile = this.cache.asMap().putIfAbsent(key, sourceFile);
+        if (cachedSourceFile != null) {
+            return cachedSourceFile;
+        }
+
+        return sourceFile;
+    }
+
+    /**
+     * Creates a {@link FileFetcher} that fetches files through the specified {@link FileFetcher} and returns the source files
+     * from this cache. If the specified file fetcher is a {@link MappableFileFetcher}, the returned file fetcher resolves the
+     * paths of binary files through it.
+     *
+     * @param fileFetcher
+     *            the thread-safe {@link FileFetcher} that fetches the files
+     * @return the new {@link FileFetcher}
+     */
+    @Nonnull
+    public final MappableFileFetcher wrap(@Nonnull FileFetcher fileFetcher) {
+        if (fileFetcher == null) {
+            throw new NullPointerException("fileFetcher");
+        }
+
+        return new CachingFileFetcher(this, fileFetcher);
+    }
+
+}
@@ -161,7 +161,7 @@ class AddAndCmpEorOrSubForms {
 
             // Parse the source operand.
             final EffectiveAddress ea = context.ea0;
-            context.getEffectiveAddress(context.getOperandText(0), AddressingModeCategory.IMMEDIATE_DATA, validSize, ea);
+            context.getEffectiveAddress(0, AddressingModeCategory.IMMEDIATE_DATA_MASK, validSize, ea);
 
             if (ea.isImmediateData()) {
                 ea.word0 = (short) (this.immediateOpcode | (isCcr ? 0 : 1 << 6) | EffectiveAddress.EA_IMMEDIATE_DATA);
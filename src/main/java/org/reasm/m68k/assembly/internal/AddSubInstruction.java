@@ -1,7 +1,6 @@
 package org.reasm.m68k.assembly.internal;
 
 import java.io.IOException;
-import java.util.Set;
 
 import javax.annotation.Nonnull;
 import javax.annotation.concurrent.Immutable;
@@ -32,18 +31,17 @@ class AddSubInstruction extends TwoOperandIntegerInstruction {
         final EffectiveAddress ea1 = context.ea1;
 
         // Parse the source operand.
-        context.getEffectiveAddress(context.getOperandText(0), AddressingModeCategory.ALL, size, ea0);
+        context.getEffectiveAddress(0, AddressingModeCategory.ALL_MASK, size, ea0);
 
         // Parse the destination operand.
-        final Set<AddressingMode> validAddressingModesForDestinationOperand;
+        final int validAddressingModesForDestinationOperand;
         if (ea0.isDataRegisterDirect() || ea0.isImmediateData()) {
-            validAddressingModesForDestinationOperand = AddressingModeCategory.ALTERABLE;
+            validAddressingModesForDestinationOperand = AddressingModeCategory.ALTERABLE_MASK;
         } else {
-            validAddressingModesForDestinationOperand = AddressingModeCategory.DATA_OR_ADDRESS_REGISTER_DIRECT;
+            validAddressingModesForDestinationOperand = AddressingModeCategory.DATA_OR_ADDRESS_REGISTER_DIRECT_MASK;
         }
 
-        context.getEffectiveAddress(context.getOperandText(1), validAddressingModesForDestinationOperand, size,
-                ea0.numberOfWords * 2, ea1);
+        context.getEffectiveAddress(1, validAddressingModesForDestinationOperand, size, ea0.numberOfWords * 2, ea1);
 
         if (!this.forms.encodeQuick(context, size, ea0, ea1)) {
             if (!this.forms.encodeBase(context, size, ea0, ea1, true)) {
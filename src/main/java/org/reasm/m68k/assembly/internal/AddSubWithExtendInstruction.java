@@ -1,9 +1,6 @@
 package org.reasm.m68k.assembly.internal;
 
 import java.io.IOException;
-import java.util.Collections;
-import java.util.EnumSet;
-import java.util.Set;
 
 import javax.annotation.Nonnull;
 import javax.annotation.concurrent.Immutable;
@@ -46,10 +43,8 @@ class AddSubWithExtendInstruction extends TwoEaInstruction {
     @Nonnull
     static final AddSubWithExtendInstruction SUBX = new AddSubWithExtendInstruction(0b001 << 12);
 
-    @Nonnull
-    private static final Set<AddressingMode> DATA_REGISTER_DIRECT_OR_ADDRESS_REGISTER_INDIRECT_WITH_PREDECREMENT = Collections
-            .unmodifiableSet(EnumSet.of(AddressingMode.DATA_REGISTER_DIRECT,
-                    AddressingMode.ADDRESS_REGISTER_INDIRECT_WITH_PREDECREMENT));
+    private static final int DATA_REGISTER_DIRECT_OR_ADDRESS_REGISTER_INDIRECT_WITH_PREDECREMENT =
+            AddressingMode.DATA_REGISTER_DIRECT.mask | AddressingMode.ADDRESS_REGISTER_INDIRECT_WITH_PREDECREMENT.mask;
 
     private final int fixedBits;
 
@@ -75,20 +70,20 @@ class AddSubWithExtendInstruction extends TwoEaInstruction {
     }
 
     @Override
-    Set<AddressingMode> getValidAddressingModesForDestinationOperand(InstructionSet instructionSet, EffectiveAddress ea0) {
+    int getValidAddressingModesForDestinationOperand(InstructionSet instructionSet, EffectiveAddress ea0) {
         if (ea0.isDataRegisterDirect()) {
-            return AddressingModeCategory.DATA_REGISTER_DIRECT;
+            return AddressingModeCategory.DATA_REGISTER_DIRECT_MASK;
         }
 
         if (ea0.isAddressRegisterIndirectWithPredecrement()) {
-            return AddressingModeCategory.ADDRESS_REGISTER_INDIRECT_WITH_PREDECREMENT;
+            return AddressingModeCategory.ADDRESS_REGISTER_INDIRECT_WITH_PREDECREMENT_MASK;
         }
 
         return DATA_REGISTER_DIRECT_OR_ADDRESS_REGISTER_INDIRECT_WITH_PREDECREMENT;
     }
 
     @Override
-    Set<AddressingMode> getValidAddressingModesForSourceOperand(InstructionSet instructionSet) {
+    int getValidAddressingModesForSourceOperand(InstructionSet instructionSet) {
         return DATA_REGISTER_DIRECT_OR_ADDRESS_REGISTER_INDIRECT_WITH_PREDECREMENT;
     }
 
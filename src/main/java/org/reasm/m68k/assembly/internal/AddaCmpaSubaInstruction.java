@@ -32,7 +32,7 @@ class AddaCmpaSubaInstruction extends TwoFixedEaInstruction {
     private final AddAndCmpEorOrSubForms forms;
 
     AddaCmpaSubaInstruction(@Nonnull AddAndCmpEorOrSubForms forms) {
-        super(AddressingModeCategory.ALL, AddressingModeCategory.ADDRESS_REGISTER_DIRECT);
+        super(AddressingModeCategory.ALL_MASK, AddressingModeCategory.ADDRESS_REGISTER_DIRECT_MASK);
         this.forms = forms;
     }
 
@@ -1,7 +1,6 @@
 package org.reasm.m68k.assembly.internal;
 
 import java.io.IOException;
-import java.util.Set;
 
 import javax.annotation.Nonnull;
 import javax.annotation.concurrent.Immutable;
@@ -28,9 +27,9 @@ class AddiCmpiSubiInstruction extends TwoEaInstruction {
         }
 
         @Override
-        Set<AddressingMode> getValidAddressingModesForDestinationOperand(InstructionSet instructionSet, EffectiveAddress ea0) {
+        int getValidAddressingModesForDestinationOperand(InstructionSet instructionSet, EffectiveAddress ea0) {
             if (InstructionSetCheck.CPU32_OR_MC68020_OR_LATER.isSupported(instructionSet)) {
-                return AddressingModeCategory.ALL_EXCEPT_IMMEDIATE_DATA;
+                return AddressingModeCategory.ALL_EXCEPT_IMMEDIATE_DATA_MASK;
             }
 
             return super.getValidAddressingModesForDestinationOperand(instructionSet, ea0);
@@ -85,14 +84,14 @@ class AddiCmpiSubiInstruction extends TwoEaInstruction {
     }
 
     @Override
-    Set<AddressingMode> getValidAddressingModesForDestinationOperand(InstructionSet instructionSet, EffectiveAddress ea0) {
+    int getValidAddressingModesForDestinationOperand(InstructionSet instructionSet, EffectiveAddress ea0) {
         // Overridden by CMPI
-        return AddressingModeCategory.ALTERABLE;
+        return AddressingModeCategory.ALTERABLE_MASK;
     }
 
     @Override
-    Set<AddressingMode> getValidAddressingModesForSourceOperand(InstructionSet instructionSet) {
-        return AddressingModeCategory.IMMEDIATE_DATA;
+    int getValidAddressingModesForSourceOperand(InstructionSet instructionSet) {
+        return AddressingModeCategory.IMMEDIATE_DATA_MASK;
     }
 
 }
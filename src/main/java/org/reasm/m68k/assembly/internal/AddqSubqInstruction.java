@@ -22,7 +22,7 @@ class AddqSubqInstruction extends TwoFixedEaInstruction {
     private final AddAndCmpEorOrSubForms.AddSubForms forms;
 
     private AddqSubqInstruction(@Nonnull AddAndCmpEorOrSubForms.AddSubForms forms) {
-        super(AddressingModeCategory.IMMEDIATE_DATA, AddressingModeCategory.ALTERABLE);
+        super(AddressingModeCategory.IMMEDIATE_DATA_MASK, AddressingModeCategory.ALTERABLE_MASK);
         this.forms = forms;
     }
 
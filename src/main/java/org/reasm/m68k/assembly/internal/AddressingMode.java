@@ -41,6 +41,13 @@ enum AddressingMode {
     PROGRAM_COUNTER_INDIRECT_INDEXED,
 
     /** The immediate data addressing mode. */
-    IMMEDIATE_DATA
+    IMMEDIATE_DATA;
+
+    /** The bit that represents this addressing mode in a bitmask of addressing modes. */
+    final int mask;
+
+    private AddressingMode() {
+        this.mask = 1 << this.ordinal();
+    }
 
 }
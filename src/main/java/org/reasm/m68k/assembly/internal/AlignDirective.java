@@ -43,10 +43,7 @@ class AlignDirective extends Mnemonic {
                 if (alignment != 0) {
                     final long remainder = UnsignedLongs.remainder(context.programCounter, alignment);
                     final long paddingSize = remainder == 0 ? 0 : alignment - remainder;
-
-                    for (long i = 0; UnsignedLongs.compare(i, paddingSize) < 0; i++) {
-                        context.appendByte((byte) 0);
-                    }
+                    context.appendZeroes(paddingSize);
                 } else {
                     context.addTentativeMessage(new AlignmentMustNotBeZeroOrNegativeErrorMessage());
                 }
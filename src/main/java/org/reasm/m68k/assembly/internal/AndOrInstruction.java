@@ -1,7 +1,6 @@
 package org.reasm.m68k.assembly.internal;
 
 import java.io.IOException;
-import java.util.Set;
 
 import javax.annotation.Nonnull;
 import javax.annotation.concurrent.Immutable;
@@ -44,17 +43,17 @@ class AndOrInstruction extends TwoEaInstruction {
     }
 
     @Override
-    Set<AddressingMode> getValidAddressingModesForDestinationOperand(InstructionSet instructionSet, EffectiveAddress ea0) {
+    int getValidAddressingModesForDestinationOperand(InstructionSet instructionSet, EffectiveAddress ea0) {
         if (ea0.isDataRegisterDirect() || ea0.isImmediateData()) {
-            return AddressingModeCategory.DATA_ALTERABLE;
+            return AddressingModeCategory.DATA_ALTERABLE_MASK;
         }
 
-        return AddressingModeCategory.DATA_REGISTER_DIRECT;
+        return AddressingModeCategory.DATA_REGISTER_DIRECT_MASK;
     }
 
     @Override
-    Set<AddressingMode> getValidAddressingModesForSourceOperand(InstructionSet instructionSet) {
-        return AddressingModeCategory.DATA;
+    int getValidAddressingModesForSourceOperand(InstructionSet instructionSet) {
+        return AddressingModeCategory.DATA_MASK;
     }
 
 }
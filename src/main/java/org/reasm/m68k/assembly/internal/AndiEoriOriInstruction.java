@@ -24,7 +24,7 @@ class AndiEoriOriInstruction extends TwoFixedEaInstruction {
     private final AddAndCmpEorOrSubForms forms;
 
     private AndiEoriOriInstruction(@Nonnull AddAndCmpEorOrSubForms forms) {
-        super(AddressingModeCategory.IMMEDIATE_DATA, AddressingModeCategory.DATA_ALTERABLE);
+        super(AddressingModeCategory.IMMEDIATE_DATA_MASK, AddressingModeCategory.DATA_ALTERABLE_MASK);
         this.forms = forms;
     }
 
@@ -1,7 +1,6 @@
 package org.reasm.m68k.assembly.internal;
 
 import java.io.IOException;
-import java.util.Set;
 
 import javax.annotation.Nonnull;
 
@@ -10,27 +9,28 @@ import org.reasm.commons.messages.ValueOutOfRangeErrorMessage;
 class BitManipulationInstruction extends TwoOperandIntegerInstruction {
 
     @Nonnull
-    static final BitManipulationInstruction BCHG = new BitManipulationInstruction(0b01 << 6, AddressingModeCategory.DATA_ALTERABLE);
+    static final BitManipulationInstruction BCHG = new BitManipulationInstruction(0b01 << 6,
+            AddressingModeCategory.DATA_ALTERABLE_MASK);
     @Nonnull
-    static final BitManipulationInstruction BCLR = new BitManipulationInstruction(0b10 << 6, AddressingModeCategory.DATA_ALTERABLE);
+    static final BitManipulationInstruction BCLR = new BitManipulationInstruction(0b10 << 6,
+            AddressingModeCategory.DATA_ALTERABLE_MASK);
     @Nonnull
-    static final BitManipulationInstruction BSET = new BitManipulationInstruction(0b11 << 6, AddressingModeCategory.DATA_ALTERABLE);
+    static final BitManipulationInstruction BSET = new BitManipulationInstruction(0b11 << 6,
+            AddressingModeCategory.DATA_ALTERABLE_MASK);
     @Nonnull
-    static final BitManipulationInstruction BTST = new BitManipulationInstruction(0b00 << 6, AddressingModeCategory.DATA,
-            AddressingModeCategory.DATA_EXCEPT_IMMEDIATE_DATA);
+    static final BitManipulationInstruction BTST = new BitManipulationInstruction(0b00 << 6, AddressingModeCategory.DATA_MASK,
+            AddressingModeCategory.DATA_EXCEPT_IMMEDIATE_DATA_MASK);
 
     private final int opcode;
-    @Nonnull
-    private final Set<AddressingMode> validAddressingModesForDestinationDynamicForm;
-    @Nonnull
-    private final Set<AddressingMode> validAddressingModesForDestinationStaticForm;
+    private final int validAddressingModesForDestinationDynamicForm;
+    private final int validAddressingModesForDestinationStaticForm;
 
-    private BitManipulationInstruction(int opcode, @Nonnull Set<AddressingMode> validAddressingModesForDestination) {
+    private BitManipulationInstruction(int opcode, int validAddressingModesForDestination) {
         this(opcode, validAddressingModesForDestination, validAddressingModesForDestination);
     }
 
-    private BitManipulationInstruction(int opcode, @Nonnull Set<AddressingMode> validAddressingModesForDestinationDynamicForm,
-            @Nonnull Set<AddressingMode> validAddressingModesForDestinationStaticForm) {
+    private BitManipulationInstruction(int opcode, int validAddressingModesForDestinationDynamicForm,
+            int validAddressingModesForDestinationStaticForm) {
         this.opcode = opcode;
         this.validAddressingModesForDestinationDynamicForm = validAddressingModesForDestinationDynamicForm;
         this.validAddressingModesForDestinationStaticForm = validAddressingModesForDestinationStaticForm;
@@ -42,21 +42,19 @@ class BitManipulationInstruction extends TwoOperandIntegerInstruction {
         final EffectiveAddress ea1 = context.ea1;
 
         // Parse the source operand.
-        context.getEffectiveAddress(context.getOperandText(0), AddressingModeCategory.DATA_REGISTER_DIRECT_OR_IMMEDIATE_DATA,
-                InstructionSize.LONG, ea0);
+        context.getEffectiveAddress(0, AddressingModeCategory.DATA_REGISTER_DIRECT_OR_IMMEDIATE_DATA_MASK, InstructionSize.LONG,
+                ea0);
 
         if (ea0.isDataRegisterDirect()) {
             // Parse the destination operand.
-            context.getEffectiveAddress(context.getOperandText(1), this.validAddressingModesForDestinationDynamicForm,
-                    InstructionSize.BYTE, ea1);
+            context.getEffectiveAddress(1, this.validAddressingModesForDestinationDynamicForm, InstructionSize.BYTE, ea1);
 
             // Encode the instruction (dynamic form).
             ea1.word0 |= 0b00000001_00000000 | this.opcode | ea0.getRegister() << 9;
             context.appendEffectiveAddress(ea1);
         } else if (ea0.isImmediateData()) {
             // Parse the destination operand.
-            context.getEffectiveAddress(context.getOperandText(1), this.validAddressingModesForDestinationStaticForm,
-                    InstructionSize.BYTE, 4, ea1);
+            context.getEffectiveAddress(1, this.validAddressingModesForDestinationStaticForm, InstructionSize.BYTE, 4, ea1);
 
             // Encode the instruction (static form).
             ea1.word0 |= 0b00001000_00000000 | this.opcode;
@@ -109,6 +109,16 @@ class BranchInstruction extends Instruction {
 
             Value.accept(value, visitor);
 
+            BranchRelaxation.Site relaxationSite = null;
+            if (size == InstructionSize.DEFAULT && context.optimizeUnsizedBranches) {
+                // The branch relaxation may have found on the previous pass that this branch must be larger than what the current
+                // value of its target suggests, because other branches will grow.
+                relaxationSite = context.branchRelaxation.getSite(context.step.getLocation());
+                if (relaxationSite.minimumSize.compareTo(visitor.outputSize) > 0) {
+                    visitor.outputSize = relaxationSite.minimumSize;
+                }
+            }
+
             switch (visitor.outputSize) {
             case BYTE:
                 short distance = (short) (visitor.distance & 0x00FF);
@@ -139,9 +149,20 @@ class BranchInstruction extends Instruction {
                 checkInstructionSet(InstructionSetCheck.MC68020_OR_LATER, context);
                 break;
             }
+
+            if (relaxationSite != null) {
+                context.branchRelaxation.record(relaxationSite, context.programCounter, visitor.outputSize, visitor.hasTarget,
+                        visitor.target, InstructionSetCheck.MC68020_OR_LATER.isSupported(context.instructionSet));
+            }
         }
     }
 
+    @Override
+    boolean canSkipEncoding(M68KAssemblyContext context) {
+        // The branch relaxation needs every unsized branch to be recorded on every pass.
+        return !context.optimizeUnsizedBranches;
+    }
+
     @Override
     void checkInstructionSet(M68KAssemblyContext context) {
         // Don't check here: depends on the effective instruction size.
@@ -17,6 +17,8 @@ final class BranchLabelValueVisitor implements ValueVisitor<Void> {
     @Nonnull
     InstructionSize outputSize = InstructionSize.DEFAULT;
     int distance;
+    boolean hasTarget;
+    long target;
 
     BranchLabelValueVisitor(@Nonnull M68KAssemblyContext context) {
         this.context = context;
@@ -36,6 +38,8 @@ final class BranchLabelValueVisitor implements ValueVisitor<Void> {
 
     @Override
     public Void visitSignedInt(long value) {
+        this.hasTarget = true;
+        this.target = value;
         value -= this.context.programCounter + 2;
 
         switch (this.size) {
@@ -116,6 +120,7 @@ final class BranchLabelValueVisitor implements ValueVisitor<Void> {
 
     void reset(@Nonnull InstructionSize size) {
         this.size = size;
+        this.hasTarget = false;
     }
 
 }
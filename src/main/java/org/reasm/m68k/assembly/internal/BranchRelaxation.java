@@ -0,0 +1,315 @@
+package org.reasm.m68k.assembly.internal;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+import org.reasm.AssemblyStepLocation;
+import org.reasm.m68k.AssemblyProfile;
+
+/**
+ * Determines the size of unsized branches when the {@link org.reasm.m68k.ConfigurationOptions#OPTIMIZE_UNSIZED_BRANCHES} option
+ * is enabled, without waiting for a full pass every time a branch grows.
+ * <p>
+ * On every pass, each unsized branch is recorded as a relaxation site, along with its address, its length and its target. When a
+ * new pass starts, the sites of the previous pass are solved together: each branch starts with the size it needs on the layout
+ * of the previous pass, then whenever a branch grows, the branches and the targets that follow it are moved accordingly, and the
+ * branches whose target is now out of range grow in turn, until no branch grows. The solved sizes are then used as the minimum
+ * sizes of the branches on the following passes. Without this, a branch that grows can only push another branch out of range on
+ * the next pass, and a chain of such branches costs one pass per branch.
+ * <p>
+ * A branch never shrinks during an assembly: its minimum size is the largest size it was assembled with, and the solutions only
+ * make branches grow. Since a branch can only grow twice, the sizes stop changing after a bounded number of passes, even when
+ * branches depend on each other (e.g. a forward branch over a backward branch whose target precedes the forward branch).
+ * <p>
+ * Forward targets are assumed to move along with the code that precedes them once they have been seen to do so. A forward target
+ * is assumed to be fixed (e.g. an address defined with <code>EQU</code>) on the first pass where its value is known, and when it
+ * kept its value on a pass where the code that precedes it grew. If a target that was assumed to be fixed does move, the branch
+ * grows on a later pass instead.
+ *
+ * @author Francis Gagné
+ */
+final class BranchRelaxation {
+
+    /**
+     * A relaxation site: an unsized branch instruction.
+     *
+     * @author Francis Gagné
+     */
+    static final class Site {
+
+        // The minimum size of the branch: the largest size it was assembled with, or the size that was solved for it if larger.
+        @Nonnull
+        InstructionSize minimumSize = InstructionSize.BYTE;
+
+        // The address, length and target of the branch on the last pass where it was assembled.
+        private long address;
+        private int length;
+        private boolean hasTarget;
+        private long target;
+        private boolean longAllowed;
+
+        // The address, length and target of the branch on the pass before the last pass where it was assembled.
+        private boolean hasPreviousPosition;
+        private long previousAddress;
+        private int previousLength;
+        private boolean hasPreviousTarget;
+        private long previousTarget;
+
+    }
+
+    private static void addGrowth(@Nonnull long[] growthTree, int index, long growth) {
+        for (int i = index + 1; i < growthTree.length; i += i & -i) {
+            growthTree[i] += growth;
+        }
+    }
+
+    private static int countAddressesBefore(@Nonnull long[] addresses, int count, long address) {
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            final int middle = (low + high) >>> 1;
+            if (addresses[middle] < address) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        return low;
+    }
+
+    private static long getGrowthBefore(@Nonnull long[] growthTree, int index) {
+        long growth = 0;
+        for (int i = index; i > 0; i -= i & -i) {
+            growth += growthTree[i];
+        }
+
+        return growth;
+    }
+
+    private static int getLength(long distance, boolean longAllowed) {
+        if (distance >= -0x80 && distance <= 0x7F && distance != 0 && distance != -1) {
+            return 2;
+        }
+
+        if (!longAllowed || distance >= -0x8000 && distance <= 0x7FFF) {
+            return 4;
+        }
+
+        return 6;
+    }
+
+    @Nonnull
+    private static InstructionSize getSize(int length) {
+        switch (length) {
+        case 2:
+            return InstructionSize.BYTE;
+
+        case 4:
+            return InstructionSize.WORD;
+
+        default:
+            return InstructionSize.LONG;
+        }
+    }
+
+    @Nonnull
+    private final HashMap<AssemblyStepLocation, Site> sitesByLocation = new HashMap<>();
+
+    // The sites that were recorded on the current pass, in the order in which they were assembled.
+    @Nonnull
+    private final ArrayList<Site> sites = new ArrayList<>();
+
+    // The growth of the branches between the two passes before the pass that just ended, as computed by the last solution: the
+    // addresses of the branches on the first of these passes and the cumulative growth of the branches that precede them.
+    @Nonnull
+    private long[] lastPreviousAddresses = new long[0];
+    @Nonnull
+    private long[] lastPreviousGrowth = new long[1];
+    private int lastNumberOfPreviousPositions;
+
+    /**
+     * Gets the relaxation site for the branch at the specified step location, creating it if it doesn't exist yet.
+     *
+     * @param location
+     *            the location of the assembly step of the branch
+     * @return the relaxation site
+     */
+    @Nonnull
+    Site getSite(@Nonnull AssemblyStepLocation location) {
+        Site site = this.sitesByLocation.get(location);
+        if (site == null) {
+            site = new Site();
+            this.sitesByLocation.put(location, site);
+        }
+
+        return site;
+    }
+
+    /**
+     * Records the position and the target of a branch on the current pass.
+     *
+     * @param site
+     *            the relaxation site of the branch
+     * @param address
+     *            the address of the branch
+     * @param size
+     *            the size of the branch's displacement
+     * @param hasTarget
+     *            <code>true</code> if the branch's target was determined, otherwise <code>false</code>
+     * @param target
+     *            the address of the branch's target, if it was determined
+     * @param longAllowed
+     *            <code>true</code> if the branch may use a 32-bit displacement, otherwise <code>false</code>
+     */
+    void record(@Nonnull Site site, long address, @Nonnull InstructionSize size, boolean hasTarget, long target,
+            boolean longAllowed) {
+        site.address = address;
+        site.length = size == InstructionSize.BYTE ? 2 : size == InstructionSize.WORD ? 4 : 6;
+        site.hasTarget = hasTarget;
+        site.target = target;
+        site.longAllowed = longAllowed;
+        this.sites.add(site);
+
+        // The branch was assembled with at least its minimum size, so this never makes it shrink.
+        site.minimumSize = size;
+    }
+
+    /**
+     * Solves the sizes of the branches that were recorded on the pass that just ended. This method must be called when a new pass
+     * starts.
+     *
+     * @param profile
+     *            the profile in which to record the branches that grew, or <code>null</code>
+     */
+    void solve(@CheckForNull AssemblyProfile profile) {
+        final ArrayList<Site> recordedSites = this.sites;
+        final int numberOfSites = recordedSites.size();
+        if (numberOfSites == 0) {
+            this.lastNumberOfPreviousPositions = 0;
+            return;
+        }
+
+        final Site[] sites = recordedSites.toArray(new Site[numberOfSites]);
+        recordedSites.clear();
+
+        final long[] addresses = new long[numberOfSites];
+        final long[] previousAddresses = new long[numberOfSites];
+        final long[] previousGrowth = new long[numberOfSites + 1];
+        int numberOfPreviousPositions = 0;
+        boolean ordered = true;
+        for (int i = 0; i < numberOfSites; i++) {
+            final Site site = sites[i];
+            addresses[i] = site.address;
+
+            // The branches must have been assembled in increasing address order (this is not the case after an ORG directive
+            // that goes backwards, for example).
+            if (i != 0 && site.address < addresses[i - 1]) {
+                ordered = false;
+            }
+
+            if (site.hasPreviousPosition) {
+                if (numberOfPreviousPositions != 0 && site.previousAddress < previousAddresses[numberOfPreviousPositions - 1]) {
+                    ordered = false;
+                }
+
+                previousAddresses[numberOfPreviousPositions] = site.previousAddress;
+                previousGrowth[numberOfPreviousPositions + 1] = previousGrowth[numberOfPreviousPositions] + site.length
+                        - site.previousLength;
+                numberOfPreviousPositions++;
+            }
+        }
+
+        // A forward target is read on each pass with its address on the previous pass, so it is expected to move by the growth of
+        // the branches that preceded it between the two passes before. If it kept its value anyway, or if its value wasn't known
+        // on the previous pass, it is assumed not to move along with the code.
+        final boolean[] fixedTargets = new boolean[numberOfSites];
+        for (int i = 0; i < numberOfSites; i++) {
+            final Site site = sites[i];
+            if (site.hasTarget && site.target > site.address) {
+                if (!site.hasPreviousTarget) {
+                    fixedTargets[i] = true;
+                } else if (site.target == site.previousTarget) {
+                    fixedTargets[i] = this.lastPreviousGrowth[countAddressesBefore(this.lastPreviousAddresses,
+                            this.lastNumberOfPreviousPositions, site.previousTarget)] != 0;
+                }
+            }
+        }
+
+        for (Site site : sites) {
+            site.hasPreviousPosition = true;
+            site.previousAddress = site.address;
+            site.previousLength = site.length;
+            site.hasPreviousTarget = site.hasTarget;
+            site.previousTarget = site.target;
+        }
+
+        this.lastPreviousAddresses = previousAddresses;
+        this.lastPreviousGrowth = previousGrowth;
+        this.lastNumberOfPreviousPositions = ordered ? numberOfPreviousPositions : 0;
+
+        if (!ordered) {
+            return;
+        }
+
+        // The value of a forward target is the address of the target on the pass before the pass that just ended. Move it by the
+        // growth of the branches that precede it since that pass.
+        final long[] targets = new long[numberOfSites];
+        for (int i = 0; i < numberOfSites; i++) {
+            final Site site = sites[i];
+            long target = site.target;
+            if (site.hasTarget && target > site.address && !fixedTargets[i]) {
+                target += previousGrowth[countAddressesBefore(previousAddresses, numberOfPreviousPositions, target)];
+            }
+
+            targets[i] = target;
+        }
+
+        // Start from the length of each branch on the pass that just ended. growthTree is a binary indexed tree over the growth
+        // of the branches, so that the branches and the targets can be moved by the growth of the branches that precede them.
+        final long[] growthTree = new long[numberOfSites + 1];
+        final int[] lengths = new int[numberOfSites];
+        for (int i = 0; i < numberOfSites; i++) {
+            lengths[i] = sites[i].length;
+        }
+
+        // Grow the branches whose target is out of range until none grows.
+        boolean changed;
+        do {
+            changed = false;
+            for (int i = 0; i < numberOfSites; i++) {
+                final Site site = sites[i];
+                if (!site.hasTarget) {
+                    continue;
+                }
+
+                final long address = addresses[i] + getGrowthBefore(growthTree, i);
+                long target = targets[i];
+                if (!fixedTargets[i]) {
+                    target += getGrowthBefore(growthTree, countAddressesBefore(addresses, numberOfSites, targets[i]));
+                }
+
+                final int length = getLength(target - (address + 2), site.longAllowed);
+                if (length > lengths[i]) {
+                    addGrowth(growthTree, i, length - lengths[i]);
+                    lengths[i] = length;
+                    changed = true;
+                }
+            }
+        } while (changed);
+
+        for (int i = 0; i < numberOfSites; i++) {
+            final Site site = sites[i];
+            if (lengths[i] > site.length) {
+                site.minimumSize = getSize(lengths[i]);
+                if (profile != null) {
+                    profile.recordRelaxedBranch();
+                }
+            }
+        }
+    }
+
+}
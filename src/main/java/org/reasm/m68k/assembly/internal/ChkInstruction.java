@@ -17,7 +17,7 @@ class ChkInstruction extends TwoFixedEaInstruction {
     static final ChkInstruction CHK = new ChkInstruction();
 
     private ChkInstruction() {
-        super(AddressingModeCategory.DATA, AddressingModeCategory.DATA_REGISTER_DIRECT);
+        super(AddressingModeCategory.DATA_MASK, AddressingModeCategory.DATA_REGISTER_DIRECT_MASK);
     }
 
     @Override
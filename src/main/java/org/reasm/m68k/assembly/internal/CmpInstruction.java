@@ -1,9 +1,6 @@
 package org.reasm.m68k.assembly.internal;
 
 import java.io.IOException;
-import java.util.Collections;
-import java.util.EnumSet;
-import java.util.Set;
 
 import javax.annotation.Nonnull;
 import javax.annotation.concurrent.Immutable;
@@ -24,10 +21,9 @@ class CmpInstruction extends TwoEaInstruction {
     @Nonnull
     private static final AddAndCmpEorOrSubForms FORMS = AddAndCmpEorOrSubForms.CMP;
 
-    @Nonnull
-    private static final Set<AddressingMode> DATA_OR_ADDRESS_REGISTER_DIRECT_OR_ADDRESS_REGISTER_INDIRECT_WITH_POSTINCREMENT = Collections
-            .unmodifiableSet(EnumSet.of(AddressingMode.DATA_REGISTER_DIRECT, AddressingMode.ADDRESS_REGISTER_DIRECT,
-                    AddressingMode.ADDRESS_REGISTER_INDIRECT_WITH_POSTINCREMENT));
+    private static final int DATA_OR_ADDRESS_REGISTER_DIRECT_OR_ADDRESS_REGISTER_INDIRECT_WITH_POSTINCREMENT =
+            AddressingMode.DATA_REGISTER_DIRECT.mask | AddressingMode.ADDRESS_REGISTER_DIRECT.mask
+                    | AddressingMode.ADDRESS_REGISTER_INDIRECT_WITH_POSTINCREMENT.mask;
 
     static boolean encodeCmpiAsTst(@Nonnull M68KAssemblyContext context, @Nonnull InstructionSize size,
             @Nonnull EffectiveAddress ea0, @Nonnull EffectiveAddress ea1) throws IOException {
@@ -76,7 +72,7 @@ class CmpInstruction extends TwoEaInstruction {
     }
 
     @Override
-    Set<AddressingMode> getValidAddressingModesForDestinationOperand(InstructionSet instructionSet, EffectiveAddress ea0) {
+    int getValidAddressingModesForDestinationOperand(InstructionSet instructionSet, EffectiveAddress ea0) {
         if (ea0.isImmediateData()) {
             return AddiCmpiSubiInstruction.CMPI.getValidAddressingModesForDestinationOperand(instructionSet, ea0);
         }
@@ -85,12 +81,12 @@ class CmpInstruction extends TwoEaInstruction {
             return DATA_OR_ADDRESS_REGISTER_DIRECT_OR_ADDRESS_REGISTER_INDIRECT_WITH_POSTINCREMENT;
         }
 
-        return AddressingModeCategory.DATA_OR_ADDRESS_REGISTER_DIRECT;
+        return AddressingModeCategory.DATA_OR_ADDRESS_REGISTER_DIRECT_MASK;
     }
 
     @Override
-    Set<AddressingMode> getValidAddressingModesForSourceOperand(InstructionSet instructionSet) {
-        return AddressingModeCategory.ALL;
+    int getValidAddressingModesForSourceOperand(InstructionSet instructionSet) {
+        return AddressingModeCategory.ALL_MASK;
     }
 
 }
@@ -30,8 +30,8 @@ class CmpmInstruction extends TwoFixedEaInstruction {
     }
 
     private CmpmInstruction() {
-        super(AddressingModeCategory.ADDRESS_REGISTER_INDIRECT_WITH_POSTINCREMENT,
-                AddressingModeCategory.ADDRESS_REGISTER_INDIRECT_WITH_POSTINCREMENT);
+        super(AddressingModeCategory.ADDRESS_REGISTER_INDIRECT_WITH_POSTINCREMENT_MASK,
+                AddressingModeCategory.ADDRESS_REGISTER_INDIRECT_WITH_POSTINCREMENT_MASK);
     }
 
     @Override
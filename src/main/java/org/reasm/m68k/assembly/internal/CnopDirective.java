@@ -67,9 +67,7 @@ class CnopDirective extends Mnemonic {
                         }
 
                         final long paddingSize = boundary + offset - context.programCounter;
-                        for (long i = 0; UnsignedLongs.compare(i, paddingSize) < 0; i++) {
-                            context.appendByte((byte) 0);
-                        }
+                        context.appendZeroes(paddingSize);
                     } else {
                         context.addTentativeMessage(new AlignmentMustNotBeZeroOrNegativeErrorMessage());
                     }
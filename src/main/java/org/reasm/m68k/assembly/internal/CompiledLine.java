@@ -0,0 +1,43 @@
+package org.reasm.m68k.assembly.internal;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * The parts of a logical line in the body of a <code>DO</code>, <code>FOR</code>, <code>REPT</code> or <code>WHILE</code> block
+ * that are the same on every iteration of the block: the mnemonic, as it is resolved from the source text, the attribute, the
+ * labels and the parsed operands. Compiled lines are kept by {@link M68KAssemblyContext} until the outermost loop block is
+ * exited, or until their logical line is no longer reachable, so that the source text of the body is only read once, instead of
+ * once per iteration.
+ *
+ * @author Francis Gagné
+ */
+@Immutable
+final class CompiledLine {
+
+    final boolean builtInMnemonicForced;
+    @CheckForNull
+    final MnemonicSymbol builtInMnemonicSymbol;
+    @CheckForNull
+    final String attribute;
+    @Nonnull
+    final String mnemonicName;
+    @Nonnull
+    final String[] labels;
+    // The same array as in the parsed operand cache, so that operands parsed on any iteration are seen by the other iterations.
+    @Nonnull
+    final ParsedOperand[] parsedOperands;
+
+    CompiledLine(boolean builtInMnemonicForced, @CheckForNull MnemonicSymbol builtInMnemonicSymbol,
+            @CheckForNull String attribute, @Nonnull String mnemonicName, @Nonnull String[] labels,
+            @Nonnull ParsedOperand[] parsedOperands) {
+        this.builtInMnemonicForced = builtInMnemonicForced;
+        this.builtInMnemonicSymbol = builtInMnemonicSymbol;
+        this.attribute = attribute;
+        this.mnemonicName = mnemonicName;
+        this.labels = labels;
+        this.parsedOperands = parsedOperands;
+    }
+
+}
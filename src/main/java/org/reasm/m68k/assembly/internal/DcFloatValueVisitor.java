@@ -1,6 +1,10 @@
 package org.reasm.m68k.assembly.internal;
 
 import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
 
 import javax.annotation.Nonnull;
 
@@ -12,6 +16,116 @@ import org.reasm.m68k.messages.FunctionCannotBeConvertedToRealErrorMessage;
 
 final class DcFloatValueVisitor implements DcValueVisitor {
 
+    // The packed decimal format has 17 significant digits: 1 digit before the decimal point and 16 digits after it.
+    private static final int PACKED_DIGITS = 17;
+    @Nonnull
+    private static final MathContext PACKED_MATH_CONTEXT = new MathContext(PACKED_DIGITS, RoundingMode.HALF_EVEN);
+    private static final long[] POWERS_OF_TEN = new long[PACKED_DIGITS + 1];
+
+    static {
+        long powerOfTen = 1;
+        for (int i = 0; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = powerOfTen;
+            powerOfTen *= 10;
+        }
+    }
+
+    private static int numberOfDigits(long value) {
+        int numberOfDigits = 1;
+        while (numberOfDigits < POWERS_OF_TEN.length && value >= POWERS_OF_TEN[numberOfDigits]) {
+            numberOfDigits++;
+        }
+
+        return numberOfDigits;
+    }
+
+    // Writes a value in the extended precision format of the MC68881/MC68882: a sign bit, a 15-bit exponent biased by 16383, 16
+    // zero bits and a 64-bit mantissa with an explicit integer bit.
+    private static void putExtended(@Nonnull ByteBuffer buffer, double value) {
+        final long bits = Double.doubleToRawLongBits(value);
+        final int sign = (int) (bits >>> 48) & 0x8000;
+        final int biasedExponent = (int) (bits >>> 52) & 0x7FF;
+        final long fraction = bits & 0xFFFFFFFFFFFFFL;
+        final int exponent;
+        final long mantissa;
+        if (biasedExponent == 0x7FF) {
+            // Infinity or NaN
+            exponent = 0x7FFF;
+            mantissa = fraction == 0 ? 0 : 1L << 63 | fraction << 11;
+        } else if (biasedExponent != 0) {
+            // Normalized number
+            exponent = biasedExponent - 1023 + 16383;
+            mantissa = 1L << 63 | fraction << 11;
+        } else if (fraction != 0) {
+            // Denormalized double: every denormalized double is a normalized extended precision number.
+            final int shift = Long.numberOfLeadingZeros(fraction);
+            exponent = 16383 - 1074 + 63 - shift;
+            mantissa = fraction << shift;
+        } else {
+            // Zero
+            exponent = 0;
+            mantissa = 0;
+        }
+
+        buffer.putShort((short) (sign | exponent));
+        buffer.putShort((short) 0);
+        buffer.putLong(mantissa);
+    }
+
+    // Writes a value in the packed decimal real format of the MC68881/MC68882: the sign of the mantissa, the sign of the
+    // exponent, a 3-digit BCD exponent and a 17-digit BCD mantissa with 1 digit before the decimal point.
+    private static void putPacked(@Nonnull ByteBuffer buffer, double value) {
+        final int signOfMantissa = (int) (Double.doubleToRawLongBits(value) >>> 63) << 31;
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            // The exponent and the sign of the exponent are all ones. The mantissa of a NaN is not zero.
+            buffer.putInt(signOfMantissa | 0x7FFF0000);
+            buffer.putLong(Double.isNaN(value) ? -1L : 0L);
+            return;
+        }
+
+        if (value == 0) {
+            buffer.putInt(signOfMantissa);
+            buffer.putLong(0);
+            return;
+        }
+
+        // Get the 17 most significant decimal digits of the value, correctly rounded, and the decimal exponent of the first
+        // digit. Integers are converted directly; other values need exact decimal arithmetic.
+        final double magnitude = Math.abs(value);
+        final long digits;
+        int exponent;
+        if (magnitude < 1e17 && magnitude == Math.rint(magnitude)) {
+            final long integer = (long) magnitude;
+            exponent = numberOfDigits(integer) - 1;
+            digits = integer * POWERS_OF_TEN[PACKED_DIGITS - 1 - exponent];
+        } else {
+            final BigDecimal decimal = new BigDecimal(magnitude).round(PACKED_MATH_CONTEXT);
+            final int precision = decimal.precision();
+            exponent = precision - 1 - decimal.scale();
+            digits = decimal.unscaledValue().longValue() * POWERS_OF_TEN[PACKED_DIGITS - precision];
+        }
+
+        final int integerDigit = (int) (digits / POWERS_OF_TEN[PACKED_DIGITS - 1]);
+        long fractionDigits = digits % POWERS_OF_TEN[PACKED_DIGITS - 1];
+        long fractionBcd = 0;
+        for (int i = 0; i < PACKED_DIGITS - 1; i++) {
+            fractionBcd |= fractionDigits % 10 << i * 4;
+            fractionDigits /= 10;
+        }
+
+        int signOfExponent = 0;
+        if (exponent < 0) {
+            signOfExponent = 1 << 30;
+            exponent = -exponent;
+        }
+
+        // The exponent of a double never has more than 3 decimal digits.
+        final int exponentBcd = exponent / 100 << 8 | exponent / 10 % 10 << 4 | exponent % 10;
+
+        buffer.putInt(signOfMantissa | signOfExponent | exponentBcd << 16 | integerDigit);
+        buffer.putLong(fractionBcd);
+    }
+
     private static double unsignedToFloat(long value) {
         if (value < 0) { // value >= 2**63
             // By shifting, we lose the least significant bit, but a double doesn't have enough precision to represent that bit
@@ -27,6 +141,8 @@ final class DcFloatValueVisitor implements DcValueVisitor {
     @Nonnull
     private InstructionSize size = InstructionSize.DEFAULT;
     private double output;
+    @Nonnull
+    private final ByteBuffer encodedValue = ByteBuffer.allocate(12);
 
     DcFloatValueVisitor(@Nonnull M68KAssemblyContext context) {
         this.context = context;
@@ -45,11 +161,37 @@ final class DcFloatValueVisitor implements DcValueVisitor {
             break;
 
         case EXTENDED:
-            throw new RuntimeException("DC[B].X not implemented yet");
+        case PACKED:
+            this.context.appendBytes(this.encodeToBuffer());
+            break;
+        }
+    }
+
+    @Override
+    public ByteBuffer encodeToBuffer() {
+        final ByteBuffer encodedValue = this.encodedValue;
+        encodedValue.clear();
+        switch (this.size) {
+        case SINGLE:
+            encodedValue.putInt(Float.floatToRawIntBits((float) this.output));
+            break;
+
+        case DOUBLE:
+        default:
+            encodedValue.putLong(Double.doubleToRawLongBits(this.output));
+            break;
+
+        case EXTENDED:
+            putExtended(encodedValue, this.output);
+            break;
 
         case PACKED:
-            throw new RuntimeException("DC[B].P not implemented yet");
+            putPacked(encodedValue, this.output);
+            break;
         }
+
+        encodedValue.flip();
+        return encodedValue;
     }
 
     @Override
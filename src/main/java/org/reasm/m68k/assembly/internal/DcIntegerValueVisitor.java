@@ -21,6 +21,8 @@ final class DcIntegerValueVisitor implements DcValueVisitor {
     private boolean signed;
     @CheckForNull
     private ByteBuffer outputBytes;
+    @Nonnull
+    private final ByteBuffer encodedValue = ByteBuffer.allocate(8);
 
     DcIntegerValueVisitor(@Nonnull M68KAssemblyContext context) {
         this.context = context;
@@ -31,7 +33,7 @@ final class DcIntegerValueVisitor implements DcValueVisitor {
         switch (this.size) {
         case BYTE:
             if (this.outputBytes != null) {
-                this.context.builder.appendAssembledData(this.outputBytes);
+                this.context.appendBytes(this.outputBytes);
             } else {
                 this.context.appendByte((byte) this.output);
             }
@@ -54,6 +56,38 @@ final class DcIntegerValueVisitor implements DcValueVisitor {
         }
     }
 
+    @Override
+    public ByteBuffer encodeToBuffer() {
+        if (this.outputBytes != null) {
+            return this.outputBytes;
+        }
+
+        final ByteBuffer encodedValue = this.encodedValue;
+        encodedValue.clear();
+        switch (this.size) {
+        case BYTE:
+            encodedValue.put((byte) this.output);
+            break;
+
+        case DEFAULT:
+        case WORD:
+        default:
+            encodedValue.putShort((short) this.output);
+            break;
+
+        case LONG:
+            encodedValue.putInt((int) this.output);
+            break;
+
+        case QUAD:
+            encodedValue.putLong(this.output);
+            break;
+        }
+
+        encodedValue.flip();
+        return encodedValue;
+    }
+
     @Override
     public void reset(InstructionSize size) {
         this.size = size;
@@ -141,8 +175,8 @@ final class DcIntegerValueVisitor implements DcValueVisitor {
     }
 
     /**
-     * Validates the output value against the size. This is done once while visiting the value because {@link #encode()} may be
-     * called multiple times in a <code>DCB</code> directive.
+     * Validates the output value against the size. This is done once while visiting the value rather than in {@link #encode()}
+     * or {@link #encodeToBuffer()}, so that the messages are not duplicated if the value is encoded more than once.
      */
     private void validate() {
         switch (this.size) {
@@ -1,6 +1,7 @@
 package org.reasm.m68k.assembly.internal;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 import javax.annotation.Nonnull;
 
@@ -10,6 +11,9 @@ interface DcValueVisitor extends ValueVisitor<Void> {
 
     void encode() throws IOException;
 
+    @Nonnull
+    ByteBuffer encodeToBuffer();
+
     void reset(@Nonnull InstructionSize size);
 
 }
@@ -9,8 +9,6 @@ import org.reasm.AssemblyMessage;
 import org.reasm.Value;
 import org.reasm.m68k.messages.CountMustNotBeNegativeErrorMessage;
 
-import com.google.common.primitives.UnsignedLongs;
-
 /**
  * The <code>DCB</code> directive.
  *
@@ -57,8 +55,9 @@ class DcbDirective extends Mnemonic {
                 final DcValueVisitor dataVisitor = context.getDcValueVisitor(size);
                 dataVisitor.reset(size);
                 Value.accept(dataValue, dataVisitor);
-                for (long i = 0; UnsignedLongs.compare(i, count) < 0; i++) {
-                    dataVisitor.encode();
+                if (count != 0) {
+                    // Encode the value once, then repeat it.
+                    context.appendFill(dataVisitor.encodeToBuffer(), count);
                 }
             }
         }
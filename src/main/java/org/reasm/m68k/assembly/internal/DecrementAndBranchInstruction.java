@@ -69,8 +69,7 @@ class DecrementAndBranchInstruction extends TwoOperandIntegerInstruction {
 
         // Parse the first operand (loop counter).
         final EffectiveAddress ea = context.ea0;
-        context.getEffectiveAddress(context.getOperandText(0), AddressingModeCategory.DATA_REGISTER_DIRECT, InstructionSize.WORD,
-                ea);
+        context.getEffectiveAddress(0, AddressingModeCategory.DATA_REGISTER_DIRECT_MASK, InstructionSize.WORD, ea);
 
         // Parse and evaluate the label.
         final Value value = evaluateExpressionOperand(context, 1);
@@ -31,10 +31,7 @@ abstract class DsRsDirective extends Mnemonic {
                 throw new OutOfMemoryError();
             }
 
-            final long byteCount = count * itemSize;
-            for (long i = 0; i < byteCount; i++) {
-                context.appendByte((byte) 0);
-            }
+            context.appendZeroes(count * itemSize);
         }
 
         @Override
@@ -2,8 +2,8 @@ package org.reasm.m68k.assembly.internal;
 
 import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
-import java.util.Set;
-import java.util.Stack;
+import java.util.Arrays;
+import java.util.HashMap;
 
 import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
@@ -40,24 +40,90 @@ import ca.fragag.Consumer;
  */
 final class EffectiveAddress {
 
-    static final class IntegerValueVisitor implements ValueVisitor<Integer> {
+    /**
+     * A stack of expressions backed by an array. A single instance is reused for all the effective addresses of an assembly (see
+     * {@link M68KBasicAssemblyContext#eaExpressionStack}).
+     *
+     * @author Francis Gagné
+     */
+    static final class ExpressionStack {
+
+        private static final int INITIAL_CAPACITY = 8;
 
         @Nonnull
-        private final InstructionSize instructionSize;
+        private Expression[] expressions = new Expression[INITIAL_CAPACITY];
+        private int size;
+
+        void clear() {
+            Arrays.fill(this.expressions, 0, this.size, null);
+            this.size = 0;
+        }
+
+        boolean isEmpty() {
+            return this.size == 0;
+        }
+
         @Nonnull
-        private final Charset encoding;
+        Expression pop() {
+            final Expression expression = this.expressions[--this.size];
+            this.expressions[this.size] = null;
+            return expression;
+        }
+
+        void push(@Nonnull Expression expression) {
+            if (this.size == this.expressions.length) {
+                this.expressions = Arrays.copyOf(this.expressions, this.size * 2);
+            }
+
+            this.expressions[this.size++] = expression;
+        }
+
+    }
+
+    /**
+     * Converts the values of the expressions in an effective address to integers. A single instance is reused for all the
+     * effective addresses of an assembly (see {@link M68KBasicAssemblyContext#eaIntegerValueVisitor}), so that the conversion
+     * doesn't allocate anything.
+     *
+     * @author Francis Gagné
+     */
+    static final class IntegerValueVisitor implements ValueVisitor<Void> {
+
+        // Strings longer than this cannot be converted to an integer without raising an error, so they are not cached.
+        private static final int MAX_CACHED_STRING_LENGTH = 4;
+
+        // The maximum number of strings in the cache. The cache is cleared when it's full.
+        private static final int MAX_CACHED_STRINGS = 1024;
+
         @Nonnull
-        private final Consumer<AssemblyMessage> assemblyMessageConsumer;
+        private static byte[] toByteArray(@Nonnull ByteBuffer buffer) {
+            final byte[] bytes = new byte[buffer.remaining()];
+            buffer.get(bytes);
+            return bytes;
+        }
 
-        IntegerValueVisitor(@Nonnull InstructionSize instructionSize, @Nonnull Charset encoding,
-                @Nonnull Consumer<AssemblyMessage> assemblyMessageConsumer) {
-            this.instructionSize = instructionSize;
-            this.encoding = encoding;
-            this.assemblyMessageConsumer = assemblyMessageConsumer;
+        @Nonnull
+        private final M68KBasicAssemblyContext context;
+        @Nonnull
+        private InstructionSize instructionSize = InstructionSize.DEFAULT;
+        @CheckForNull
+        private Consumer<AssemblyMessage> assemblyMessageConsumer;
+
+        // Short strings that have been encoded in the encoding of the assembly context.
+        @CheckForNull
+        private Charset cachedStringsEncoding;
+        @Nonnull
+        private final HashMap<String, byte[]> cachedStrings = new HashMap<>();
+
+        boolean hasValue;
+        int value;
+
+        IntegerValueVisitor(@Nonnull M68KBasicAssemblyContext context) {
+            this.context = context;
         }
 
         @Override
-        public Integer visitFloat(double value) {
+        public Void visitFloat(double value) {
             if (value != (int) value) {
                 this.assemblyMessageConsumer.accept(new LossyConversionFromRealToIntegerWarningMessage(value));
             }
@@ -66,18 +132,18 @@ final class EffectiveAddress {
         }
 
         @Override
-        public Integer visitFunction(Function value) {
+        public Void visitFunction(Function value) {
             this.assemblyMessageConsumer.accept(new FunctionCannotBeConvertedToIntegerErrorMessage());
             return null;
         }
 
         @Override
-        public Integer visitSignedInt(long value) {
+        public Void visitSignedInt(long value) {
             return this.visitUnsignedInt(value);
         }
 
         @Override
-        public Integer visitString(String value) {
+        public Void visitString(String value) {
             int maxLength;
 
             switch (this.instructionSize) {
@@ -94,32 +160,34 @@ final class EffectiveAddress {
                 break;
             }
 
-            final ByteBuffer stringBytes = this.encoding.encode(value);
+            final byte[] stringBytes = this.encodeString(value);
 
-            if (stringBytes.limit() > maxLength) {
+            if (stringBytes.length > maxLength) {
                 this.assemblyMessageConsumer.accept(new StringTooLongErrorMessage(value));
             }
 
-            if (maxLength > stringBytes.limit()) {
-                maxLength = stringBytes.limit();
+            if (maxLength > stringBytes.length) {
+                maxLength = stringBytes.length;
             }
 
             int result = 0;
-            for (; maxLength != 0; maxLength--) {
+            for (int i = 0; i < maxLength; i++) {
                 result <<= 8;
-                result |= stringBytes.get() & 0xFF;
+                result |= stringBytes[i] & 0xFF;
             }
 
-            return result;
+            this.hasValue = true;
+            this.value = result;
+            return null;
         }
 
         @Override
-        public Integer visitUndetermined() {
+        public Void visitUndetermined() {
             return null;
         }
 
         @Override
-        public Integer visitUnsignedInt(long value) {
+        public Void visitUnsignedInt(long value) {
             int intValue = (int) value;
             switch (this.instructionSize) {
             case BYTE:
@@ -127,18 +195,67 @@ final class EffectiveAddress {
                     this.assemblyMessageConsumer.accept(new ValueOutOfRangeErrorMessage(value));
                 }
 
-                return (int) (short) (intValue & 0xFF);
+                intValue = (short) (intValue & 0xFF);
+                break;
 
             default:
                 if (intValue < -0x8000 || intValue > 0xFFFF) {
                     this.assemblyMessageConsumer.accept(new ValueOutOfRangeErrorMessage(value));
                 }
 
-                return (int) (short) intValue;
+                intValue = (short) intValue;
+                break;
 
             case LONG:
-                return intValue;
+                break;
+            }
+
+            this.hasValue = true;
+            this.value = intValue;
+            return null;
+        }
+
+        /**
+         * Converts a value to an integer of the specified size. On success, the integer is stored in {@link #value}.
+         *
+         * @param value
+         *            the value to convert
+         * @param instructionSize
+         *            the size of the integer
+         * @param assemblyMessageConsumer
+         *            a {@link Consumer} that will receive the {@link AssemblyMessage}s raised by the conversion
+         * @return <code>true</code> if the value was converted, or <code>false</code> if the value is undetermined or cannot be
+         *         converted to an integer
+         */
+        boolean convert(@CheckForNull Value value, @Nonnull InstructionSize instructionSize,
+                @Nonnull Consumer<AssemblyMessage> assemblyMessageConsumer) {
+            this.instructionSize = instructionSize;
+            this.assemblyMessageConsumer = assemblyMessageConsumer;
+            this.hasValue = false;
+            this.value = 0;
+            Value.accept(value, this);
+            return this.hasValue;
+        }
+
+        @Nonnull
+        private byte[] encodeString(@Nonnull String value) {
+            final Charset encoding = this.context.encoding;
+            if (value.length() > MAX_CACHED_STRING_LENGTH) {
+                return toByteArray(encoding.encode(value));
             }
+
+            if (encoding != this.cachedStringsEncoding || this.cachedStrings.size() >= MAX_CACHED_STRINGS) {
+                this.cachedStrings.clear();
+                this.cachedStringsEncoding = encoding;
+            }
+
+            byte[] stringBytes = this.cachedStrings.get(value);
+            if (stringBytes == null) {
+                stringBytes = toByteArray(encoding.encode(value));
+                this.cachedStrings.put(value, stringBytes);
+            }
+
+            return stringBytes;
         }
 
     }
@@ -172,9 +289,9 @@ final class EffectiveAddress {
         QuadParser() {
         }
 
-        void encode(@Nonnull Set<AddressingMode> validAddressingModes, int offsetToExtensionWords,
-                @Nonnull EvaluationContext evaluationContext, @Nonnull M68KBasicAssemblyContext context,
-                @Nonnull Consumer<AssemblyMessage> assemblyMessageConsumer, @Nonnull EffectiveAddress result) {
+        void encode(int validAddressingModes, int offsetToExtensionWords, @Nonnull EvaluationContext evaluationContext,
+                @Nonnull M68KBasicAssemblyContext context, @Nonnull Consumer<AssemblyMessage> assemblyMessageConsumer,
+                @Nonnull EffectiveAddress result) {
             final MemoryIndirectMode memoryIndirectMode;
             switch (this.memoryIndirectState) {
             case NONE:
@@ -203,20 +320,20 @@ final class EffectiveAddress {
             }
 
             if (haveBaseDisplacement) {
-                final Integer value = Value.accept(this.baseDisplacementExpression.evaluate(evaluationContext),
-                        new IntegerValueVisitor(InstructionSize.LONG, context.encoding, assemblyMessageConsumer));
-                if (value != null) {
-                    baseDisplacement = value;
+                final Value value = this.baseDisplacementExpression.evaluate(evaluationContext);
+                final IntegerValueVisitor integerValueVisitor = context.eaIntegerValueVisitor;
+                if (integerValueVisitor.convert(value, InstructionSize.LONG, assemblyMessageConsumer)) {
+                    baseDisplacement = integerValueVisitor.value;
                 }
             }
 
             final boolean haveOuterDisplacement = this.outerDisplacementExpression != null;
             int outerDisplacement = 0;
             if (haveOuterDisplacement) {
-                final Integer value = Value.accept(this.outerDisplacementExpression.evaluate(evaluationContext),
-                        new IntegerValueVisitor(InstructionSize.LONG, context.encoding, assemblyMessageConsumer));
-                if (value != null) {
-                    outerDisplacement = value;
+                final Value value = this.outerDisplacementExpression.evaluate(evaluationContext);
+                final IntegerValueVisitor integerValueVisitor = context.eaIntegerValueVisitor;
+                if (integerValueVisitor.convert(value, InstructionSize.LONG, assemblyMessageConsumer)) {
+                    outerDisplacement = integerValueVisitor.value;
                 }
             }
 
@@ -411,9 +528,8 @@ final class EffectiveAddress {
 
     static void encodeQuad(boolean haveBaseDisplacement, int baseDisplacement, boolean haveBaseRegister, int baseRegister,
             boolean haveIndexRegister, int indexRegister, int outerDisplacement, @Nonnull MemoryIndirectMode memoryIndirectMode,
-            @Nonnull Set<AddressingMode> validAddressingModes, int offsetToExtensionWords,
-            @Nonnull M68KBasicAssemblyContext context, @Nonnull Consumer<AssemblyMessage> assemblyMessageConsumer,
-            @Nonnull EffectiveAddress result) {
+            int validAddressingModes, int offsetToExtensionWords, @Nonnull M68KBasicAssemblyContext context,
+            @Nonnull Consumer<AssemblyMessage> assemblyMessageConsumer, @Nonnull EffectiveAddress result) {
         // If we have a base register, but it's ZPC, clear the haveBaseRegister flag.
         if (haveBaseRegister && baseRegister == 9) {
             haveBaseRegister = false;
@@ -559,71 +675,40 @@ final class EffectiveAddress {
         }
     }
 
-    static void getEffectiveAddress(@Nonnull Tokenizer tokenizer, @CheckForNull SymbolLookup symbolLookup,
-            @Nonnull Set<AddressingMode> validAddressingModes, boolean expectBitFieldSpecificationAtEnd,
+    static void getEffectiveAddress(@Nonnull Expression expression, boolean immediateData, int validAddressingModes,
             @Nonnull InstructionSize instructionSize, int offsetToExtensionWords, @Nonnull EvaluationContext evaluationContext,
             @Nonnull M68KBasicAssemblyContext context, @Nonnull Consumer<AssemblyMessage> assemblyMessageConsumer,
             @Nonnull EffectiveAddress result) {
-        // Clear the result.
-        result.numberOfWords = 0;
-        result.word0 = 0;
-        result.word1 = 0;
-        result.word2 = 0;
-        result.word3 = 0;
-        result.word4 = 0;
-        result.word5 = 0;
-
-        switch (instructionSize) {
-        case BYTE:
-        case WORD:
-        case LONG:
-            break;
+        instructionSize = clearResult(instructionSize, result);
 
-        case DEFAULT:
-            instructionSize = InstructionSize.WORD;
-            break;
+        if (immediateData) {
+            encodeImmediateData(expression, instructionSize, evaluationContext, context, assemblyMessageConsumer, result);
+            validateAddressingMode(validAddressingModes, AddressingMode.IMMEDIATE_DATA, assemblyMessageConsumer);
+        } else {
+            encodeExpression(expression, validAddressingModes, offsetToExtensionWords, evaluationContext, context,
+                    assemblyMessageConsumer, result);
 
-        default:
-            throw new AssertionError("Unexpected instruction size: " + instructionSize);
+            if (result.numberOfWords == 0) {
+                assemblyMessageConsumer.accept(new SyntaxErrorInEffectiveAddressErrorMessage());
+            }
         }
+    }
+
+    static void getEffectiveAddress(@Nonnull Tokenizer tokenizer, @CheckForNull SymbolLookup symbolLookup,
+            int validAddressingModes, boolean expectBitFieldSpecificationAtEnd, @Nonnull InstructionSize instructionSize,
+            int offsetToExtensionWords, @Nonnull EvaluationContext evaluationContext, @Nonnull M68KBasicAssemblyContext context,
+            @Nonnull Consumer<AssemblyMessage> assemblyMessageConsumer, @Nonnull EffectiveAddress result) {
+        instructionSize = clearResult(instructionSize, result);
 
         try {
             if (tokenizer.getTokenType() == TokenType.IMMEDIATE) {
-                switch (instructionSize) {
-                default:
-                    result.numberOfWords = 2;
-                    break;
-
-                case LONG:
-                    result.numberOfWords = 3;
-                    break;
-                }
-
-                result.word0 = EA_IMMEDIATE_DATA;
-
                 tokenizer.advance();
                 final Expression expression = ExpressionParser.parse(tokenizer, symbolLookup, assemblyMessageConsumer);
+                encodeImmediateData(expression, instructionSize, evaluationContext, context, assemblyMessageConsumer, result);
                 if (expression == null) {
-                    assemblyMessageConsumer.accept(new ExpressionExpectedErrorMessage());
                     return;
                 }
 
-                final Value value = expression.evaluate(evaluationContext);
-                final Integer intValue = Value.accept(value, new IntegerValueVisitor(instructionSize, context.encoding,
-                        assemblyMessageConsumer));
-                if (intValue != null) {
-                    switch (instructionSize) {
-                    default:
-                        result.word1 = intValue.shortValue();
-                        break;
-
-                    case LONG:
-                        result.word1 = (short) (intValue >> 16);
-                        result.word2 = intValue.shortValue();
-                        break;
-                    }
-                }
-
                 if (!endOfEA(tokenizer, expectBitFieldSpecificationAtEnd)) {
                     assemblyMessageConsumer.accept(new EndOfExpressionExpectedErrorMessage());
                 }
@@ -658,177 +743,8 @@ final class EffectiveAddress {
                             }
                         }
                     } else if (endOfEA(tokenizer, expectBitFieldSpecificationAtEnd)) {
-                        // Analyze the expression to see if it matches an effective address.
-                        if (expression instanceof IdentifierExpression) {
-                            // Check if the identifier matches a register name.
-                            final IdentifierExpression identifierExpression = (IdentifierExpression) expression;
-                            final String identifier = identifierExpression.getIdentifier();
-                            final short reg = identifyDataOrAddressRegister(identifier, false, context);
-                            if (reg != -1) {
-                                result.numberOfWords = 1;
-                                result.word0 = reg;
-
-                                validateAddressingMode(validAddressingModes,
-                                        (reg & MODE_MASK) == MODE_DATA_REGISTER_DIRECT ? AddressingMode.DATA_REGISTER_DIRECT
-                                                : AddressingMode.ADDRESS_REGISTER_DIRECT, assemblyMessageConsumer);
-                            }
-
-                            final int absoluteAddressingSize = parseIndexRegisterOrAbsoluteAddressingSize(identifier);
-                            if (absoluteAddressingSize != -1) {
-                                encodeAbsoluteAddressing(new IdentifierExpression(identifier.substring(0, identifier.length() - 2),
-                                        identifierExpression.getSymbolLookup()),
-                                        absoluteAddressingSize == 0 ? AbsoluteAddressingSize.WORD : AbsoluteAddressingSize.LONG,
-                                        validAddressingModes, evaluationContext, assemblyMessageConsumer, result,
-                                        offsetToExtensionWords, context);
-                            }
-                        } else if (expression instanceof GroupingExpression) {
-                            final Expression childExpression = ((GroupingExpression) expression).getChildExpression();
-
-                            if (childExpression instanceof IdentifierExpression) {
-                                // Check if the identifier matches a register name.
-                                final String identifier = ((IdentifierExpression) childExpression).getIdentifier();
-                                short reg = identifyPcOrZpcRegister(identifier);
-                                if (reg != -1) {
-                                    encodeQuad(false, 0, true, reg + 8, false, 0, 0, MemoryIndirectMode.NONE, validAddressingModes,
-                                            offsetToExtensionWords, context, assemblyMessageConsumer, result);
-                                } else {
-                                    reg = identifyDataOrAddressRegister(identifier, false, context);
-                                    if (reg != -1 && (reg & MODE_MASK) == MODE_ADDRESS_REGISTER_DIRECT) {
-                                        encodeAddressRegisterIndirect(reg & REGISTER_MASK, validAddressingModes,
-                                                assemblyMessageConsumer, result);
-                                    }
-                                }
-                            }
-
-                            if (result.numberOfWords == 0) {
-                                int indexReg = parseIndexRegister(((GroupingExpression) expression).getChildExpression(),
-                                        evaluationContext, context, assemblyMessageConsumer);
-                                if (indexReg != -1) {
-                                    encodeQuad(false, 0, false, 0, true, indexReg, 0, MemoryIndirectMode.NONE,
-                                            validAddressingModes, offsetToExtensionWords, context, assemblyMessageConsumer, result);
-                                }
-                            }
-                        } else if (expression instanceof UnaryOperatorExpression) {
-                            final Expression operand = ((UnaryOperatorExpression) expression).getOperand();
-                            if (((UnaryOperatorExpression) expression).getOperator() == UnaryOperator.NEGATION
-                                    && operand instanceof GroupingExpression) {
-                                int addressRegister = parseAddressRegisterIndirect((GroupingExpression) operand, context);
-                                if (addressRegister != -1) {
-                                    result.numberOfWords = 1;
-                                    result.word0 = (short) (MODE_ADDRESS_REGISTER_INDIRECT_WITH_PREDECREMENT | addressRegister);
-
-                                    validateAddressingMode(validAddressingModes,
-                                            AddressingMode.ADDRESS_REGISTER_INDIRECT_WITH_PREDECREMENT, assemblyMessageConsumer);
-                                }
-                            }
-                        }
-
-                        if (result.numberOfWords == 0) {
-                            // MRI syntax is problematic because when we parse it as an expression, precedence rules can make the
-                            // parentheses around the base and index registers hidden deep in the expression tree.
-                            // For example, in:
-                            //     2+4(A0)
-                            // the expression tree looks like this:
-                            //     BinaryOperatorExpression
-                            //         operator=ADDITION
-                            //         left=ValueExpression (value=2)
-                            //         right=FunctionCallExpression
-                            //             function=ValueExpression (value=4)
-                            //             arguments[0]=IdentifierExpression (identifier=A0)
-                            // However, what we want is an expression for 2+4:
-                            //     BinaryOperatorExpression
-                            //         operator=ADDITION
-                            //         left=ValueExpression (value=2)
-                            //         right=ValueExpression (value=4)
-                            // To get this, we need to "deconstruct" the expression and construct a new one.
-                            // But first, we need to find the FunctionCallExpression.
-                            // It can be the operand of an UnaryOperatorExpression, the right operand of a BinaryOperatorExpression
-                            // or the false part of a ConditionalExpression, recursively.
-                            //
-                            // The same process also applies for absolute addressing when the parentheses are omitted (e.g. 2+2.W).
-
-                            Stack<Expression> expressionStack = null;
-                            Expression currentExpression = expression;
-
-                            for (;;) {
-                                final Expression newExpression;
-                                if (currentExpression instanceof FunctionCallExpression) {
-                                    final Expression[] arguments = ((FunctionCallExpression) currentExpression).getArguments();
-                                    if (arguments.length > 0) {
-                                        boolean isValid = true;
-                                        QuadParser quad = new QuadParser();
-                                        quad.baseDisplacementExpression = reconstructExpressionWithNewTail(expressionStack,
-                                                ((FunctionCallExpression) currentExpression).getFunction());
-
-                                        for (Expression argument : arguments) {
-                                            if (!quad.processExpression(argument, evaluationContext, context,
-                                                    assemblyMessageConsumer)) {
-                                                isValid = false;
-                                                break;
-                                            }
-                                        }
-
-                                        if (isValid) {
-                                            quad.encode(validAddressingModes, offsetToExtensionWords, evaluationContext, context,
-                                                    assemblyMessageConsumer, result);
-                                        }
-                                    }
-
-                                    break;
-                                } else if (currentExpression instanceof PeriodExpression) {
-                                    final Expression leftExpression = ((PeriodExpression) currentExpression).getLeftExpression();
-                                    final Expression rightExpression = ((PeriodExpression) currentExpression).getRightExpression();
-                                    if (rightExpression instanceof IdentifierExpression) {
-                                        final String identifier = ((IdentifierExpression) rightExpression).getIdentifier();
-                                        if (identifier.length() == 1) {
-                                            if (equalsAsciiCaseInsensitive(identifier.charAt(0), 'W')) {
-                                                encodeAbsoluteAddressing(
-                                                        reconstructExpressionWithNewTail(expressionStack, leftExpression),
-                                                        AbsoluteAddressingSize.WORD, validAddressingModes, evaluationContext,
-                                                        assemblyMessageConsumer, result, offsetToExtensionWords, context);
-                                            } else if (equalsAsciiCaseInsensitive(identifier.charAt(0), 'L')) {
-                                                encodeAbsoluteAddressing(
-                                                        reconstructExpressionWithNewTail(expressionStack, leftExpression),
-                                                        AbsoluteAddressingSize.LONG, validAddressingModes, evaluationContext,
-                                                        assemblyMessageConsumer, result, offsetToExtensionWords, context);
-                                            }
-                                        }
-                                    }
-
-                                    break;
-                                } else if (currentExpression instanceof UnaryOperatorExpression) {
-                                    if (expressionStack == null) {
-                                        expressionStack = new Stack<>();
-                                    }
-
-                                    expressionStack.push(currentExpression);
-                                    newExpression = ((UnaryOperatorExpression) currentExpression).getOperand();
-                                } else if (currentExpression instanceof BinaryOperatorExpression) {
-                                    if (expressionStack == null) {
-                                        expressionStack = new Stack<>();
-                                    }
-
-                                    expressionStack.push(currentExpression);
-                                    newExpression = ((BinaryOperatorExpression) currentExpression).getOperand2();
-                                } else if (currentExpression instanceof ConditionalExpression) {
-                                    if (expressionStack == null) {
-                                        expressionStack = new Stack<>();
-                                    }
-
-                                    expressionStack.push(currentExpression);
-                                    newExpression = ((ConditionalExpression) currentExpression).getFalsePart();
-                                } else {
-                                    break;
-                                }
-
-                                currentExpression = newExpression;
-                            }
-                        }
-
-                        if (result.numberOfWords == 0) {
-                            encodeAbsoluteAddressing(expression, AbsoluteAddressingSize.DEFAULT, validAddressingModes,
-                                    evaluationContext, assemblyMessageConsumer, result, offsetToExtensionWords, context);
-                        }
+                        encodeExpression(expression, validAddressingModes, offsetToExtensionWords, evaluationContext, context,
+                                assemblyMessageConsumer, result);
                     }
                 }
 
@@ -882,10 +798,11 @@ final class EffectiveAddress {
             if (binaryOperatorExpression.getOperator() == BinaryOperator.MULTIPLICATION) {
                 final int indexReg = parseIndexRegisterName(binaryOperatorExpression.getOperand1(), context);
                 if (indexReg != -1) {
-                    final Integer scale = Value.accept(binaryOperatorExpression.getOperand2().evaluate(evaluationContext),
-                            new IntegerValueVisitor(InstructionSize.LONG, context.encoding, assemblyMessageConsumer));
+                    final Value scaleValue = binaryOperatorExpression.getOperand2().evaluate(evaluationContext);
+                    final IntegerValueVisitor integerValueVisitor = context.eaIntegerValueVisitor;
                     final int scaleEncoding;
-                    if (scale != null) {
+                    if (integerValueVisitor.convert(scaleValue, InstructionSize.LONG, assemblyMessageConsumer)) {
+                        final int scale = integerValueVisitor.value;
                         switch (scale) {
                         case 1:
                             scaleEncoding = 0;
@@ -904,7 +821,7 @@ final class EffectiveAddress {
                             break;
 
                         default:
-                            assemblyMessageConsumer.accept(new InvalidScaleValueErrorMessage(scale.intValue()));
+                            assemblyMessageConsumer.accept(new InvalidScaleValueErrorMessage(scale));
                             scaleEncoding = 0;
                             break;
                         }
@@ -937,20 +854,48 @@ final class EffectiveAddress {
         return 2;
     }
 
+    @Nonnull
+    private static InstructionSize clearResult(@Nonnull InstructionSize instructionSize, @Nonnull EffectiveAddress result) {
+        // Clear the result.
+        result.numberOfWords = 0;
+        result.word0 = 0;
+        result.word1 = 0;
+        result.word2 = 0;
+        result.word3 = 0;
+        result.word4 = 0;
+        result.word5 = 0;
+
+        switch (instructionSize) {
+        case BYTE:
+        case WORD:
+        case LONG:
+            return instructionSize;
+
+        case DEFAULT:
+            return InstructionSize.WORD;
+
+        default:
+            throw new AssertionError("Unexpected instruction size: " + instructionSize);
+        }
+    }
+
     private static void encodeAbsoluteAddressing(@Nonnull Expression expression, @Nonnull AbsoluteAddressingSize size,
-            @Nonnull Set<AddressingMode> validAddressingModes, @Nonnull EvaluationContext evaluationContext,
+            int validAddressingModes, @Nonnull EvaluationContext evaluationContext,
             @Nonnull Consumer<AssemblyMessage> assemblyMessageConsumer, @Nonnull EffectiveAddress result,
             int offsetToExtensionWords, @Nonnull M68KBasicAssemblyContext context) {
-        Integer intValue = Value.accept(expression.evaluate(evaluationContext), new IntegerValueVisitor(
-                size == AbsoluteAddressingSize.WORD ? InstructionSize.WORD : InstructionSize.LONG, context.encoding,
-                assemblyMessageConsumer));
-        int value = intValue != null ? intValue : 0;
+        final Value absoluteAddress = expression.evaluate(evaluationContext);
+        final IntegerValueVisitor integerValueVisitor = context.eaIntegerValueVisitor;
+        int value = 0;
+        if (integerValueVisitor.convert(absoluteAddress, size == AbsoluteAddressingSize.WORD ? InstructionSize.WORD
+                : InstructionSize.LONG, assemblyMessageConsumer)) {
+            value = integerValueVisitor.value;
+        }
         if (size == AbsoluteAddressingSize.DEFAULT) {
             if (fitsInWord(value)) {
                 size = AbsoluteAddressingSize.WORD;
             } else {
                 if (context.optimizeUnsizedAbsoluteAddressingToPcRelative
-                        && validAddressingModes.contains(AddressingMode.PROGRAM_COUNTER_INDIRECT_WITH_DISPLACEMENT)
+                        && (validAddressingModes & AddressingMode.PROGRAM_COUNTER_INDIRECT_WITH_DISPLACEMENT.mask) != 0
                         && fitsInWord(value - ((int) context.programCounter + offsetToExtensionWords))) {
                     encodeQuad(true, value, true, 8, false, 0, 0, MemoryIndirectMode.NONE, validAddressingModes,
                             offsetToExtensionWords, context, assemblyMessageConsumer, result);
@@ -975,12 +920,12 @@ final class EffectiveAddress {
         validateAddressingMode(validAddressingModes, AddressingMode.ABSOLUTE, assemblyMessageConsumer);
     }
 
-    private static void encodeAddressRegisterIndirect(int registerNumber, @Nonnull Set<AddressingMode> validAddressingModes,
+    private static void encodeAddressRegisterIndirect(int registerNumber, int validAddressingModes,
             @Nonnull Consumer<AssemblyMessage> assemblyMessageConsumer, @Nonnull EffectiveAddress result) {
-        if (!validAddressingModes.contains(AddressingMode.ADDRESS_REGISTER_INDIRECT)) {
+        if ((validAddressingModes & AddressingMode.ADDRESS_REGISTER_INDIRECT.mask) == 0) {
             // If (An) is not allowed, but (d16,An) is, use that mode instead.
             // This is used by the MOVEP instruction.
-            if (validAddressingModes.contains(AddressingMode.ADDRESS_REGISTER_INDIRECT_WITH_DISPLACEMENT)) {
+            if ((validAddressingModes & AddressingMode.ADDRESS_REGISTER_INDIRECT_WITH_DISPLACEMENT.mask) != 0) {
                 result.numberOfWords = 2;
                 result.word0 = (short) (MODE_ADDRESS_REGISTER_INDIRECT_WITH_DISPLACEMENT | registerNumber);
                 result.word1 = 0;
@@ -994,6 +939,208 @@ final class EffectiveAddress {
         result.word0 = (short) (MODE_ADDRESS_REGISTER_INDIRECT | registerNumber);
     }
 
+    private static void encodeExpression(@Nonnull Expression expression, int validAddressingModes, int offsetToExtensionWords,
+            @Nonnull EvaluationContext evaluationContext, @Nonnull M68KBasicAssemblyContext context,
+            @Nonnull Consumer<AssemblyMessage> assemblyMessageConsumer, @Nonnull EffectiveAddress result) {
+        // Analyze the expression to see if it matches an effective address.
+        if (expression instanceof IdentifierExpression) {
+            // Check if the identifier matches a register name.
+            final IdentifierExpression identifierExpression = (IdentifierExpression) expression;
+            final String identifier = identifierExpression.getIdentifier();
+            final short reg = identifyDataOrAddressRegister(identifier, false, context);
+            if (reg != -1) {
+                result.numberOfWords = 1;
+                result.word0 = reg;
+
+                validateAddressingMode(validAddressingModes,
+                        (reg & MODE_MASK) == MODE_DATA_REGISTER_DIRECT ? AddressingMode.DATA_REGISTER_DIRECT
+                                : AddressingMode.ADDRESS_REGISTER_DIRECT, assemblyMessageConsumer);
+            }
+
+            final int absoluteAddressingSize = parseIndexRegisterOrAbsoluteAddressingSize(identifier);
+            if (absoluteAddressingSize != -1) {
+                encodeAbsoluteAddressing(new IdentifierExpression(identifier.substring(0, identifier.length() - 2),
+                        identifierExpression.getSymbolLookup()),
+                        absoluteAddressingSize == 0 ? AbsoluteAddressingSize.WORD : AbsoluteAddressingSize.LONG,
+                        validAddressingModes, evaluationContext, assemblyMessageConsumer, result,
+                        offsetToExtensionWords, context);
+            }
+        } else if (expression instanceof GroupingExpression) {
+            final Expression childExpression = ((GroupingExpression) expression).getChildExpression();
+
+            if (childExpression instanceof IdentifierExpression) {
+                // Check if the identifier matches a register name.
+                final String identifier = ((IdentifierExpression) childExpression).getIdentifier();
+                short reg = identifyPcOrZpcRegister(identifier);
+                if (reg != -1) {
+                    encodeQuad(false, 0, true, reg + 8, false, 0, 0, MemoryIndirectMode.NONE, validAddressingModes,
+                            offsetToExtensionWords, context, assemblyMessageConsumer, result);
+                } else {
+                    reg = identifyDataOrAddressRegister(identifier, false, context);
+                    if (reg != -1 && (reg & MODE_MASK) == MODE_ADDRESS_REGISTER_DIRECT) {
+                        encodeAddressRegisterIndirect(reg & REGISTER_MASK, validAddressingModes,
+                                assemblyMessageConsumer, result);
+                    }
+                }
+            }
+
+            if (result.numberOfWords == 0) {
+                int indexReg = parseIndexRegister(((GroupingExpression) expression).getChildExpression(),
+                        evaluationContext, context, assemblyMessageConsumer);
+                if (indexReg != -1) {
+                    encodeQuad(false, 0, false, 0, true, indexReg, 0, MemoryIndirectMode.NONE,
+                            validAddressingModes, offsetToExtensionWords, context, assemblyMessageConsumer, result);
+                }
+            }
+        } else if (expression instanceof UnaryOperatorExpression) {
+            final Expression operand = ((UnaryOperatorExpression) expression).getOperand();
+            if (((UnaryOperatorExpression) expression).getOperator() == UnaryOperator.NEGATION
+                    && operand instanceof GroupingExpression) {
+                int addressRegister = parseAddressRegisterIndirect((GroupingExpression) operand, context);
+                if (addressRegister != -1) {
+                    result.numberOfWords = 1;
+                    result.word0 = (short) (MODE_ADDRESS_REGISTER_INDIRECT_WITH_PREDECREMENT | addressRegister);
+
+                    validateAddressingMode(validAddressingModes,
+                            AddressingMode.ADDRESS_REGISTER_INDIRECT_WITH_PREDECREMENT, assemblyMessageConsumer);
+                }
+            }
+        }
+
+        if (result.numberOfWords == 0) {
+            // MRI syntax is problematic because when we parse it as an expression, precedence rules can make the
+            // parentheses around the base and index registers hidden deep in the expression tree.
+            // For example, in:
+            //     2+4(A0)
+            // the expression tree looks like this:
+            //     BinaryOperatorExpression
+            //         operator=ADDITION
+            //         left=ValueExpression (value=2)
+            //         right=FunctionCallExpression
+            //             function=ValueExpression (value=4)
+            //             arguments[0]=IdentifierExpression (identifier=A0)
+            // However, what we want is an expression for 2+4:
+            //     BinaryOperatorExpression
+            //         operator=ADDITION
+            //         left=ValueExpression (value=2)
+            //         right=ValueExpression (value=4)
+            // To get this, we need to "deconstruct" the expression and construct a new one.
+            // But first, we need to find the FunctionCallExpression.
+            // It can be the operand of an UnaryOperatorExpression, the right operand of a BinaryOperatorExpression
+            // or the false part of a ConditionalExpression, recursively.
+            //
+            // The same process also applies for absolute addressing when the parentheses are omitted (e.g. 2+2.W).
+
+            final ExpressionStack expressionStack = context.eaExpressionStack;
+            expressionStack.clear();
+            Expression currentExpression = expression;
+
+            for (;;) {
+                final Expression newExpression;
+                if (currentExpression instanceof FunctionCallExpression) {
+                    final Expression[] arguments = ((FunctionCallExpression) currentExpression).getArguments();
+                    if (arguments.length > 0) {
+                        boolean isValid = true;
+                        QuadParser quad = new QuadParser();
+                        quad.baseDisplacementExpression = reconstructExpressionWithNewTail(expressionStack,
+                                ((FunctionCallExpression) currentExpression).getFunction());
+
+                        for (Expression argument : arguments) {
+                            if (!quad.processExpression(argument, evaluationContext, context,
+                                    assemblyMessageConsumer)) {
+                                isValid = false;
+                                break;
+                            }
+                        }
+
+                        if (isValid) {
+                            quad.encode(validAddressingModes, offsetToExtensionWords, evaluationContext, context,
+                                    assemblyMessageConsumer, result);
+                        }
+                    }
+
+                    break;
+                } else if (currentExpression instanceof PeriodExpression) {
+                    final Expression leftExpression = ((PeriodExpression) currentExpression).getLeftExpression();
+                    final Expression rightExpression = ((PeriodExpression) currentExpression).getRightExpression();
+                    if (rightExpression instanceof IdentifierExpression) {
+                        final String identifier = ((IdentifierExpression) rightExpression).getIdentifier();
+                        if (identifier.length() == 1) {
+                            if (equalsAsciiCaseInsensitive(identifier.charAt(0), 'W')) {
+                                encodeAbsoluteAddressing(
+                                        reconstructExpressionWithNewTail(expressionStack, leftExpression),
+                                        AbsoluteAddressingSize.WORD, validAddressingModes, evaluationContext,
+                                        assemblyMessageConsumer, result, offsetToExtensionWords, context);
+                            } else if (equalsAsciiCaseInsensitive(identifier.charAt(0), 'L')) {
+                                encodeAbsoluteAddressing(
+                                        reconstructExpressionWithNewTail(expressionStack, leftExpression),
+                                        AbsoluteAddressingSize.LONG, validAddressingModes, evaluationContext,
+                                        assemblyMessageConsumer, result, offsetToExtensionWords, context);
+                            }
+                        }
+                    }
+
+                    break;
+                } else if (currentExpression instanceof UnaryOperatorExpression) {
+                    expressionStack.push(currentExpression);
+                    newExpression = ((UnaryOperatorExpression) currentExpression).getOperand();
+                } else if (currentExpression instanceof BinaryOperatorExpression) {
+                    expressionStack.push(currentExpression);
+                    newExpression = ((BinaryOperatorExpression) currentExpression).getOperand2();
+                } else if (currentExpression instanceof ConditionalExpression) {
+                    expressionStack.push(currentExpression);
+                    newExpression = ((ConditionalExpression) currentExpression).getFalsePart();
+                } else {
+                    break;
+                }
+
+                currentExpression = newExpression;
+            }
+        }
+
+        if (result.numberOfWords == 0) {
+            encodeAbsoluteAddressing(expression, AbsoluteAddressingSize.DEFAULT, validAddressingModes,
+                    evaluationContext, assemblyMessageConsumer, result, offsetToExtensionWords, context);
+        }
+    }
+
+    private static void encodeImmediateData(@CheckForNull Expression expression, @Nonnull InstructionSize instructionSize,
+            @Nonnull EvaluationContext evaluationContext, @Nonnull M68KBasicAssemblyContext context,
+            @Nonnull Consumer<AssemblyMessage> assemblyMessageConsumer, @Nonnull EffectiveAddress result) {
+        switch (instructionSize) {
+        default:
+            result.numberOfWords = 2;
+            break;
+
+        case LONG:
+            result.numberOfWords = 3;
+            break;
+        }
+
+        result.word0 = EA_IMMEDIATE_DATA;
+
+        if (expression == null) {
+            assemblyMessageConsumer.accept(new ExpressionExpectedErrorMessage());
+            return;
+        }
+
+        final Value value = expression.evaluate(evaluationContext);
+        final IntegerValueVisitor integerValueVisitor = context.eaIntegerValueVisitor;
+        if (integerValueVisitor.convert(value, instructionSize, assemblyMessageConsumer)) {
+            final int intValue = integerValueVisitor.value;
+            switch (instructionSize) {
+            default:
+                result.word1 = (short) intValue;
+                break;
+
+            case LONG:
+                result.word1 = (short) (intValue >> 16);
+                result.word2 = (short) intValue;
+                break;
+            }
+        }
+    }
+
     private static boolean endOfEA(@Nonnull Tokenizer tokenizer, boolean expectBitFieldSpecificationAtEnd) {
         if (expectBitFieldSpecificationAtEnd) {
             return tokenizer.getTokenType() == TokenType.OPENING_BRACE;
@@ -1068,10 +1215,9 @@ final class EffectiveAddress {
 
     private static void parseQuad(@Nonnull Tokenizer tokenizer, @CheckForNull SymbolLookup symbolLookup,
             boolean expectBitFieldSpecificationAtEnd, @CheckForNull Expression baseDisplacementExpression,
-            @Nonnull Set<AddressingMode> validAddressingModes, int offsetToExtensionWords,
-            @Nonnull EvaluationContext evaluationContext, @Nonnull M68KBasicAssemblyContext context,
-            @Nonnull Consumer<AssemblyMessage> assemblyMessageConsumer, @Nonnull EffectiveAddress result)
-            throws InvalidTokenException {
+            int validAddressingModes, int offsetToExtensionWords, @Nonnull EvaluationContext evaluationContext,
+            @Nonnull M68KBasicAssemblyContext context, @Nonnull Consumer<AssemblyMessage> assemblyMessageConsumer,
+            @Nonnull EffectiveAddress result) throws InvalidTokenException {
         QuadParser quad = new QuadParser();
         quad.baseDisplacementExpression = baseDisplacementExpression;
 
@@ -1166,37 +1312,35 @@ final class EffectiveAddress {
     }
 
     @Nonnull
-    private static Expression reconstructExpressionWithNewTail(@Nonnull Stack<Expression> expressionStack,
+    private static Expression reconstructExpressionWithNewTail(@Nonnull ExpressionStack expressionStack,
             @Nonnull Expression newTailExpression) {
-        if (expressionStack != null) {
-            while (!expressionStack.isEmpty()) {
-                final Expression ancestorExpression = expressionStack.pop();
-                final Expression reconstructedExpression;
-                if (ancestorExpression instanceof UnaryOperatorExpression) {
-                    reconstructedExpression = new UnaryOperatorExpression(
-                            ((UnaryOperatorExpression) ancestorExpression).getOperator(), newTailExpression);
-                } else if (ancestorExpression instanceof BinaryOperatorExpression) {
-                    final BinaryOperatorExpression binOpExpression = (BinaryOperatorExpression) ancestorExpression;
-                    reconstructedExpression = new BinaryOperatorExpression(binOpExpression.getOperator(),
-                            binOpExpression.getOperand1(), newTailExpression);
-                } else if (ancestorExpression instanceof ConditionalExpression) {
-                    final ConditionalExpression condExpression = (ConditionalExpression) ancestorExpression;
-                    reconstructedExpression = new ConditionalExpression(condExpression.getCondition(),
-                            condExpression.getTruePart(), newTailExpression);
-                } else {
-                    throw new RuntimeException("Unexpected expression type for expression: " + ancestorExpression.toString()); // unreachable
-                }
-
-                newTailExpression = reconstructedExpression;
+        while (!expressionStack.isEmpty()) {
+            final Expression ancestorExpression = expressionStack.pop();
+            final Expression reconstructedExpression;
+            if (ancestorExpression instanceof UnaryOperatorExpression) {
+                reconstructedExpression = new UnaryOperatorExpression(
+                        ((UnaryOperatorExpression) ancestorExpression).getOperator(), newTailExpression);
+            } else if (ancestorExpression instanceof BinaryOperatorExpression) {
+                final BinaryOperatorExpression binOpExpression = (BinaryOperatorExpression) ancestorExpression;
+                reconstructedExpression = new BinaryOperatorExpression(binOpExpression.getOperator(),
+                        binOpExpression.getOperand1(), newTailExpression);
+            } else if (ancestorExpression instanceof ConditionalExpression) {
+                final ConditionalExpression condExpression = (ConditionalExpression) ancestorExpression;
+                reconstructedExpression = new ConditionalExpression(condExpression.getCondition(),
+                        condExpression.getTruePart(), newTailExpression);
+            } else {
+                throw new RuntimeException("Unexpected expression type for expression: " + ancestorExpression.toString()); // unreachable
             }
+
+            newTailExpression = reconstructedExpression;
         }
 
         return newTailExpression;
     }
 
-    private static void validateAddressingMode(@Nonnull Set<AddressingMode> validAddressingModes,
-            @Nonnull AddressingMode addressingMode, @Nonnull Consumer<AssemblyMessage> assemblyMessageConsumer) {
-        if (!validAddressingModes.contains(addressingMode)) {
+    private static void validateAddressingMode(int validAddressingModes, @Nonnull AddressingMode addressingMode,
+            @Nonnull Consumer<AssemblyMessage> assemblyMessageConsumer) {
+        if ((validAddressingModes & addressingMode.mask) == 0) {
             assemblyMessageConsumer.accept(new AddressingModeNotAllowedHereErrorMessage());
         }
     }
@@ -20,7 +20,7 @@ class EorInstruction extends TwoFixedEaInstruction {
     private static final AddAndCmpEorOrSubForms FORMS = AddAndCmpEorOrSubForms.EOR;
 
     private EorInstruction() {
-        super(AddressingModeCategory.DATA_REGISTER_DIRECT_OR_IMMEDIATE_DATA, AddressingModeCategory.DATA_ALTERABLE);
+        super(AddressingModeCategory.DATA_REGISTER_DIRECT_OR_IMMEDIATE_DATA_MASK, AddressingModeCategory.DATA_ALTERABLE_MASK);
     }
 
     @Override
@@ -25,7 +25,8 @@ class ExgInstruction extends TwoFixedEaInstruction {
     }
 
     private ExgInstruction() {
-        super(AddressingModeCategory.DATA_OR_ADDRESS_REGISTER_DIRECT, AddressingModeCategory.DATA_OR_ADDRESS_REGISTER_DIRECT);
+        super(AddressingModeCategory.DATA_OR_ADDRESS_REGISTER_DIRECT_MASK,
+                AddressingModeCategory.DATA_OR_ADDRESS_REGISTER_DIRECT_MASK);
     }
 
     @Override
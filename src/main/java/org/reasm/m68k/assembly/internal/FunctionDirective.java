@@ -40,7 +40,7 @@ class FunctionDirective extends Mnemonic {
             final String[] parameterNames = new String[numberOfOperands - 1];
             boolean argumentsAreValid = true;
             for (int i = 0; i < numberOfOperands - 1; i++) {
-                final String operandText = context.getOperandText(i);
+                final CharSequence operandText = context.readOperandText(i);
                 context.tokenizer.setCharSequence(operandText);
                 boolean isValid = context.tokenizer.getTokenType() == TokenType.IDENTIFIER;
                 if (isValid) {
@@ -50,7 +50,7 @@ class FunctionDirective extends Mnemonic {
                 }
 
                 if (!isValid) {
-                    context.addMessage(new FunctionParameterIsNotSimpleIdentifierErrorMessage(operandText));
+                    context.addMessage(new FunctionParameterIsNotSimpleIdentifierErrorMessage(operandText.toString()));
                     argumentsAreValid = false;
                 }
             }
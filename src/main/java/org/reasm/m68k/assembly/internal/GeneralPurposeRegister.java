@@ -4,6 +4,9 @@ import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
 import javax.annotation.concurrent.Immutable;
 
+import org.reasm.commons.source.LogicalLineReader;
+import org.reasm.m68k.source.M68KParser;
+
 @Immutable
 enum GeneralPurposeRegister {
 
@@ -32,12 +35,57 @@ enum GeneralPurposeRegister {
         return null;
     }
 
-    private static boolean equalsAsciiCaseInsensitive(char a, char b) {
+    /**
+     * Identifies the register whose name is at the current position of a reader, without creating a {@link String}. The name of
+     * the register must be followed by the end of the reader, a period or a character that is not valid in an identifier.
+     *
+     * @param reader
+     *            the reader
+     * @return the register, in which case the reader is advanced past the register's name, or <code>null</code> if the text at
+     *         the current position of the reader is not the name of a register, in which case the reader is not advanced
+     */
+    @CheckForNull
+    static GeneralPurposeRegister identify(@Nonnull LogicalLineReader reader) {
+        if (reader.atEnd()) {
+            return null;
+        }
+
+        final int initialPosition = reader.backupPosition();
+        final int firstCodePoint = reader.getCurrentCodePoint();
+        final boolean isDataRegister = equalsAsciiCaseInsensitive(firstCodePoint, 'D');
+        final boolean isStackPointer = !isDataRegister && equalsAsciiCaseInsensitive(firstCodePoint, 'S');
+        if (isDataRegister || isStackPointer || equalsAsciiCaseInsensitive(firstCodePoint, 'A')) {
+            reader.advance();
+            if (!reader.atEnd()) {
+                final int secondCodePoint = reader.getCurrentCodePoint();
+                final GeneralPurposeRegister register;
+                if (isStackPointer) {
+                    register = equalsAsciiCaseInsensitive(secondCodePoint, 'P') ? A7 : null;
+                } else {
+                    final int registerNumber = parseRegisterNumber(secondCodePoint);
+                    register = registerNumber == -1 ? null : VALUES[(isDataRegister ? 0 : 8) | registerNumber];
+                }
+
+                if (register != null) {
+                    reader.advance();
+                    if (reader.atEnd() || reader.getCurrentCodePoint() == '.'
+                            || !M68KParser.SYNTAX.isValidIdentifierCodePoint(reader.getCurrentCodePoint())) {
+                        return register;
+                    }
+                }
+            }
+        }
+
+        reader.restorePosition(initialPosition);
+        return null;
+    }
+
+    private static boolean equalsAsciiCaseInsensitive(int a, char b) {
         assert b >= 'A' && b <= 'Z';
         return a == b || a == (b | 0x20);
     }
 
-    private static int parseRegisterNumber(char ch) {
+    private static int parseRegisterNumber(int ch) {
         if (ch >= '0' && ch <= '7') {
             return ch - '0';
         }
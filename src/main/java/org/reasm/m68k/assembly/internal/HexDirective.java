@@ -86,7 +86,7 @@ class HexDirective extends Mnemonic {
                 byteValue |= hexDigitValue;
 
                 // Add the parsed byte to the buffer.
-                context.builder.appendAssembledData(byteValue);
+                context.appendByte(byteValue);
             }
         }
     }
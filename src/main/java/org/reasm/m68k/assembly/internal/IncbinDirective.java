@@ -2,13 +2,21 @@ package org.reasm.m68k.assembly.internal;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 
+import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
 import javax.annotation.concurrent.Immutable;
 
 import org.reasm.AssemblyMessage;
+import org.reasm.FileFetcher;
 import org.reasm.Value;
 import org.reasm.commons.messages.ValueOutOfRangeErrorMessage;
+import org.reasm.m68k.MappableFileFetcher;
 import org.reasm.m68k.messages.IncbinLengthMustNotBeNegativeErrorMessage;
 import org.reasm.m68k.messages.IncbinStartMustNotBeNegativeErrorMessage;
 
@@ -39,6 +47,56 @@ class IncbinDirective extends Mnemonic {
         }
     };
 
+    @Nonnull
+    private static ByteBuffer fetchBinaryFile(@Nonnull M68KAssemblyContext context, @Nonnull String filePath) throws IOException {
+        if (context.memoryMappedIncbin) {
+            ByteBuffer data = context.mappedBinaryFiles.get(filePath);
+            if (data == null) {
+                data = mapBinaryFile(context, filePath);
+                if (data != null) {
+                    context.mappedBinaryFiles.put(filePath, data);
+                }
+            }
+
+            if (data != null) {
+                return data;
+            }
+        }
+
+        final byte[] data = context.builder.getAssembly().fetchBinaryFile(filePath);
+        if (data == null) {
+            throw new FileNotFoundException(filePath);
+        }
+
+        return ByteBuffer.wrap(data);
+    }
+
+    @CheckForNull
+    private static ByteBuffer mapBinaryFile(@Nonnull M68KAssemblyContext context, @Nonnull String filePath) throws IOException {
+        // Only the file fetcher knows where a file path leads (and whether the file may be read at all), so only files that the
+        // file fetcher resolves on the file system are mapped.
+        final FileFetcher fileFetcher = context.builder.getAssembly().getConfiguration().getFileFetcher();
+        if (!(fileFetcher instanceof MappableFileFetcher)) {
+            return null;
+        }
+
+        final Path path = ((MappableFileFetcher) fileFetcher).resolveBinaryFilePath(filePath);
+        if (path == null || !Files.isRegularFile(path)) {
+            return null;
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                // A file this large cannot be mapped in a single buffer.
+                return null;
+            }
+
+            // The mapping remains valid after the channel is closed.
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+    }
+
     private IncbinDirective() {
     }
 
@@ -55,13 +113,11 @@ class IncbinDirective extends Mnemonic {
 
         final String filePath = IncludeDirective.getFilePath(context, 0);
         if (filePath != null) {
-            final byte[] data = context.builder.getAssembly().fetchBinaryFile(filePath);
-            if (data == null) {
-                throw new FileNotFoundException(filePath);
-            }
+            final ByteBuffer data = fetchBinaryFile(context, filePath);
+            final int dataLength = data.remaining();
 
             int start = 0;
-            int length = data.length;
+            int length = dataLength;
             if (context.numberOfOperands >= 2) {
                 final Value startOperand = evaluateExpressionOperand(context, 1);
                 final CardinalValueVisitor startVisitor = context.cardinalValueVisitor;
@@ -69,13 +125,13 @@ class IncbinDirective extends Mnemonic {
                 Value.accept(startOperand, startVisitor);
 
                 long startLong = startVisitor.getValue();
-                if (startLong > data.length) {
+                if (startLong > dataLength) {
                     context.addTentativeMessage(new ValueOutOfRangeErrorMessage(startLong));
-                    startLong = data.length;
+                    startLong = dataLength;
                 }
 
                 start = (int) startLong;
-                length = data.length - start;
+                length = dataLength - start;
 
                 if (context.numberOfOperands >= 3) {
                     final Value lengthOperand = evaluateExpressionOperand(context, 2);
@@ -84,9 +140,9 @@ class IncbinDirective extends Mnemonic {
                     Value.accept(lengthOperand, lengthVisitor);
 
                     long lengthLong = lengthVisitor.getValue();
-                    if (lengthLong > data.length - start) {
+                    if (lengthLong > dataLength - start) {
                         context.addTentativeMessage(new ValueOutOfRangeErrorMessage(lengthLong));
-                        lengthLong = data.length - start;
+                        lengthLong = dataLength - start;
                     }
 
                     length = (int) lengthLong;
@@ -94,7 +150,11 @@ class IncbinDirective extends Mnemonic {
             }
 
             if (length != 0) {
-                context.builder.appendAssembledData(data, start, length);
+                // Pass a view of the requested range rather than copying it.
+                final ByteBuffer range = data.duplicate();
+                range.position(start);
+                range.limit(start + length);
+                context.appendBytes(range);
             }
         }
     }
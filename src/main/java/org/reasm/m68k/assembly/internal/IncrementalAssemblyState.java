@@ -0,0 +1,39 @@
+package org.reasm.m68k.assembly.internal;
+
+import java.util.Map;
+
+import javax.annotation.Nonnull;
+
+import org.reasm.commons.source.LogicalLine;
+import org.reasm.source.SourceNode;
+
+import com.google.common.collect.MapMaker;
+
+/**
+ * The data that the assembler keeps in an {@link org.reasm.m68k.IncrementalAssemblyCache} between the assemblies of a program.
+ * <p>
+ * The maps have weak keys that are compared by identity: when a source file is reparsed, the nodes and the logical lines that
+ * were replaced are no longer reachable, so their entries are discarded.
+ *
+ * @author Francis Gagné
+ */
+public final class IncrementalAssemblyState {
+
+    /** The analyzed macro definitions, by the node of their body. */
+    @Nonnull
+    final Map<SourceNode, Macro> macros = new MapMaker().weakKeys().makeMap();
+
+    /**
+     * The recorded output of the instructions, by logical line. The most recently recorded entry is first; unused elements are
+     * <code>null</code>.
+     */
+    @Nonnull
+    final Map<LogicalLine, InstructionMemo.Entry[]> instructions = new MapMaker().weakKeys().makeMap();
+
+    /**
+     * The configuration options that affect the encoding of the instructions in {@link #instructions}, or -1 if no instructions
+     * were recorded yet.
+     */
+    int instructionOptions = -1;
+
+}
@@ -5,8 +5,10 @@ import java.io.IOException;
 import javax.annotation.Nonnull;
 import javax.annotation.concurrent.Immutable;
 
+import org.reasm.AssemblyStepLocation;
+
 /**
- * Base class for all instructions. This class implements the "automatic even" configuration option.
+ * Base class for all instructions. This class implements the "automatic even" and "layout passes" configuration options.
  *
  * @author Francis Gagné
  */
@@ -17,9 +19,43 @@ abstract class Instruction extends Mnemonic {
     final void assemble(M68KAssemblyContext context) throws IOException {
         context.automaticEven();
 
+        if (!context.layoutPasses || !this.canSkipEncoding(context)) {
+            this.assemble2(context);
+            return;
+        }
+
+        // If the output of the current pass will be discarded, the instruction only needs to take up as much space as it did
+        // when it was last encoded.
+        final AssemblyStepLocation stepLocation = context.step.getLocation();
+        if (context.anotherPassRequired) {
+            final Integer size = context.instructionSizes.get(stepLocation);
+            if (size != null) {
+                context.appendZeroes(size);
+                if (context.profile != null) {
+                    context.profile.recordLaidOutInstruction();
+                }
+
+                return;
+            }
+        }
+
+        final long start = context.getAssembledDataLength();
         this.assemble2(context);
+        context.instructionSizes.put(stepLocation, (int) (context.getAssembledDataLength() - start));
     }
 
     abstract void assemble2(@Nonnull M68KAssemblyContext context) throws IOException;
 
+    /**
+     * Determines whether this instruction can be laid out or have its output replayed from a previous pass instead of being
+     * encoded. Instructions that must record information on every pass must return <code>false</code>.
+     *
+     * @param context
+     *            the assembly context
+     * @return <code>true</code> if the encoding of this instruction can be skipped, otherwise <code>false</code>
+     */
+    boolean canSkipEncoding(@Nonnull M68KAssemblyContext context) {
+        return true;
+    }
+
 }
@@ -0,0 +1,492 @@
+package org.reasm.m68k.assembly.internal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+
+import org.reasm.AssemblyMessage;
+import org.reasm.AssemblyStepLocation;
+import org.reasm.Symbol;
+import org.reasm.commons.source.LogicalLine;
+import org.reasm.expressions.SymbolLookup;
+import org.reasm.m68k.InstructionSet;
+
+/**
+ * Remembers the output of the instructions of an assembly, so that an instruction whose inputs didn't change since the previous
+ * pass doesn't need to be assembled again.
+ * <p>
+ * While an instruction is assembled, the symbols it reads (through a {@link M68KSymbolLookup} or as a register alias or a register
+ * list alias) are recorded along with their value, as well as the data and the messages it outputs. When the same assembly step
+ * is reached on the next pass with the same mnemonic, program counter, instruction set and encoding, the recorded symbols are
+ * read again (so that the assembly still knows that the instruction depends on them). If they all have the same value, the
+ * recorded data and messages are output again instead of assembling the instruction. The configuration options are not
+ * compared, because they don't change during an assembly.
+ * <p>
+ * Only the instructions that were reached on the previous pass are remembered: the output of an assembly step that is not
+ * reached on a pass (e.g. an iteration of a loop that no longer runs) is forgotten when the next pass starts.
+ * <p>
+ * When the assembly uses an {@link org.reasm.m68k.IncrementalAssemblyCache}, the instructions that raised no messages and that
+ * only read symbols through the symbol lookup of their own assembly step are also stored in the cache, by logical line, so that
+ * the next assembly of the program can replay them on the lines that were not edited. Because the assembly steps of one assembly
+ * are not those of the next, the symbols of these entries are read through the symbol lookup of the step on which they are
+ * replayed, and the configuration options that affect encoding are compared.
+ *
+ * @author Francis Gagné
+ */
+final class InstructionMemo {
+
+    /**
+     * The recorded output of an instruction at an assembly step.
+     *
+     * @author Francis Gagné
+     */
+    @Immutable
+    static final class Entry {
+
+        @Nonnull
+        final Mnemonic mnemonic;
+        final long programCounter;
+        @CheckForNull
+        final InstructionSet instructionSet;
+        @CheckForNull
+        final Charset encoding;
+        // Triplets of source, name and value.
+        @Nonnull
+        final Object[] reads;
+        @Nonnull
+        final byte[] data;
+        @Nonnull
+        final AssemblyMessage[] messages;
+        @Nonnull
+        final boolean[] tentativeMessages;
+
+        Entry(@Nonnull Mnemonic mnemonic, long programCounter, @CheckForNull InstructionSet instructionSet,
+                @CheckForNull Charset encoding, @Nonnull Object[] reads, @Nonnull byte[] data,
+                @Nonnull AssemblyMessage[] messages, @Nonnull boolean[] tentativeMessages) {
+            this.mnemonic = mnemonic;
+            this.programCounter = programCounter;
+            this.instructionSet = instructionSet;
+            this.encoding = encoding;
+            this.reads = reads;
+            this.data = data;
+            this.messages = messages;
+            this.tentativeMessages = tentativeMessages;
+        }
+
+    }
+
+    // Sources for the symbols that are not read through a M68KSymbolLookup.
+    @Nonnull
+    private static final Object REGISTER_ALIAS = new Object();
+    @Nonnull
+    private static final Object REGISTER_LIST_ALIAS = new Object();
+    // The source for the symbols that are read through the symbol lookup of the current assembly step, in the entries that are
+    // stored in an IncrementalAssemblyState.
+    @Nonnull
+    private static final Object SYMBOL_LOOKUP = new Object();
+
+    // The number of entries that are stored for each logical line in an IncrementalAssemblyState.
+    private static final int MAX_LINE_ENTRIES = 4;
+
+    @Nonnull
+    private static final AssemblyMessage[] NO_MESSAGES = new AssemblyMessage[0];
+    @Nonnull
+    private static final boolean[] NO_TENTATIVE_MESSAGES = new boolean[0];
+
+    private static int getOptions(@Nonnull M68KAssemblyContext context) {
+        int options = 0;
+        if (context.automaticEven) {
+            options |= 1 << 0;
+        }
+
+        if (context.optimizeCmpiToTst) {
+            options |= 1 << 1;
+        }
+
+        if (context.optimizeMoveToMoveq) {
+            options |= 1 << 2;
+        }
+
+        if (context.optimizeToAddqSubq) {
+            options |= 1 << 3;
+        }
+
+        if (context.optimizeUnsizedAbsoluteAddressingToPcRelative) {
+            options |= 1 << 4;
+        }
+
+        if (context.optimizeUnsizedBranches) {
+            options |= 1 << 5;
+        }
+
+        if (context.optimizeZeroDisplacement) {
+            options |= 1 << 6;
+        }
+
+        return options;
+    }
+
+    @CheckForNull
+    private static Object getValue(@CheckForNull Symbol symbol) {
+        return symbol == null ? null : symbol.getValue();
+    }
+
+    // The instructions that were recorded or replayed on the previous pass, and on the current pass.
+    @Nonnull
+    private HashMap<AssemblyStepLocation, Entry> entries = new HashMap<>();
+    @Nonnull
+    private HashMap<AssemblyStepLocation, Entry> nextEntries = new HashMap<>();
+
+    // The instructions that are shared with the other assemblies of the program.
+    @CheckForNull
+    private IncrementalAssemblyState incrementalState;
+
+    // The recording of the instruction that is being assembled
+    private boolean recording;
+    private long programCounter;
+    @Nonnull
+    private final ArrayList<Object> reads = new ArrayList<>();
+    @Nonnull
+    private byte[] data = new byte[32];
+    private int dataLength;
+    @Nonnull
+    private final ArrayList<AssemblyMessage> messages = new ArrayList<>();
+    @Nonnull
+    private final ArrayList<Boolean> tentativeMessages = new ArrayList<>();
+
+    /**
+     * Forgets all the recorded instructions.
+     */
+    final void clear() {
+        this.entries.clear();
+        this.nextEntries.clear();
+    }
+
+    /**
+     * Stops recording the instruction that is being assembled and discards the recording.
+     */
+    final void discardRecording() {
+        this.recording = false;
+    }
+
+    /**
+     * Records data that was output by the instruction that is being assembled, if an instruction is being recorded.
+     *
+     * @param data
+     *            an array of bytes
+     * @param start
+     *            the index of the first byte that was output
+     * @param length
+     *            the number of bytes that were output
+     */
+    final void recordData(@Nonnull byte[] data, int start, int length) {
+        if (this.recording) {
+            this.reserveData(length);
+            System.arraycopy(data, start, this.data, this.dataLength, length);
+            this.dataLength += length;
+        }
+    }
+
+    /**
+     * Records the bytes between the position and the limit of a {@link ByteBuffer} that were output by the instruction that is
+     * being assembled, if an instruction is being recorded. The buffer's position is not modified.
+     *
+     * @param data
+     *            a {@link ByteBuffer}
+     */
+    final void recordData(@Nonnull ByteBuffer data) {
+        if (this.recording) {
+            final int length = data.remaining();
+            this.reserveData(length);
+            data.duplicate().get(this.data, this.dataLength, length);
+            this.dataLength += length;
+        }
+    }
+
+    /**
+     * Records a message that was raised by the instruction that is being assembled, if an instruction is being recorded.
+     *
+     * @param message
+     *            the message
+     * @param tentative
+     *            <code>true</code> if the message was added as a tentative message, otherwise <code>false</code>
+     */
+    final void recordMessage(@Nonnull AssemblyMessage message, boolean tentative) {
+        if (this.recording) {
+            this.messages.add(message);
+            this.tentativeMessages.add(tentative);
+        }
+    }
+
+    /**
+     * Records that the instruction that is being assembled read a register alias, if an instruction is being recorded.
+     *
+     * @param name
+     *            the name of the alias
+     * @param register
+     *            the register the alias resolved to, or <code>null</code> if the name is not a register alias
+     */
+    final void recordRegisterAliasRead(@Nonnull String name, @CheckForNull GeneralPurposeRegister register) {
+        this.recordRead(REGISTER_ALIAS, name, register);
+    }
+
+    /**
+     * Records that the instruction that is being assembled read a register alias or a register list alias, if an instruction is
+     * being recorded.
+     *
+     * @param name
+     *            the name of the alias
+     * @param symbol
+     *            the symbol the alias resolved to, or <code>null</code> if the name is not an alias
+     */
+    final void recordRegisterListAliasRead(@Nonnull String name, @CheckForNull Symbol symbol) {
+        this.recordRead(REGISTER_LIST_ALIAS, name, getValue(symbol));
+    }
+
+    /**
+     * Records that the instruction that is being assembled read a symbol, if an instruction is being recorded.
+     *
+     * @param symbolLookup
+     *            the symbol lookup through which the symbol was read
+     * @param name
+     *            the name of the symbol
+     * @param symbol
+     *            the symbol, or <code>null</code> if the symbol is undefined
+     */
+    final void recordSymbolRead(@Nonnull M68KSymbolLookup symbolLookup, @Nonnull String name, @CheckForNull Symbol symbol) {
+        this.recordRead(symbolLookup, name, getValue(symbol));
+    }
+
+    /**
+     * Outputs the data and the messages that were recorded for the current assembly step on a previous pass, if the instruction
+     * on that step has the same inputs as when it was recorded.
+     *
+     * @param context
+     *            the assembly context
+     * @param mnemonic
+     *            the instruction on the current assembly step
+     * @return <code>true</code> if the recorded output was replayed, or <code>false</code> if the instruction must be assembled
+     * @throws IOException
+     *             an I/O exception occurred
+     */
+    final boolean replay(@Nonnull M68KAssemblyContext context, @Nonnull Mnemonic mnemonic) throws IOException {
+        Entry entry = this.entries.get(context.step.getLocation());
+        if (entry == null || !matches(context, mnemonic, entry)) {
+            entry = this.findLineEntry(context, mnemonic);
+            if (entry == null) {
+                return false;
+            }
+        }
+
+        final AssemblyMessage[] messages = entry.messages;
+        for (int i = 0; i < messages.length; i++) {
+            if (entry.tentativeMessages[i]) {
+                context.addTentativeMessage(messages[i]);
+            } else {
+                context.addMessage(messages[i]);
+            }
+        }
+
+        context.appendBytes(entry.data, 0, entry.data.length);
+        this.nextEntries.put(context.step.getLocation(), entry);
+        return true;
+    }
+
+    /**
+     * Sets the state in which the instructions are shared with the other assemblies of the program. If the configuration options
+     * that affect encoding differ from those of the instructions that are in the state, these instructions are forgotten.
+     *
+     * @param incrementalState
+     *            the state
+     * @param context
+     *            the assembly context
+     */
+    final void setIncrementalState(@Nonnull IncrementalAssemblyState incrementalState, @Nonnull M68KAssemblyContext context) {
+        final int options = getOptions(context);
+        if (incrementalState.instructionOptions != options) {
+            incrementalState.instructions.clear();
+            incrementalState.instructionOptions = options;
+        }
+
+        this.incrementalState = incrementalState;
+    }
+
+    /**
+     * Starts recording the instruction that is being assembled.
+     *
+     * @param context
+     *            the assembly context
+     */
+    final void startRecording(@Nonnull M68KAssemblyContext context) {
+        this.recording = true;
+        this.programCounter = context.programCounter;
+        this.reads.clear();
+        this.dataLength = 0;
+        this.messages.clear();
+        this.tentativeMessages.clear();
+    }
+
+    /**
+     * Makes the instructions that were recorded or replayed on the pass that just ended available for replay on the new pass, and
+     * forgets the other instructions.
+     */
+    final void startedNewPass() {
+        final HashMap<AssemblyStepLocation, Entry> entries = this.entries;
+        entries.clear();
+        this.entries = this.nextEntries;
+        this.nextEntries = entries;
+    }
+
+    /**
+     * Stops recording the instruction that is being assembled and remembers its output for the current assembly step.
+     *
+     * @param context
+     *            the assembly context
+     * @param mnemonic
+     *            the instruction on the current assembly step
+     */
+    final void stopRecording(@Nonnull M68KAssemblyContext context, @Nonnull Mnemonic mnemonic) {
+        if (!this.recording) {
+            return;
+        }
+
+        this.recording = false;
+
+        final AssemblyMessage[] messages;
+        final boolean[] tentativeMessages;
+        if (this.messages.isEmpty()) {
+            messages = NO_MESSAGES;
+            tentativeMessages = NO_TENTATIVE_MESSAGES;
+        } else {
+            messages = this.messages.toArray(new AssemblyMessage[this.messages.size()]);
+            tentativeMessages = new boolean[messages.length];
+            for (int i = 0; i < tentativeMessages.length; i++) {
+                tentativeMessages[i] = this.tentativeMessages.get(i);
+            }
+        }
+
+        final Object[] reads = this.reads.toArray();
+        final byte[] data = Arrays.copyOf(this.data, this.dataLength);
+        this.nextEntries.put(context.step.getLocation(), new Entry(mnemonic, this.programCounter, context.instructionSet,
+                context.encoding, reads, data, messages, tentativeMessages));
+
+        if (this.incrementalState != null && messages.length == 0) {
+            this.storeLineEntry(context, mnemonic, reads, data);
+        }
+    }
+
+    @CheckForNull
+    private Entry findLineEntry(@Nonnull M68KAssemblyContext context, @Nonnull Mnemonic mnemonic) {
+        final IncrementalAssemblyState incrementalState = this.incrementalState;
+        if (incrementalState == null || context.logicalLine == null) {
+            return null;
+        }
+
+        final Entry[] lineEntries = incrementalState.instructions.get(context.logicalLine);
+        if (lineEntries == null) {
+            return null;
+        }
+
+        for (Entry entry : lineEntries) {
+            if (entry != null && matches(context, mnemonic, entry)) {
+                return entry;
+            }
+        }
+
+        return null;
+    }
+
+    private boolean matches(@Nonnull M68KAssemblyContext context, @Nonnull Mnemonic mnemonic, @Nonnull Entry entry) {
+        if (entry.mnemonic != mnemonic || entry.programCounter != context.programCounter
+                || entry.instructionSet != context.instructionSet || !Objects.equals(entry.encoding, context.encoding)) {
+            return false;
+        }
+
+        // Read the symbols again, through the same lookups, so that the assembly knows that the instruction depends on them. If
+        // one of them has changed, the instruction is assembled, which reads them all.
+        final Object[] reads = entry.reads;
+        SymbolLookup symbolLookup = null;
+        for (int i = 0; i < reads.length; i += 3) {
+            final Object source = reads[i];
+            final String name = (String) reads[i + 1];
+            final Object value;
+            if (source == REGISTER_ALIAS) {
+                value = context.getRegisterAliasByName(name);
+            } else if (source == REGISTER_LIST_ALIAS) {
+                value = getValue(context.getRegisterAliasOrRegisterListAliasSymbolByName(name));
+            } else if (source == SYMBOL_LOOKUP) {
+                if (symbolLookup == null) {
+                    symbolLookup = context.createSymbolLookup();
+                }
+
+                value = getValue(symbolLookup.getSymbol(name));
+            } else {
+                value = getValue(((M68KSymbolLookup) source).getSymbol(name));
+            }
+
+            if (!Objects.equals(value, reads[i + 2])) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private void recordRead(@Nonnull Object source, @Nonnull String name, @CheckForNull Object value) {
+        if (this.recording) {
+            this.reads.add(source);
+            this.reads.add(name);
+            this.reads.add(value);
+        }
+    }
+
+    private void reserveData(int length) {
+        if (this.dataLength + length > this.data.length) {
+            this.data = Arrays.copyOf(this.data, Math.max(this.data.length * 2, this.dataLength + length));
+        }
+    }
+
+    private void storeLineEntry(@Nonnull M68KAssemblyContext context, @Nonnull Mnemonic mnemonic, @Nonnull Object[] reads,
+            @Nonnull byte[] data) {
+        final LogicalLine logicalLine = context.logicalLine;
+        if (logicalLine == null) {
+            return;
+        }
+
+        // The symbol lookups of this assembly can't be used by the next assembly, so the entry can only be stored if the
+        // instruction read its symbols through the symbol lookup of the current step, which is replaced with SYMBOL_LOOKUP.
+        final SymbolLookup symbolLookup = context.createSymbolLookup();
+        final Object[] lineReads = reads.clone();
+        for (int i = 0; i < lineReads.length; i += 3) {
+            if (lineReads[i] instanceof M68KSymbolLookup) {
+                if (lineReads[i] != symbolLookup) {
+                    return;
+                }
+
+                lineReads[i] = SYMBOL_LOOKUP;
+            }
+        }
+
+        final Map<LogicalLine, Entry[]> instructions = this.incrementalState.instructions;
+        Entry[] lineEntries = instructions.get(logicalLine);
+        if (lineEntries == null) {
+            lineEntries = new Entry[MAX_LINE_ENTRIES];
+            instructions.put(logicalLine, lineEntries);
+        }
+
+        // Forget the oldest entry.
+        System.arraycopy(lineEntries, 0, lineEntries, 1, lineEntries.length - 1);
+        lineEntries[0] = new Entry(mnemonic, this.programCounter, context.instructionSet, context.encoding, lineReads, data,
+                NO_MESSAGES, NO_TENTATIVE_MESSAGES);
+    }
+
+}
@@ -17,7 +17,7 @@ class LeaInstruction extends TwoFixedEaInstruction {
     static final LeaInstruction LEA = new LeaInstruction();
 
     private LeaInstruction() {
-        super(AddressingModeCategory.CONTROL, AddressingModeCategory.ADDRESS_REGISTER_DIRECT);
+        super(AddressingModeCategory.CONTROL_MASK, AddressingModeCategory.ADDRESS_REGISTER_DIRECT_MASK);
     }
 
     @Override
@@ -17,7 +17,7 @@ class LinkInstruction extends TwoFixedEaInstruction {
     static final LinkInstruction LINK = new LinkInstruction();
 
     private LinkInstruction() {
-        super(AddressingModeCategory.ADDRESS_REGISTER_DIRECT, AddressingModeCategory.IMMEDIATE_DATA);
+        super(AddressingModeCategory.ADDRESS_REGISTER_DIRECT_MASK, AddressingModeCategory.IMMEDIATE_DATA_MASK);
     }
 
     @Override
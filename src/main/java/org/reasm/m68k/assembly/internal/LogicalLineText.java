@@ -0,0 +1,85 @@
+package org.reasm.m68k.assembly.internal;
+
+import java.util.Arrays;
+
+import javax.annotation.Nonnull;
+
+import org.reasm.commons.source.LogicalLineReader;
+
+/**
+ * A reusable {@link CharSequence} that holds the text of a range of a logical line, such as an operand.
+ * <p>
+ * The text of a range of a logical line is not necessarily contiguous in the source (e.g. when the line contains continuation
+ * characters), so the text is read from a {@link LogicalLineReader} into a buffer that is reused every time the text is
+ * {@linkplain #read(LogicalLineReader) read}. This avoids creating a {@link String} for text that is only tokenized. Since the
+ * contents change on every read, a {@link String} must still be created (with {@link #toString()} or
+ * {@link #subSequence(int, int)}) for text that must be kept.
+ *
+ * @author Francis Gagné
+ */
+final class LogicalLineText implements CharSequence {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    @Nonnull
+    private char[] chars = new char[INITIAL_CAPACITY];
+    private int length;
+
+    @Override
+    public final char charAt(int index) {
+        if (index < 0 || index >= this.length) {
+            throw new IndexOutOfBoundsException("index");
+        }
+
+        return this.chars[index];
+    }
+
+    @Override
+    public final int length() {
+        return this.length;
+    }
+
+    /**
+     * Gets a {@link String} that contains the specified range of this text. The {@link String} is not affected by subsequent
+     * reads.
+     */
+    @Override
+    public final String subSequence(int start, int end) {
+        if (start < 0 || end > this.length || start > end) {
+            throw new IndexOutOfBoundsException();
+        }
+
+        return new String(this.chars, start, end - start);
+    }
+
+    @Override
+    public final String toString() {
+        return new String(this.chars, 0, this.length);
+    }
+
+    /**
+     * Reads the text from a {@link LogicalLineReader}, replacing the current contents of this text. The reader is advanced to
+     * the end of its range.
+     *
+     * @param reader
+     *            the reader to read the text from
+     * @return this {@link LogicalLineText}
+     */
+    @Nonnull
+    final LogicalLineText read(@Nonnull LogicalLineReader reader) {
+        int length = 0;
+        while (!reader.atEnd()) {
+            final int codePoint = reader.getCurrentCodePoint();
+            if (length + 2 > this.chars.length) {
+                this.chars = Arrays.copyOf(this.chars, this.chars.length * 2);
+            }
+
+            length += Character.toChars(codePoint, this.chars, length);
+            reader.advance();
+        }
+
+        this.length = length;
+        return this;
+    }
+
+}
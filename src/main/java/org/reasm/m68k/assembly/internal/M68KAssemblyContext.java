@@ -1,9 +1,12 @@
 package org.reasm.m68k.assembly.internal;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Map;
-import java.util.Set;
+import java.util.Objects;
 
 import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
@@ -13,9 +16,16 @@ import org.reasm.commons.source.LogicalLine;
 import org.reasm.commons.source.LogicalLineReader;
 import org.reasm.commons.source.SourceLocationUtils;
 import org.reasm.expressions.EvaluationContext;
+import org.reasm.expressions.Expression;
 import org.reasm.expressions.SymbolLookup;
+import org.reasm.m68k.AssemblyProfile;
 import org.reasm.m68k.ConfigurationOptions;
+import org.reasm.m68k.IncrementalAssemblyCache;
 import org.reasm.m68k.M68KArchitecture;
+import org.reasm.m68k.expressions.internal.ConstantFolder;
+import org.reasm.m68k.expressions.internal.ExpressionParser;
+import org.reasm.m68k.expressions.internal.InvalidTokenException;
+import org.reasm.m68k.expressions.internal.TokenType;
 import org.reasm.m68k.expressions.internal.Tokenizer;
 import org.reasm.m68k.messages.InvalidSizeAttributeErrorMessage;
 import org.reasm.m68k.messages.SizeAttributeNotAllowedErrorMessage;
@@ -26,6 +36,8 @@ import org.reasm.source.SourceNode;
 import ca.fragag.Consumer;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.MapMaker;
+import com.google.common.primitives.UnsignedLongs;
 
 /**
  * Stores all the contextual data for the M68000 family for a specific assembly.
@@ -65,6 +77,22 @@ final class M68KAssemblyContext extends M68KBasicAssemblyContext implements Cons
     private static final ImmutableList<SymbolContext<?>> REGISTER_LIST_ALIAS_LOOKUP_CONTEXTS = ImmutableList.of(
             REGISTER_LIST_ALIAS, REGISTER_ALIAS, SymbolContext.VALUE);
 
+    // Strings for all the attributes that consist of a single ASCII character, to avoid allocating a string for them on every
+    // line.
+    @Nonnull
+    private static final String[] SINGLE_CHARACTER_ATTRIBUTES = createSingleCharacterAttributes();
+
+    // The maximum number of bytes that are appended to the output in a single call when filling a block of memory.
+    private static final int FILL_CHUNK_SIZE = 4096;
+
+    // Zeroes used to fill blocks of memory. This array must never be modified.
+    @Nonnull
+    private static final byte[] ZEROES = new byte[FILL_CHUNK_SIZE];
+
+    // The capacity of the staging buffer. This is more than enough for the longest instruction (22 bytes); data directives that
+    // output more than this flush the buffer when it's full.
+    private static final int STAGED_DATA_CAPACITY = 256;
+
     @Nonnull
     static M68KAssemblyContext getAssemblyContext(@Nonnull AssemblyBuilder builder) {
         M68KAssemblyContext context = (M68KAssemblyContext) builder.getCustomAssemblyData(KEY);
@@ -77,6 +105,8 @@ final class M68KAssemblyContext extends M68KBasicAssemblyContext implements Cons
                     .getCustomConfigurationOptions(ConfigurationOptions.KEY);
             if (configurationOptions != null) {
                 context.automaticEven = configurationOptions.automaticEven();
+                context.layoutPasses = configurationOptions.layoutPasses();
+                context.memoryMappedIncbin = configurationOptions.memoryMappedIncbin();
                 context.optimizeCmpiToTst = configurationOptions.optimizeCmpiToTst();
                 context.optimizeMoveToMoveq = configurationOptions.optimizeMoveToMoveq();
                 context.optimizeToAddqSubq = configurationOptions.optimizeToAddqSubq();
@@ -84,6 +114,14 @@ final class M68KAssemblyContext extends M68KBasicAssemblyContext implements Cons
                         .optimizeUnsizedAbsoluteAddressingToPcRelative();
                 context.optimizeUnsizedBranches = configurationOptions.optimizeUnsizedBranches();
                 context.optimizeZeroDisplacement = configurationOptions.optimizeZeroDisplacement();
+                context.profile = configurationOptions.profile();
+
+                final IncrementalAssemblyCache incrementalCache = configurationOptions.incrementalCache();
+                if (incrementalCache != null) {
+                    final IncrementalAssemblyState incrementalState = incrementalCache.getState();
+                    context.reusableMacros = incrementalState.macros;
+                    context.instructionMemo.setIncrementalState(incrementalState, context);
+                }
             }
 
             builder.setCustomAssemblyData(KEY, context);
@@ -92,9 +130,45 @@ final class M68KAssemblyContext extends M68KBasicAssemblyContext implements Cons
         // Initialize the context.
         context.initialize(builder.getStep());
         context.encoding = builder.getAssembly().getCurrentEncoding();
+        if (context.profile != null) {
+            context.recordPass();
+        }
         return context;
     }
 
+    @Nonnull
+    private static String[] createSingleCharacterAttributes() {
+        final String[] attributes = new String[128];
+        for (int i = 0; i < attributes.length; i++) {
+            attributes[i] = String.valueOf((char) i);
+        }
+
+        return attributes;
+    }
+
+    @Nonnull
+    private static String readAttribute(@Nonnull LogicalLineReader reader) {
+        if (reader.atEnd()) {
+            return "";
+        }
+
+        // Most attributes consist of a single character: don't allocate a new string for them.
+        final int firstCodePoint = reader.getCurrentCodePoint();
+        reader.advance();
+        if (reader.atEnd() && firstCodePoint < SINGLE_CHARACTER_ATTRIBUTES.length) {
+            return SINGLE_CHARACTER_ATTRIBUTES[firstCodePoint];
+        }
+
+        final StringBuilder sb = new StringBuilder();
+        sb.appendCodePoint(firstCodePoint);
+        while (!reader.atEnd()) {
+            sb.appendCodePoint(reader.getCurrentCodePoint());
+            reader.advance();
+        }
+
+        return sb.toString();
+    }
+
     @Nonnull
     final AssemblyBuilder builder;
 
@@ -105,6 +179,16 @@ final class M68KAssemblyContext extends M68KBasicAssemblyContext implements Cons
     boolean optimizeToAddqSubq;
     boolean optimizeUnsizedBranches;
 
+    // Configuration options that are fixed for the whole assembly
+    boolean layoutPasses;
+    boolean memoryMappedIncbin;
+
+    // Profiling (null when profiling is disabled)
+    @CheckForNull
+    AssemblyProfile profile;
+    @CheckForNull
+    private AssemblyStepLocation firstStepLocation;
+
     // Context of the current logical line being assembled
     // They are assigned in initialize(AssemblyStep)
     AssemblyStep step;
@@ -112,15 +196,23 @@ final class M68KAssemblyContext extends M68KBasicAssemblyContext implements Cons
     LogicalLine logicalLine;
     int numberOfLabels;
     int numberOfOperands;
-    String mnemonic;
+    @CheckForNull
+    private String mnemonic;
+    boolean builtInMnemonicForced;
+    @CheckForNull
+    MnemonicSymbol builtInMnemonicSymbol;
     String attribute;
     @CheckForNull
+    private CompiledLine compiledLine;
+    @CheckForNull
     private EvaluationContext evaluationContext;
 
     // Reusable objects
     @Nonnull
     final LogicalLineReader logicalLineReader = new LogicalLineReader();
     @Nonnull
+    private final LogicalLineText operandText = new LogicalLineText();
+    @Nonnull
     final Tokenizer tokenizer = new Tokenizer();
     @Nonnull
     final EffectiveAddress ea0 = new EffectiveAddress();
@@ -138,27 +230,98 @@ final class M68KAssemblyContext extends M68KBasicAssemblyContext implements Cons
     final IntegerValueVisitor integerValueVisitor = new IntegerValueVisitor(this);
     @Nonnull
     final StringValueVisitor stringValueVisitor = new StringValueVisitor(this);
+    @Nonnull
+    private final ConstantFolder constantFolder;
+    @Nonnull
+    private final byte[] fillChunk = new byte[FILL_CHUNK_SIZE];
+    // - Assembled data for the current instruction that hasn't been appended to the builder yet. The opcode word and the
+    //   extension words are staged here and appended with a single call in flushAssembledData().
+    @Nonnull
+    private final byte[] stagedData = new byte[STAGED_DATA_CAPACITY];
+    private int stagedDataLength;
+    // - The number of bytes that were appended to the builder on the current step.
+    private long appendedDataLength;
+    @Nonnull
+    private final Consumer<AssemblyMessage> parseMessageDetector = new Consumer<AssemblyMessage>() {
+        @Override
+        public void accept(AssemblyMessage message) {
+            M68KAssemblyContext.this.parseRaisedMessages = true;
+        }
+    };
+    private boolean parseRaisedMessages;
 
     // Persistent state
+    // - Set when a macro is defined with the name of a built-in mnemonic. Until then, built-in mnemonics can be dispatched
+    //   without looking up the mnemonic symbol by name.
+    boolean builtInMnemonicsShadowed;
     @Nonnull
     final Map<AssemblyStepLocation, Object> blockStateMap = new HashMap<>();
     @Nonnull
     final Map<AssemblyStepLocation, Macro> macrosByDefinitionLocation = new HashMap<>();
+    // - Parsed operands, by logical line and operand index.
+    //   The keys are weak and compared by identity: when a source file is reparsed, the logical lines that were replaced are no
+    //   longer reachable, so their entries are discarded, while the logical lines that were kept still have the same text.
+    @Nonnull
+    private final Map<LogicalLine, ParsedOperand[]> parsedOperands = new MapMaker().weakKeys().makeMap();
+    // - Compiled logical lines, by logical line, while a DO, FOR, REPT or WHILE block is being assembled, or null otherwise. The
+    //   keys are weak and compared by identity, like the keys of the parsed operands: the body of a loop may invoke a macro that
+    //   is instantiated again on every iteration, and the lines of the instantiations that are no longer reachable must not be
+    //   kept until the loop is exited.
+    @CheckForNull
+    private Map<LogicalLine, CompiledLine> compiledLines;
+    // - Macros defined by this assembly or by previous assemblies of the same program, by macro body node. This is shared with
+    //   the IncrementalAssemblyCache in the configuration options, or null if there is none.
+    @CheckForNull
+    Map<SourceNode, Macro> reusableMacros;
+    // - Files that were mapped in memory by the INCBIN directive, by file path. Each file is mapped once per assembly.
+    @Nonnull
+    final Map<String, ByteBuffer> mappedBinaryFiles = new HashMap<>();
+    // - Unsized branches, when the "optimizeUnsizedBranches" option is enabled.
+    @Nonnull
+    final BranchRelaxation branchRelaxation = new BranchRelaxation();
+    // - Symbol lookups and cached symbol resolutions.
+    @Nonnull
+    final SymbolResolutionCache symbolResolutionCache = new SymbolResolutionCache();
+    // - The output of the instructions on the previous passes, by assembly step location.
+    @Nonnull
+    final InstructionMemo instructionMemo = new InstructionMemo();
+    // - Sizes of the instructions that were encoded, by assembly step location, when the "layoutPasses" option is enabled.
+    @Nonnull
+    final Map<AssemblyStepLocation, Integer> instructionSizes = new HashMap<>();
     // - Special symbols
     @Nonnull
     final RsSymbol rs = new RsSymbol();
 
+    // Pass state, when the "layoutPasses" option is enabled
+    // - Set when a constant symbol is defined with a value that differs from the value that was read earlier on the current pass,
+    //   or when a name that was undefined when it was read is defined in the same symbol lookup context: the assembler will
+    //   perform another pass, so the output of the current pass will be discarded. Symbols are compared by identity rather than
+    //   by name, because a name may resolve to different symbols from different symbol lookup contexts.
+    boolean anotherPassRequired;
+    // - The values that the constant symbols had when they were first read on the current pass, by symbol.
+    @Nonnull
+    private final IdentityHashMap<Symbol, Object> constantsReadOnPass = new IdentityHashMap<>();
+    // - The names that were undefined when they were read on the current pass, by symbol lookup context.
+    @Nonnull
+    private final HashMap<SymbolLookupContext, HashSet<String>> undefinedNamesReadOnPass = new HashMap<>();
+
     private M68KAssemblyContext(@Nonnull AssemblyBuilder builder) {
         this.builder = builder;
+        this.constantFolder = new ConstantFolder(builder.getAssembly());
     }
 
     @Override
     public void accept(AssemblyMessage message) {
-        this.builder.addTentativeMessage(message);
+        this.addTentativeMessage(message);
     }
 
     @Override
     public void completed() {
+        // Release the files that were mapped in memory. They are unmapped once they are garbage collected.
+        this.mappedBinaryFiles.clear();
+
+        // The recorded instructions are only useful on the next pass.
+        this.instructionMemo.clear();
     }
 
     @Override
@@ -170,6 +333,17 @@ final class M68KAssemblyContext extends M68KBasicAssemblyContext implements Cons
     @Override
     public void startedNewPass() {
         this.rs.set(0, false);
+        this.symbolResolutionCache.clearNonRegisterAliasNames();
+        this.symbolResolutionCache.clearSymbols();
+        this.branchRelaxation.solve(this.profile);
+        this.instructionMemo.startedNewPass();
+
+        this.anotherPassRequired = false;
+        this.constantsReadOnPass.clear();
+        this.undefinedNamesReadOnPass.clear();
+
+        // A loop block may have been left without being exited if a step threw an exception.
+        this.compiledLines = null;
     }
 
     void addInvalidSizeAttributeErrorMessage() {
@@ -177,10 +351,12 @@ final class M68KAssemblyContext extends M68KBasicAssemblyContext implements Cons
     }
 
     void addMessage(@Nonnull AssemblyMessage message) {
+        this.instructionMemo.recordMessage(message, false);
         this.builder.addMessage(message);
     }
 
     void addTentativeMessage(@Nonnull AssemblyMessage message) {
+        this.instructionMemo.recordMessage(message, true);
         this.builder.addTentativeMessage(message);
     }
 
@@ -189,7 +365,40 @@ final class M68KAssemblyContext extends M68KBasicAssemblyContext implements Cons
     }
 
     void appendByte(byte by) throws IOException {
-        this.builder.appendAssembledData(by);
+        final int offset = this.reserveStagedData(1);
+        this.stagedData[offset] = by;
+    }
+
+    /**
+     * Appends a range of bytes to the output.
+     *
+     * @param data
+     *            an array of bytes
+     * @param start
+     *            the index of the first byte to append
+     * @param length
+     *            the number of bytes to append
+     * @throws IOException
+     *             an I/O exception occurred
+     */
+    void appendBytes(@Nonnull byte[] data, int start, int length) throws IOException {
+        this.flushAssembledData();
+        this.appendAssembledData(data, start, length);
+    }
+
+    /**
+     * Appends the bytes between the position and the limit of a {@link ByteBuffer} to the output.
+     *
+     * @param data
+     *            a {@link ByteBuffer}
+     * @throws IOException
+     *             an I/O exception occurred
+     */
+    void appendBytes(@Nonnull ByteBuffer data) throws IOException {
+        this.flushAssembledData();
+        this.appendedDataLength += data.remaining();
+        this.instructionMemo.recordData(data);
+        this.builder.appendAssembledData(data);
     }
 
     void appendEffectiveAddress(@Nonnull EffectiveAddress ea) throws IOException {
@@ -197,44 +406,129 @@ final class M68KAssemblyContext extends M68KBasicAssemblyContext implements Cons
     }
 
     void appendEffectiveAddress(@Nonnull EffectiveAddress ea, int firstWord) throws IOException {
-        for (int i = firstWord; i < ea.numberOfWords; i++) {
-            this.appendWord(ea.getWord(i));
+        final int numberOfWords = ea.numberOfWords;
+        if (firstWord >= numberOfWords) {
+            return;
+        }
+
+        int offset = this.reserveStagedData((numberOfWords - firstWord) * 2);
+        final byte[] stagedData = this.stagedData;
+        for (int i = firstWord; i < numberOfWords; i++) {
+            final short word = ea.getWord(i);
+            stagedData[offset++] = (byte) (word >>> 8);
+            stagedData[offset++] = (byte) word;
+        }
+    }
+
+    /**
+     * Appends a pattern of bytes to the output a number of times. The pattern is copied repeatedly into a buffer, which is then
+     * appended to the output in large chunks, rather than appending each byte individually.
+     *
+     * @param pattern
+     *            a {@link ByteBuffer} containing the pattern between its position and its limit. The buffer's position is not
+     *            modified.
+     * @param count
+     *            the number of times to append the pattern, as an unsigned integer
+     * @throws IOException
+     *             an I/O exception occurred
+     */
+    void appendFill(@Nonnull ByteBuffer pattern, long count) throws IOException {
+        final int patternLength = pattern.remaining();
+        if (patternLength == 0 || count == 0) {
+            return;
+        }
+
+        this.flushAssembledData();
+
+        if (patternLength > FILL_CHUNK_SIZE) {
+            // The pattern doesn't fit in a chunk: append it directly.
+            final byte[] patternBytes = new byte[patternLength];
+            pattern.duplicate().get(patternBytes);
+            for (long i = 0; UnsignedLongs.compare(i, count) < 0; i++) {
+                this.appendAssembledData(patternBytes, 0, patternLength);
+            }
+
+            return;
         }
+
+        // Fill the chunk with as many whole copies of the pattern as it can hold, doubling the filled part on each copy.
+        final byte[] chunk = this.fillChunk;
+        final int patternsPerChunk = FILL_CHUNK_SIZE / patternLength;
+        final int chunkLength = patternsPerChunk * patternLength;
+        pattern.duplicate().get(chunk, 0, patternLength);
+        for (int filled = patternLength; filled < chunkLength; filled *= 2) {
+            System.arraycopy(chunk, 0, chunk, filled, Math.min(filled, chunkLength - filled));
+        }
+
+        long remaining = count;
+        while (UnsignedLongs.compare(remaining, patternsPerChunk) > 0) {
+            this.appendAssembledData(chunk, 0, chunkLength);
+            remaining -= patternsPerChunk;
+        }
+
+        this.appendAssembledData(chunk, 0, (int) remaining * patternLength);
     }
 
     void appendLong(int longWord) throws IOException {
-        this.builder.appendAssembledData((byte) (longWord >>> 24));
-        this.builder.appendAssembledData((byte) (longWord >>> 16));
-        this.builder.appendAssembledData((byte) (longWord >>> 8));
-        this.builder.appendAssembledData((byte) (longWord >>> 0));
+        final int offset = this.reserveStagedData(4);
+        final byte[] stagedData = this.stagedData;
+        stagedData[offset] = (byte) (longWord >>> 24);
+        stagedData[offset + 1] = (byte) (longWord >>> 16);
+        stagedData[offset + 2] = (byte) (longWord >>> 8);
+        stagedData[offset + 3] = (byte) (longWord >>> 0);
     }
 
     void appendQuad(long quadWord) throws IOException {
-        this.builder.appendAssembledData((byte) (quadWord >>> 56));
-        this.builder.appendAssembledData((byte) (quadWord >>> 48));
-        this.builder.appendAssembledData((byte) (quadWord >>> 40));
-        this.builder.appendAssembledData((byte) (quadWord >>> 32));
-        this.builder.appendAssembledData((byte) (quadWord >>> 24));
-        this.builder.appendAssembledData((byte) (quadWord >>> 16));
-        this.builder.appendAssembledData((byte) (quadWord >>> 8));
-        this.builder.appendAssembledData((byte) (quadWord >>> 0));
+        final int offset = this.reserveStagedData(8);
+        final byte[] stagedData = this.stagedData;
+        stagedData[offset] = (byte) (quadWord >>> 56);
+        stagedData[offset + 1] = (byte) (quadWord >>> 48);
+        stagedData[offset + 2] = (byte) (quadWord >>> 40);
+        stagedData[offset + 3] = (byte) (quadWord >>> 32);
+        stagedData[offset + 4] = (byte) (quadWord >>> 24);
+        stagedData[offset + 5] = (byte) (quadWord >>> 16);
+        stagedData[offset + 6] = (byte) (quadWord >>> 8);
+        stagedData[offset + 7] = (byte) (quadWord >>> 0);
     }
 
     void appendWord(short word) throws IOException {
-        this.builder.appendAssembledData((byte) (word >>> 8));
-        this.builder.appendAssembledData((byte) word);
+        final int offset = this.reserveStagedData(2);
+        final byte[] stagedData = this.stagedData;
+        stagedData[offset] = (byte) (word >>> 8);
+        stagedData[offset + 1] = (byte) word;
+    }
+
+    /**
+     * Appends a number of zero bytes to the output, in large chunks.
+     *
+     * @param byteCount
+     *            the number of zero bytes to append, as an unsigned integer
+     * @throws IOException
+     *             an I/O exception occurred
+     */
+    void appendZeroes(long byteCount) throws IOException {
+        this.flushAssembledData();
+        long remaining = byteCount;
+        while (UnsignedLongs.compare(remaining, FILL_CHUNK_SIZE) > 0) {
+            this.appendAssembledData(ZEROES, 0, FILL_CHUNK_SIZE);
+            remaining -= FILL_CHUNK_SIZE;
+        }
+
+        if (remaining != 0) {
+            this.appendAssembledData(ZEROES, 0, (int) remaining);
+        }
     }
 
     void automaticEven() throws IOException {
         if (this.automaticEven && (this.programCounter & 1) != 0) {
-            this.builder.appendAssembledData((byte) 0);
+            this.appendByte((byte) 0);
             this.programCounter++;
         }
     }
 
     @Nonnull
     SymbolLookup createSymbolLookup() {
-        return new M68KSymbolLookup(this, this.builder.getAssembly().getCurrentSymbolLookupContext());
+        return this.symbolResolutionCache.getSymbolLookup(this, this.builder.getAssembly().getCurrentSymbolLookupContext());
     }
 
     /**
@@ -262,6 +556,18 @@ final class M68KAssemblyContext extends M68KBasicAssemblyContext implements Cons
             @Nonnull SymbolType symbolType, @CheckForNull TValue value) {
         final boolean isLocalName = M68KArchitecture.isLocalName(symbolName);
         this.builder.defineSymbol(symbolContext, symbolName, isLocalName, symbolType, value);
+        if (!isLocalName) {
+            this.symbolResolutionCache.symbolDefined(symbolName);
+        }
+
+        if (this.layoutPasses && symbolContext == SymbolContext.VALUE && !isLocalName) {
+            this.recordSymbolDefinition(symbolName, symbolType, value);
+        }
+
+        if (symbolContext == REGISTER_ALIAS || symbolContext == REGISTER_LIST_ALIAS) {
+            // The new alias may hide a symbol that a name was known to resolve to.
+            this.symbolResolutionCache.clearNonRegisterAliasNames();
+        }
     }
 
     <TValue> void defineSymbols(@Nonnull SymbolContext<TValue> symbolContext, @Nonnull SymbolType symbolType,
@@ -271,6 +577,57 @@ final class M68KAssemblyContext extends M68KBasicAssemblyContext implements Cons
         }
     }
 
+    /**
+     * Starts compiling the logical lines of a loop block (<code>DO</code>, <code>FOR</code>, <code>REPT</code> or
+     * <code>WHILE</code>), unless an enclosing loop block is already compiling them.
+     *
+     * @return the {@link BlockEvents} that discard the compiled lines when the block is exited, or <code>null</code> if an
+     *         enclosing loop block is already compiling the logical lines
+     */
+    @CheckForNull
+    BlockEvents enterLoopBlock() {
+        if (this.compiledLines != null) {
+            return null;
+        }
+
+        this.compiledLines = new MapMaker().weakKeys().makeMap();
+        return new BlockEvents() {
+            @Override
+            public void exitBlock() {
+                M68KAssemblyContext.this.compiledLines = null;
+            }
+        };
+    }
+
+    /**
+     * Evaluates an expression in the evaluation context of the current assembly step.
+     *
+     * @param expression
+     *            the expression to evaluate
+     * @return the value of the expression
+     */
+    @CheckForNull
+    Value evaluateExpression(@Nonnull Expression expression) {
+        if (this.profile != null) {
+            this.profile.recordExpressionEvaluation();
+        }
+
+        return expression.evaluate(this.getEvaluationContext());
+    }
+
+    /**
+     * Appends the data that was staged for the current instruction to the output.
+     *
+     * @throws IOException
+     *             an I/O exception occurred
+     */
+    void flushAssembledData() throws IOException {
+        if (this.stagedDataLength != 0) {
+            this.appendAssembledData(this.stagedData, 0, this.stagedDataLength);
+            this.stagedDataLength = 0;
+        }
+    }
+
     @Nonnull
     DcValueVisitor getDcValueVisitor(@Nonnull InstructionSize size) {
         switch (size) {
@@ -290,18 +647,40 @@ final class M68KAssemblyContext extends M68KBasicAssemblyContext implements Cons
         }
     }
 
-    void getEffectiveAddress(@Nonnull String operand, @Nonnull Set<AddressingMode> validAddressingModes,
-            @Nonnull InstructionSize size, @Nonnull EffectiveAddress ea) {
-        this.getEffectiveAddress(operand, validAddressingModes, size, 2, ea);
+    void getEffectiveAddress(int operandIndex, int validAddressingModes, @Nonnull InstructionSize size,
+            @Nonnull EffectiveAddress ea) {
+        this.getEffectiveAddress(operandIndex, validAddressingModes, size, 2, ea);
     }
 
-    void getEffectiveAddress(@Nonnull String operand, @Nonnull Set<AddressingMode> validAddressingModes,
-            @Nonnull InstructionSize size, int offsetToExtensionWords, @Nonnull EffectiveAddress ea) {
-        this.tokenizer.setCharSequence(operand);
+    void getEffectiveAddress(int operandIndex, int validAddressingModes, @Nonnull InstructionSize size,
+            int offsetToExtensionWords, @Nonnull EffectiveAddress ea) {
+        if (this.profile != null) {
+            this.profile.recordExpressionEvaluation();
+        }
+
+        final ParsedOperand parsedOperand = this.getParsedOperand(operandIndex);
+        if (parsedOperand.expression != null) {
+            EffectiveAddress.getEffectiveAddress(parsedOperand.expression, parsedOperand.immediateData, validAddressingModes,
+                    size, offsetToExtensionWords, this.getEvaluationContext(), this, this, ea);
+            return;
+        }
+
+        // The operand is more complex than a single expression (or it has errors): parse it again.
+        this.tokenizer.setCharSequence(this.readOperandText(operandIndex));
+        this.recordExpressionParse();
         EffectiveAddress.getEffectiveAddress(this.tokenizer, this.createSymbolLookup(), validAddressingModes, false, size,
                 offsetToExtensionWords, this.getEvaluationContext(), this, this, ea);
     }
 
+    /**
+     * Gets the number of bytes that were output on the current step, including the data that is still staged.
+     *
+     * @return the number of bytes
+     */
+    long getAssembledDataLength() {
+        return this.appendedDataLength + this.stagedDataLength;
+    }
+
     @Nonnull
     EvaluationContext getEvaluationContext() {
         if (this.evaluationContext == null) {
@@ -313,6 +692,10 @@ final class M68KAssemblyContext extends M68KBasicAssemblyContext implements Cons
 
     @Nonnull
     String getLabelText(int index) {
+        if (this.compiledLine != null) {
+            return this.compiledLine.labels[index];
+        }
+
         this.logicalLineReader.setRange(this.sourceLocation, this.logicalLine.getLabelBounds(index));
         return this.logicalLineReader.readToString();
     }
@@ -322,6 +705,27 @@ final class M68KAssemblyContext extends M68KBasicAssemblyContext implements Cons
         return this.getSymbolByContextAndName(MNEMONIC, name, Mnemonics.SYMBOL_RESOLUTION_FALLBACK);
     }
 
+    /**
+     * Gets the name of the mnemonic on the logical line of the current assembly step, without the leading <code>!</code> and
+     * without the attribute. {@link #setMnemonic()} must have been called first.
+     *
+     * @return the mnemonic name
+     */
+    @Nonnull
+    String getMnemonicName() {
+        if (this.mnemonic == null) {
+            final String mnemonicText = this.getMnemonicText();
+            int indexOfPeriod = mnemonicText.indexOf('.');
+            if (indexOfPeriod == -1) {
+                indexOfPeriod = mnemonicText.length();
+            }
+
+            this.mnemonic = mnemonicText.substring(this.builtInMnemonicForced ? 1 : 0, indexOfPeriod);
+        }
+
+        return this.mnemonic;
+    }
+
     @Nonnull
     String getMnemonicText() {
         final SubstringBounds mnemonicBounds = this.logicalLine.getMnemonicBounds();
@@ -336,6 +740,34 @@ final class M68KAssemblyContext extends M68KBasicAssemblyContext implements Cons
         return this.logicalLineReader.readToString();
     }
 
+    /**
+     * Gets the parsed form of an operand on the logical line of the current assembly step. The operand is only parsed the first
+     * time it is requested; on subsequent requests (e.g. in later passes), the cached result is returned.
+     *
+     * @param operandIndex
+     *            the index of the operand
+     * @return the parsed operand, or {@link ParsedOperand#UNCACHEABLE} if the operand is not a single expression or if parsing it
+     *         raised messages
+     */
+    @Nonnull
+    ParsedOperand getParsedOperand(int operandIndex) {
+        final SymbolLookupContext symbolLookupContext = this.builder.getAssembly().getCurrentSymbolLookupContext();
+        final ParsedOperand[] parsedOperands;
+        if (this.compiledLine != null) {
+            parsedOperands = this.compiledLine.parsedOperands;
+        } else {
+            parsedOperands = this.getParsedOperands();
+        }
+
+        ParsedOperand parsedOperand = parsedOperands[operandIndex];
+        if (parsedOperand == null || !parsedOperand.isValidIn(symbolLookupContext)) {
+            parsedOperand = this.parseOperand(operandIndex, symbolLookupContext);
+            parsedOperands[operandIndex] = parsedOperand;
+        }
+
+        return parsedOperand;
+    }
+
     @CheckForNull
     Object getParentBlock() {
         return this.blockStateMap.get(this.step.getLocation().getParent());
@@ -350,26 +782,16 @@ final class M68KAssemblyContext extends M68KBasicAssemblyContext implements Cons
 
     @Override
     GeneralPurposeRegister getRegisterAliasByName(String name) {
-        final Symbol symbol = this.builder.resolveSymbolReference(REGISTER_ALIAS_LOOKUP_CONTEXTS, name,
-                M68KArchitecture.isLocalName(name), null, null).getSymbol();
-
-        if (symbol != null && symbol.getValue() instanceof GeneralPurposeRegister) {
-            return (GeneralPurposeRegister) symbol.getValue();
-        }
-
-        return null;
+        final GeneralPurposeRegister register = this.resolveRegisterAlias(name);
+        this.instructionMemo.recordRegisterAliasRead(name, register);
+        return register;
     }
 
     @CheckForNull
     Symbol getRegisterAliasOrRegisterListAliasSymbolByName(@Nonnull String name) {
-        final Symbol symbol = this.builder.resolveSymbolReference(REGISTER_LIST_ALIAS_LOOKUP_CONTEXTS, name,
-                M68KArchitecture.isLocalName(name), null, null).getSymbol();
-
-        if (symbol != null && ((UserSymbol) symbol).getContext() != SymbolContext.VALUE) {
-            return symbol;
-        }
-
-        return null;
+        final Symbol symbol = this.resolveRegisterAliasOrRegisterListAlias(name);
+        this.instructionMemo.recordRegisterListAliasRead(name, symbol);
+        return symbol;
     }
 
     @Nonnull
@@ -452,6 +874,52 @@ final class M68KAssemblyContext extends M68KBasicAssemblyContext implements Cons
         this.logicalLineReader.setRange(this.sourceLocation, this.logicalLine.getOperandBounds(index));
     }
 
+    /**
+     * Reads the text of an operand on the logical line of the current assembly step without creating a {@link String}. The
+     * returned {@link CharSequence} is reused: its contents are only valid until the next call to this method.
+     *
+     * @param index
+     *            the index of the operand
+     * @return the text of the operand
+     * @see #getOperandText(int)
+     */
+    @Nonnull
+    CharSequence readOperandText(int index) {
+        this.prepareOperandReader(index);
+        return this.operandText.read(this.logicalLineReader);
+    }
+
+    void recordExpressionParse() {
+        if (this.profile != null) {
+            this.profile.recordExpressionParse();
+        }
+    }
+
+    /**
+     * Records that a symbol was read on the current pass, when the "layoutPasses" option is enabled. Only the value of the first
+     * read of each constant symbol is recorded.
+     *
+     * @param symbolLookupContext
+     *            the symbol lookup context in which the name was resolved
+     * @param name
+     *            the name of the symbol
+     * @param symbol
+     *            the symbol the name resolved to, or <code>null</code> if the symbol is undefined
+     */
+    void recordSymbolRead(@Nonnull SymbolLookupContext symbolLookupContext, @Nonnull String name, @CheckForNull Symbol symbol) {
+        if (symbol == null) {
+            HashSet<String> undefinedNames = this.undefinedNamesReadOnPass.get(symbolLookupContext);
+            if (undefinedNames == null) {
+                undefinedNames = new HashSet<>();
+                this.undefinedNamesReadOnPass.put(symbolLookupContext, undefinedNames);
+            }
+
+            undefinedNames.add(name);
+        } else if (symbol.getType() == SymbolType.CONSTANT && !this.constantsReadOnPass.containsKey(symbol)) {
+            this.constantsReadOnPass.put(symbol, symbol.getValue());
+        }
+    }
+
     boolean requireNumberOfOperands(int requiredNumberOfOperands) {
         if (this.numberOfOperands != requiredNumberOfOperands) {
             this.addWrongNumberOfOperandsErrorMessage();
@@ -460,17 +928,39 @@ final class M68KAssemblyContext extends M68KBasicAssemblyContext implements Cons
         return this.numberOfOperands >= requiredNumberOfOperands;
     }
 
+    /**
+     * Reads the mnemonic on the logical line of the current assembly step. The built-in mnemonic and the attribute are identified
+     * directly from the source text; the mnemonic name is only read to a string if {@link #getMnemonicName()} is called.
+     * <p>
+     * In the body of a loop block, the logical line is compiled the first time it is assembled: the mnemonic, the attribute and
+     * the labels are read only once, and the next iterations take them from the compiled line.
+     */
     void setMnemonic() {
-        final String mnemonic = this.getMnemonicText();
+        if (this.compiledLines == null) {
+            this.readMnemonic();
+            return;
+        }
 
-        final int indexOfPeriod = mnemonic.indexOf('.');
-        if (indexOfPeriod == -1) {
-            this.mnemonic = mnemonic;
-            this.attribute = null;
+        CompiledLine compiledLine = this.compiledLines.get(this.logicalLine);
+        if (compiledLine == null) {
+            this.readMnemonic();
+
+            final String[] labels = new String[this.numberOfLabels];
+            for (int i = 0; i < labels.length; i++) {
+                labels[i] = this.getLabelText(i);
+            }
+
+            compiledLine = new CompiledLine(this.builtInMnemonicForced, this.builtInMnemonicSymbol, this.attribute,
+                    this.getMnemonicName(), labels, this.getParsedOperands());
+            this.compiledLines.put(this.logicalLine, compiledLine);
         } else {
-            this.mnemonic = mnemonic.substring(0, indexOfPeriod);
-            this.attribute = mnemonic.substring(indexOfPeriod + 1);
+            this.mnemonic = compiledLine.mnemonicName;
+            this.builtInMnemonicForced = compiledLine.builtInMnemonicForced;
+            this.builtInMnemonicSymbol = compiledLine.builtInMnemonicSymbol;
+            this.attribute = compiledLine.attribute;
         }
+
+        this.compiledLine = compiledLine;
     }
 
     void sizeNotAllowed() {
@@ -485,6 +975,13 @@ final class M68KAssemblyContext extends M68KBasicAssemblyContext implements Cons
         }
     }
 
+    // Appends data to the assembly's output.
+    private void appendAssembledData(@Nonnull byte[] data, int start, int length) throws IOException {
+        this.appendedDataLength += length;
+        this.instructionMemo.recordData(data, start, length);
+        this.builder.appendAssembledData(data, start, length);
+    }
+
     /**
      * Defines a label on the logical line of the current assembly step with the current program counter as its value.
      *
@@ -496,6 +993,18 @@ final class M68KAssemblyContext extends M68KBasicAssemblyContext implements Cons
         this.defineSymbol(SymbolContext.VALUE, label, SymbolType.CONSTANT, new UnsignedIntValue(this.programCounter));
     }
 
+    // Gets the parsed operands of the logical line of the current assembly step from the cache, adding an entry if necessary.
+    @Nonnull
+    private ParsedOperand[] getParsedOperands() {
+        ParsedOperand[] parsedOperands = this.parsedOperands.get(this.logicalLine);
+        if (parsedOperands == null) {
+            parsedOperands = new ParsedOperand[this.numberOfOperands];
+            this.parsedOperands.put(this.logicalLine, parsedOperands);
+        }
+
+        return parsedOperands;
+    }
+
     @CheckForNull
     private <TValue> Symbol getSymbolByContextAndName(@Nonnull SymbolContext<TValue> context, @Nonnull String name,
             @Nonnull SymbolResolutionFallback symbolResolutionFallback) {
@@ -505,6 +1014,11 @@ final class M68KAssemblyContext extends M68KBasicAssemblyContext implements Cons
 
     private void initialize(@Nonnull AssemblyStep step) {
         this.step = step;
+
+        // Discard any data left over from a step that threw an exception before its data was flushed.
+        this.stagedDataLength = 0;
+        this.appendedDataLength = 0;
+
         this.programCounter = step.getProgramCounter();
         this.sourceLocation = step.getLocation().getSourceLocation();
         this.instructionSet = ((M68KArchitecture) this.sourceLocation.getArchitecture()).getInstructionSet();
@@ -521,10 +1035,179 @@ final class M68KAssemblyContext extends M68KBasicAssemblyContext implements Cons
         }
 
         this.mnemonic = null;
+        this.builtInMnemonicForced = false;
+        this.builtInMnemonicSymbol = null;
         this.attribute = null;
+        this.compiledLine = null;
 
         // Set the evaluation context to null. It will be created on demand in getEvaluationContext().
         this.evaluationContext = null;
     }
 
+    @Nonnull
+    private ParsedOperand parseOperand(int operandIndex, @Nonnull SymbolLookupContext symbolLookupContext) {
+        final Tokenizer tokenizer = this.tokenizer;
+        tokenizer.setCharSequence(this.readOperandText(operandIndex));
+        this.recordExpressionParse();
+
+        final boolean immediateData = tokenizer.getTokenType() == TokenType.IMMEDIATE;
+        if (immediateData) {
+            tokenizer.advance();
+        }
+
+        // Messages raised while parsing are not forwarded to the assembly. If there are any, the operand is not cached, and the
+        // caller will parse it again, this time with messages forwarded to the assembly.
+        this.parseRaisedMessages = false;
+        try {
+            final Expression expression = ExpressionParser.parse(tokenizer,
+                    this.symbolResolutionCache.getSymbolLookup(this, symbolLookupContext), this.parseMessageDetector);
+            if (expression != null && tokenizer.getTokenType() == TokenType.END && !this.parseRaisedMessages) {
+                // Parsed operands are reused on every pass: fold their constant subexpressions once.
+                return new ParsedOperand(this.constantFolder.fold(expression), immediateData, symbolLookupContext);
+            }
+        } catch (InvalidTokenException e) {
+        }
+
+        return ParsedOperand.UNCACHEABLE;
+    }
+
+    private void readMnemonic() {
+        final LogicalLineReader reader = this.logicalLineReader;
+        final SubstringBounds mnemonicBounds = this.logicalLine.getMnemonicBounds();
+        assert mnemonicBounds != null;
+        reader.setRange(this.sourceLocation, mnemonicBounds);
+
+        // If the mnemonic starts with !, macros must be ignored.
+        this.builtInMnemonicForced = !reader.atEnd() && reader.getCurrentCodePoint() == '!';
+        if (this.builtInMnemonicForced) {
+            reader.advance();
+        }
+
+        this.mnemonic = null;
+        this.builtInMnemonicSymbol = Mnemonics.MAP.get(reader);
+
+        if (reader.atEnd()) {
+            this.attribute = null;
+        } else {
+            // Skip the period.
+            reader.advance();
+            this.attribute = readAttribute(reader);
+        }
+    }
+
+    /**
+     * Records the start of a new pass in the profile. A new pass starts when the first step of the assembly is assembled again.
+     */
+    private void recordPass() {
+        final AssemblyProfile profile = this.profile;
+        assert profile != null;
+
+        final AssemblyStepLocation stepLocation = this.step.getLocation();
+        if (this.firstStepLocation == null) {
+            this.firstStepLocation = stepLocation;
+            profile.recordPass();
+        } else if (stepLocation.equals(this.firstStepLocation)) {
+            profile.recordPass();
+        }
+    }
+
+    /**
+     * Compares the value of a constant symbol that is defined with the value that was read earlier on the current pass. If they
+     * differ, or if the symbol's name was undefined when it was read from the same symbol lookup context, the assembler will
+     * perform another pass. A symbol that may resolve differently on the next pass is not considered, so that instructions are
+     * only laid out when another pass is certain.
+     */
+    private void recordSymbolDefinition(@Nonnull String name, @Nonnull SymbolType symbolType, @CheckForNull Object value) {
+        // Variables may legitimately change within a pass.
+        if (symbolType != SymbolType.CONSTANT || this.anotherPassRequired) {
+            return;
+        }
+
+        final HashSet<String> undefinedNames = this.undefinedNamesReadOnPass.get(this.builder.getAssembly()
+                .getCurrentSymbolLookupContext());
+        if (undefinedNames != null && undefinedNames.contains(name)) {
+            this.anotherPassRequired = true;
+            return;
+        }
+
+        if (this.constantsReadOnPass.isEmpty()) {
+            return;
+        }
+
+        // Get the symbol that was just defined, to find out whether it was read with a different value.
+        final Symbol symbol = this.builder.resolveSymbolReference(SymbolContext.VALUE, name, false, null, null).getSymbol();
+        if (symbol != null && this.constantsReadOnPass.containsKey(symbol)
+                && !Objects.equals(this.constantsReadOnPass.get(symbol), value)) {
+            this.anotherPassRequired = true;
+        }
+    }
+
+    /**
+     * Reserves space for a number of bytes in the staging buffer, flushing the buffer first if it doesn't have enough room.
+     *
+     * @param length
+     *            the number of bytes to reserve; must not exceed {@link #STAGED_DATA_CAPACITY}
+     * @return the offset of the reserved space in {@link #stagedData}
+     * @throws IOException
+     *             an I/O exception occurred
+     */
+    private int reserveStagedData(int length) throws IOException {
+        if (this.stagedDataLength + length > STAGED_DATA_CAPACITY) {
+            this.flushAssembledData();
+        }
+
+        final int offset = this.stagedDataLength;
+        this.stagedDataLength = offset + length;
+        return offset;
+    }
+
+    @CheckForNull
+    private GeneralPurposeRegister resolveRegisterAlias(@Nonnull String name) {
+        // Local names depend on the current local scope, so they are not cached.
+        final boolean isLocalName = M68KArchitecture.isLocalName(name);
+        final SymbolLookupContext symbolLookupContext = this.builder.getAssembly().getCurrentSymbolLookupContext();
+        if (!isLocalName && this.symbolResolutionCache.isNonRegisterAliasName(symbolLookupContext, name)) {
+            return null;
+        }
+
+        final Symbol symbol = this.builder.resolveSymbolReference(REGISTER_ALIAS_LOOKUP_CONTEXTS, name, isLocalName, null, null)
+                .getSymbol();
+
+        if (symbol != null) {
+            if (symbol.getValue() instanceof GeneralPurposeRegister) {
+                return (GeneralPurposeRegister) symbol.getValue();
+            }
+
+            if (!isLocalName) {
+                this.symbolResolutionCache.addNonRegisterAliasName(symbolLookupContext, name);
+            }
+        }
+
+        return null;
+    }
+
+    @CheckForNull
+    private Symbol resolveRegisterAliasOrRegisterListAlias(@Nonnull String name) {
+        final boolean isLocalName = M68KArchitecture.isLocalName(name);
+        final SymbolLookupContext symbolLookupContext = this.builder.getAssembly().getCurrentSymbolLookupContext();
+        if (!isLocalName && this.symbolResolutionCache.isNonRegisterListAliasName(symbolLookupContext, name)) {
+            return null;
+        }
+
+        final Symbol symbol = this.builder.resolveSymbolReference(REGISTER_LIST_ALIAS_LOOKUP_CONTEXTS, name, isLocalName, null,
+                null).getSymbol();
+
+        if (symbol != null) {
+            if (((UserSymbol) symbol).getContext() != SymbolContext.VALUE) {
+                return symbol;
+            }
+
+            if (!isLocalName) {
+                this.symbolResolutionCache.addNonRegisterListAliasName(symbolLookupContext, name);
+            }
+        }
+
+        return null;
+    }
+
 }
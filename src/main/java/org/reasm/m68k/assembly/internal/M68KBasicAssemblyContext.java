@@ -16,6 +16,12 @@ abstract class M68KBasicAssemblyContext {
     InstructionSet instructionSet;
     Charset encoding;
 
+    // Reused by the effective addresses of the assembly, so that encoding them doesn't allocate.
+    @Nonnull
+    final EffectiveAddress.IntegerValueVisitor eaIntegerValueVisitor = new EffectiveAddress.IntegerValueVisitor(this);
+    @Nonnull
+    final EffectiveAddress.ExpressionStack eaExpressionStack = new EffectiveAddress.ExpressionStack();
+
     @CheckForNull
     abstract GeneralPurposeRegister getRegisterAliasByName(@Nonnull String identifier);
 
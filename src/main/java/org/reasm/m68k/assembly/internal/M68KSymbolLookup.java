@@ -56,8 +56,24 @@ final class M68KSymbolLookup implements SymbolLookup {
 
     @Override
     public final Symbol getSymbol(String name) {
-        return this.context.builder.resolveSymbolReference(SymbolContext.VALUE, name, M68KArchitecture.isLocalName(name),
-                this.symbolLookupContext, this.context).getSymbol();
+        final boolean isLocalName = M68KArchitecture.isLocalName(name);
+        final SymbolResolutionCache symbolResolutionCache = this.context.symbolResolutionCache;
+        Symbol symbol = isLocalName ? null : symbolResolutionCache.getSymbol(this.symbolLookupContext, name);
+        if (symbol == null) {
+            symbol = this.context.builder.resolveSymbolReference(SymbolContext.VALUE, name, isLocalName, this.symbolLookupContext,
+                    this.context).getSymbol();
+            if (symbol != null && !isLocalName) {
+                symbolResolutionCache.addSymbol(this.symbolLookupContext, name, symbol);
+            }
+        }
+
+        if (this.context.layoutPasses && !isLocalName) {
+            this.context.recordSymbolRead(this.symbolLookupContext, name, symbol);
+        }
+
+        this.context.instructionMemo.recordSymbolRead(this, name, symbol);
+
+        return symbol;
     }
 
     @Override
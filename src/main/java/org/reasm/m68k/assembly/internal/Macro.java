@@ -1,6 +1,10 @@
 package org.reasm.m68k.assembly.internal;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 import javax.annotation.CheckForNull;
 import javax.annotation.Nonnegative;
@@ -8,21 +12,26 @@ import javax.annotation.Nonnull;
 import javax.annotation.concurrent.Immutable;
 import javax.annotation.meta.When;
 
+import org.reasm.AssemblyMessage;
 import org.reasm.commons.source.Syntax;
 import org.reasm.m68k.messages.MultipleOperandPacksInMacroDefinitionErrorMessage;
 import org.reasm.m68k.source.M68KParser;
 import org.reasm.source.MacroInstantiation;
 import org.reasm.source.SourceLocation;
+import org.reasm.source.SourceNode;
 
 import ca.fragag.text.DocumentReader;
 import ca.fragag.text.RangedCharSequenceReader;
 
 /**
  * A user-defined macro.
+ * <p>
+ * This class is not thread-safe: the cache of the macro's instantiations is reordered even when an instantiation is only looked up.
+ * A macro must therefore only be used by one assembly at a time; macros are shared between assemblies only through an
+ * {@link org.reasm.m68k.IncrementalAssemblyCache}, whose assemblies must not run concurrently.
  *
  * @author Francis Gagné
  */
-@Immutable
 class Macro extends Mnemonic {
 
     @Immutable
@@ -32,8 +41,9 @@ class Macro extends Mnemonic {
         @Nonnull
         private static final ArrayList<OperandFromEndSubstitutionSource> CACHE = new ArrayList<>();
 
+        // Synchronized because separate assemblies may define macros concurrently.
         @Nonnull
-        static OperandFromEndSubstitutionSource get(int operandIndex) {
+        static synchronized OperandFromEndSubstitutionSource get(int operandIndex) {
             int cacheIndex = ~operandIndex;
             if (cacheIndex >= MAX_CACHE_SIZE) {
                 return new OperandFromEndSubstitutionSource(operandIndex);
@@ -74,8 +84,9 @@ class Macro extends Mnemonic {
         @Nonnull
         private static final ArrayList<OperandSubstitutionSource> CACHE = new ArrayList<>();
 
+        // Synchronized because separate assemblies may define macros concurrently.
         @Nonnull
-        static OperandSubstitutionSource get(int operandIndex) {
+        static synchronized OperandSubstitutionSource get(int operandIndex) {
             if (operandIndex >= MAX_CACHE_SIZE) {
                 return new OperandSubstitutionSource(operandIndex);
             }
@@ -198,6 +209,58 @@ class Macro extends Mnemonic {
 
     }
 
+    /**
+     * The maximum number of instantiations that are remembered by each macro.
+     */
+    private static final int MAX_CACHED_INSTANTIATIONS = 64;
+
+    /**
+     * Creates a new macro, or reuses a macro that was defined by a previous assembly of the same program if the macro's body and
+     * operands have not changed since.
+     *
+     * @param context
+     *            the assembly context
+     * @param operands
+     *            the names of the macro's operands
+     * @param body
+     *            the location of the macro's body
+     * @return the macro
+     */
+    @Nonnull
+    static Macro define(@Nonnull M68KAssemblyContext context, @Nonnull String[] operands, @Nonnull SourceLocation body) {
+        final Map<SourceNode, Macro> reusableMacros = context.reusableMacros;
+        if (reusableMacros == null) {
+            final Macro macro = new Macro(operands, body);
+            macro.raiseDefinitionMessages(context);
+            return macro;
+        }
+
+        final SourceNode bodyNode = body.getSourceNode();
+        final Macro previousMacro = reusableMacros.get(bodyNode);
+        final Macro macro;
+        if (previousMacro != null && Arrays.equals(previousMacro.operands, operands)) {
+            if (previousMacro.body.equals(body)) {
+                // The source file that contains the macro has not changed: reuse the macro along with its instantiations.
+                previousMacro.raiseDefinitionMessages(context);
+                return previousMacro;
+            }
+
+            if (previousMacro.body.getTextPosition() == body.getTextPosition()) {
+                // The macro's body is at the same position in an edited version of the source file: reuse the substitutions,
+                // which depend only on the body's text and position.
+                macro = new Macro(previousMacro, body);
+            } else {
+                macro = new Macro(operands, body);
+            }
+        } else {
+            macro = new Macro(operands, body);
+        }
+
+        reusableMacros.put(bodyNode, macro);
+        macro.raiseDefinitionMessages(context);
+        return macro;
+    }
+
     private static void addPositionalSubstitution(@Nonnull ArrayList<Substitution> substitutions, int startPosition,
             int endPosition, int i) {
         final SubstitutionSource source;
@@ -234,14 +297,14 @@ class Macro extends Mnemonic {
         }
     }
 
-    private static int findPackOperand(@Nonnull M68KAssemblyContext context, @Nonnull String[] operands) {
+    private static int findPackOperand(@Nonnull String[] operands, @Nonnull ArrayList<AssemblyMessage> definitionMessages) {
         int result = -1;
         for (int i = 0; i < operands.length; i++) {
             if (operands[i].equals("...")) {
                 if (result == -1) {
                     result = i;
                 } else {
-                    context.addMessage(new MultipleOperandPacksInMacroDefinitionErrorMessage());
+                    definitionMessages.add(new MultipleOperandPacksInMacroDefinitionErrorMessage());
                     break;
                 }
             }
@@ -250,6 +313,27 @@ class Macro extends Mnemonic {
         return result;
     }
 
+    @Nonnull
+    private static String[] getTextBetweenSubstitutions(@Nonnull ArrayList<Substitution> substitutions,
+            @Nonnull SourceLocation body) {
+        final int numberOfSubstitutions = substitutions.size();
+        if (numberOfSubstitutions < 2) {
+            return new String[0];
+        }
+
+        final RangedCharSequenceReader reader = new RangedCharSequenceReader(new DocumentReader(body.getFile().getText()),
+                body.getTextPosition(), body.getTextPosition() + body.getSourceNode().getLength());
+        final String[] result = new String[numberOfSubstitutions - 1];
+        for (int i = 0; i < result.length; i++) {
+            final Substitution substitution = substitutions.get(i);
+            final int startPosition = substitution.offset + substitution.length;
+            reader.setCurrentPosition(startPosition);
+            result[i] = reader.readSubstring(substitutions.get(i + 1).offset - startPosition);
+        }
+
+        return result;
+    }
+
     @Nonnull
     private static ArrayList<Substitution> identifySubstitutions(@Nonnull String[] operands, int packOperandIndex,
             @Nonnull SourceLocation body) {
@@ -423,28 +507,66 @@ class Macro extends Mnemonic {
     final int numberOfNamedOperands;
     final int packOperandIndex;
     @Nonnull
+    private final String[] operands;
+    @Nonnull
     private final SourceLocation body;
     @Nonnull
     private final ArrayList<Substitution> substitutions;
     @Nonnull
+    private final String[] textBetweenSubstitutions;
     private final boolean hasLabelSubstitutions;
+    private final boolean hasCounterSubstitutions;
+    // The messages that are raised when the macro is defined. They are raised again when the macro is reused.
+    @Nonnull
+    private final AssemblyMessage[] definitionMessages;
+    // Instantiations of this macro, by the text of the attribute, the label and the operands on the macro invocation.
+    // Instantiations of macros that use the macro counter are not cached, because the counter is different on every invocation.
+    @Nonnull
+    private final Map<List<String>, MacroInstantiation> instantiations = new LinkedHashMap<List<String>, MacroInstantiation>(16,
+            0.75f, true) {
+        private static final long serialVersionUID = 1L;
 
-    Macro(@Nonnull M68KAssemblyContext context, @Nonnull String[] operands, @Nonnull SourceLocation body) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<List<String>, MacroInstantiation> eldest) {
+            return this.size() > MAX_CACHED_INSTANTIATIONS;
+        }
+    };
+
+    Macro(@Nonnull String[] operands, @Nonnull SourceLocation body) {
+        final ArrayList<AssemblyMessage> definitionMessages = new ArrayList<>();
         this.numberOfNamedOperands = operands.length;
-        this.packOperandIndex = findPackOperand(context, operands);
+        this.packOperandIndex = findPackOperand(operands, definitionMessages);
+        this.operands = operands;
 
         this.body = body;
         this.substitutions = identifySubstitutions(operands, this.packOperandIndex, body);
+        this.textBetweenSubstitutions = getTextBetweenSubstitutions(this.substitutions, body);
         boolean hasLabelSubstitutions = false;
+        boolean hasCounterSubstitutions = false;
 
         for (Substitution substitution : this.substitutions) {
             if (substitution.source == SubstitutionSource.LABEL) {
                 hasLabelSubstitutions = true;
-                break;
+            } else if (substitution.source == SubstitutionSource.COUNTER) {
+                hasCounterSubstitutions = true;
             }
         }
 
         this.hasLabelSubstitutions = hasLabelSubstitutions;
+        this.hasCounterSubstitutions = hasCounterSubstitutions;
+        this.definitionMessages = definitionMessages.toArray(new AssemblyMessage[definitionMessages.size()]);
+    }
+
+    private Macro(@Nonnull Macro previousMacro, @Nonnull SourceLocation body) {
+        this.numberOfNamedOperands = previousMacro.numberOfNamedOperands;
+        this.packOperandIndex = previousMacro.packOperandIndex;
+        this.operands = previousMacro.operands;
+        this.body = body;
+        this.substitutions = previousMacro.substitutions;
+        this.textBetweenSubstitutions = previousMacro.textBetweenSubstitutions;
+        this.hasLabelSubstitutions = previousMacro.hasLabelSubstitutions;
+        this.hasCounterSubstitutions = previousMacro.hasCounterSubstitutions;
+        this.definitionMessages = previousMacro.definitionMessages;
     }
 
     @Override
@@ -462,17 +584,64 @@ class Macro extends Mnemonic {
         }
     }
 
+    @Nonnull
+    private List<String> getInstantiationKey(@Nonnull M68KAssemblyContext context) {
+        final String[] key = new String[context.numberOfOperands + 2];
+        key[0] = context.attribute;
+        if (this.hasLabelSubstitutions && context.numberOfLabels > 0) {
+            key[1] = context.getLabelText(context.numberOfLabels - 1);
+        }
+
+        for (int i = 0; i < context.numberOfOperands; i++) {
+            key[i + 2] = context.getOperandText(i);
+        }
+
+        return Arrays.asList(key);
+    }
+
+    private void raiseDefinitionMessages(@Nonnull M68KAssemblyContext context) {
+        for (AssemblyMessage message : this.definitionMessages) {
+            context.addMessage(message);
+        }
+    }
+
     @Nonnull
     private final MacroInstantiation substituteMacroOperands(@Nonnull M68KAssemblyContext context) {
-        MacroInstantiation result = new MacroInstantiation(this.body);
-        int correction = 0;
+        final int macroCounter = context.builder.incrementMacroCounter();
 
-        int macroCounter = context.builder.incrementMacroCounter();
+        final int numberOfSubstitutions = this.substitutions.size();
+        if (numberOfSubstitutions == 0) {
+            return new MacroInstantiation(this.body);
+        }
 
-        for (Substitution substitution : this.substitutions) {
-            final String substitutedText = substitution.source.substitute(context, macroCounter, this);
-            result = result.replaceText(substitution.offset + correction, substitution.length, substitutedText);
-            correction += substitutedText.length() - substitution.length;
+        // If the macro has already been invoked with the same attribute, label and operands, reuse the instantiation.
+        List<String> key = null;
+        if (!this.hasCounterSubstitutions) {
+            key = this.getInstantiationKey(context);
+            final MacroInstantiation instantiation = this.instantiations.get(key);
+            if (instantiation != null) {
+                return instantiation;
+            }
+        }
+
+        // Build the text from the first substitution to the end of the last substitution in a single buffer, then replace that
+        // range of the macro body in a single operation.
+        final StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < numberOfSubstitutions; i++) {
+            if (i > 0) {
+                sb.append(this.textBetweenSubstitutions[i - 1]);
+            }
+
+            sb.append(this.substitutions.get(i).source.substitute(context, macroCounter, this));
+        }
+
+        final Substitution firstSubstitution = this.substitutions.get(0);
+        final Substitution lastSubstitution = this.substitutions.get(numberOfSubstitutions - 1);
+        final MacroInstantiation result = new MacroInstantiation(this.body).replaceText(firstSubstitution.offset,
+                lastSubstitution.offset + lastSubstitution.length - firstSubstitution.offset, sb.toString());
+
+        if (key != null) {
+            this.instantiations.put(key, result);
         }
 
         return result;
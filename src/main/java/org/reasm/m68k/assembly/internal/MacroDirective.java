@@ -57,10 +57,19 @@ class MacroDirective extends Mnemonic {
         final AssemblyStepLocation stepLocation = context.step.getLocation();
         Macro macro = context.macrosByDefinitionLocation.get(stepLocation);
         if (macro == null) {
-            macro = new Macro(context, operands, macroBody);
+            macro = Macro.define(context, operands, macroBody);
             context.macrosByDefinitionLocation.put(stepLocation, macro);
         }
 
+        // If the macro has the name of a built-in mnemonic, built-in mnemonics must now be looked up by name, so that the macro
+        // takes precedence over the built-in mnemonic.
+        for (int i = 0; i < context.numberOfLabels; i++) {
+            if (Mnemonics.MAP.get(context.getLabelText(i)) != null) {
+                context.builtInMnemonicsShadowed = true;
+                break;
+            }
+        }
+
         context.defineSymbols(M68KAssemblyContext.MNEMONIC, SymbolType.VARIABLE, macro);
     }
 
@@ -1,9 +1,6 @@
 package org.reasm.m68k.assembly.internal;
 
 import java.io.IOException;
-import java.util.Collections;
-import java.util.EnumSet;
-import java.util.Set;
 
 import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
@@ -80,9 +77,6 @@ abstract class Mnemonic {
 
     }
 
-    @Nonnull
-    private static final GeneralPurposeRegister[] GENERAL_PURPOSE_REGISTERS = GeneralPurposeRegister.values();
-
     static void checkInstructionSet(@Nonnull InstructionSetCheck instructionSetCheck, @Nonnull M68KAssemblyContext context) {
         if (!instructionSetCheck.isSupported(context.instructionSet)) {
             context.addMessage(new NotSupportedOnArchitectureErrorMessage());
@@ -108,7 +102,7 @@ abstract class Mnemonic {
     static Value evaluateExpressionOperand(@Nonnull M68KAssemblyContext context, int operandIndex) {
         final Expression expression = parseExpressionOperand(context, operandIndex);
         if (expression != null) {
-            return expression.evaluate(context.getEvaluationContext());
+            return context.evaluateExpression(expression);
         }
 
         return null;
@@ -131,10 +125,17 @@ abstract class Mnemonic {
 
     @CheckForNull
     static Expression parseExpressionOperand(@Nonnull M68KAssemblyContext context, int operandIndex) {
-        final String operandText = context.getOperandText(operandIndex);
+        // Try to reuse the expression that was parsed on a previous pass.
+        final ParsedOperand parsedOperand = context.getParsedOperand(operandIndex);
+        if (parsedOperand.expression != null && !parsedOperand.immediateData) {
+            return parsedOperand.expression;
+        }
+
+        final CharSequence operandText = context.readOperandText(operandIndex);
         final Tokenizer tokenizer = context.tokenizer;
 
         tokenizer.setCharSequence(operandText);
+        context.recordExpressionParse();
         try {
             final Expression expression = ExpressionParser.parse(tokenizer, context.createSymbolLookup(), context);
             if (expression != null && tokenizer.getTokenType() == TokenType.END) {
@@ -143,15 +144,20 @@ abstract class Mnemonic {
         } catch (InvalidTokenException e) {
         }
 
-        context.addMessage(new InvalidExpressionErrorMessage(operandText));
+        context.addMessage(new InvalidExpressionErrorMessage(operandText.toString()));
         return null;
     }
 
     @CheckForNull
     static GeneralPurposeRegister parseRegister(@Nonnull M68KAssemblyContext context, @Nonnull LogicalLineReader operandReader) {
+        final GeneralPurposeRegister register = GeneralPurposeRegister.identify(operandReader);
+        if (register != null) {
+            return register;
+        }
+
         final String registerIdentifier = parseRegisterIdentifier(operandReader);
         if (registerIdentifier != null) {
-            return identifyRegister(context, registerIdentifier);
+            return context.getRegisterAliasByName(registerIdentifier);
         }
 
         return null;
@@ -176,36 +182,37 @@ abstract class Mnemonic {
         return null;
     }
 
-    @CheckForNull
-    static Set<GeneralPurposeRegister> parseRegisterList(@Nonnull M68KAssemblyContext context, int operandIndex) {
+    // Returns the register list as a mask in which the bit at a register's ordinal is set if the register is in the list, or -1
+    // if the operand is not a register list.
+    static int parseRegisterList(@Nonnull M68KAssemblyContext context, int operandIndex) {
         context.prepareOperandReader(operandIndex);
         return parseRegisterList(context, context.logicalLineReader);
     }
 
-    @CheckForNull
-    static Set<GeneralPurposeRegister> parseRegisterList(M68KAssemblyContext context, LogicalLineReader operandReader) {
+    static int parseRegisterList(M68KAssemblyContext context, LogicalLineReader operandReader) {
         final int initialPosition = operandReader.backupPosition();
 
         try {
             boolean firstIteration = true;
-            final EnumSet<GeneralPurposeRegister> registers = EnumSet.noneOf(GeneralPurposeRegister.class);
-            final EnumSet<GeneralPurposeRegister> duplicateRegisters = EnumSet.noneOf(GeneralPurposeRegister.class);
+            int registers = 0;
+            boolean hasDuplicateRegisters = false;
             for (;;) {
-                // Parse a single register (Rx) or a register range (Rx-Ry).
-                final String registerIdentifier = parseRegisterIdentifier(operandReader);
-                if (registerIdentifier == null) {
-                    return null;
-                }
-
-                GeneralPurposeRegister firstRegisterOfRange = GeneralPurposeRegister.identify(registerIdentifier);
+                // Parse a single register (Rx) or a register range (Rx-Ry). Register names are identified directly from the
+                // reader; only aliases need the identifier as a String.
+                GeneralPurposeRegister firstRegisterOfRange = GeneralPurposeRegister.identify(operandReader);
                 if (firstRegisterOfRange == null) {
+                    final String registerIdentifier = parseRegisterIdentifier(operandReader);
+                    if (registerIdentifier == null) {
+                        return -1;
+                    }
+
                     if (firstIteration && operandReader.atEnd()) {
                         // Check if the identifier is a register list alias.
                         final Symbol symbol = context.getRegisterAliasOrRegisterListAliasSymbolByName(registerIdentifier);
                         if (symbol != null) {
                             final Object value = symbol.getValue();
                             if (value instanceof RegisterList) {
-                                return ((RegisterList) value).getRegisters();
+                                return ((RegisterList) value).getMask();
                             }
 
                             if (value instanceof GeneralPurposeRegister) {
@@ -218,32 +225,31 @@ abstract class Mnemonic {
                 }
 
                 if (firstRegisterOfRange == null) {
-                    return null;
+                    return -1;
                 }
 
+                final int rangeMask;
                 operandReader.skipWhitespace();
                 if (!operandReader.atEnd() && operandReader.getCurrentCodePoint() == '-') {
                     operandReader.advance();
                     operandReader.skipWhitespace();
-                    GeneralPurposeRegister secondRegisterOfRange = parseRegister(context, operandReader);
+                    final GeneralPurposeRegister secondRegisterOfRange = parseRegister(context, operandReader);
                     if (secondRegisterOfRange == null) {
-                        return null;
+                        return -1;
                     }
 
-                    if (secondRegisterOfRange.compareTo(firstRegisterOfRange) < 0) {
-                        // Swap the registers.
-                        GeneralPurposeRegister temp = secondRegisterOfRange;
-                        secondRegisterOfRange = firstRegisterOfRange;
-                        firstRegisterOfRange = temp;
-                    }
-
-                    for (int i = firstRegisterOfRange.ordinal(); i <= secondRegisterOfRange.ordinal(); i++) {
-                        addRegister(GENERAL_PURPOSE_REGISTERS[i], registers, duplicateRegisters);
-                    }
+                    final int first = Math.min(firstRegisterOfRange.ordinal(), secondRegisterOfRange.ordinal());
+                    final int last = Math.max(firstRegisterOfRange.ordinal(), secondRegisterOfRange.ordinal());
+                    rangeMask = (2 << last) - (1 << first);
                 } else {
-                    addRegister(firstRegisterOfRange, registers, duplicateRegisters);
+                    rangeMask = 1 << firstRegisterOfRange.ordinal();
+                }
+
+                if ((registers & rangeMask) != 0) {
+                    hasDuplicateRegisters = true;
                 }
 
+                registers |= rangeMask;
                 operandReader.skipWhitespace();
 
                 // If the operand ends here, we have successfully parsed a register list.
@@ -253,7 +259,7 @@ abstract class Mnemonic {
 
                 // A slash separates register ranges.
                 if (operandReader.getCurrentCodePoint() != '/') {
-                    return null;
+                    return -1;
                 }
 
                 firstIteration = false;
@@ -261,11 +267,11 @@ abstract class Mnemonic {
                 operandReader.skipWhitespace();
             }
 
-            if (!duplicateRegisters.isEmpty()) {
+            if (hasDuplicateRegisters) {
                 context.addTentativeMessage(new DuplicateRegistersInRegisterListWarningMessage());
             }
 
-            return Collections.unmodifiableSet(registers);
+            return registers;
         } finally {
             operandReader.restorePosition(initialPosition);
         }
@@ -309,23 +315,6 @@ abstract class Mnemonic {
         return null;
     }
 
-    private static void addRegister(@Nonnull GeneralPurposeRegister register, @Nonnull EnumSet<GeneralPurposeRegister> registers,
-            @Nonnull EnumSet<GeneralPurposeRegister> duplicateRegisters) {
-        if (!registers.add(register)) {
-            duplicateRegisters.add(register);
-        }
-    }
-
-    @CheckForNull
-    private static GeneralPurposeRegister identifyRegister(@Nonnull M68KAssemblyContext context, @Nonnull String registerIdentifier) {
-        final GeneralPurposeRegister reg = GeneralPurposeRegister.identify(registerIdentifier);
-        if (reg != null) {
-            return reg;
-        }
-
-        return context.getRegisterAliasByName(registerIdentifier);
-    }
-
     /**
      * Assembles the directive or instruction on the logical line of the context's current assembly step.
      *
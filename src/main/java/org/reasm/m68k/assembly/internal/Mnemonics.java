@@ -9,6 +9,7 @@ import javax.annotation.Nonnull;
 import org.reasm.Symbol;
 import org.reasm.SymbolReference;
 import org.reasm.SymbolResolutionFallback;
+import org.reasm.commons.source.LogicalLineReader;
 
 /**
  * Exposes constants for the instructions and directives supported by the M68000 Family assembler.
@@ -20,7 +21,124 @@ public final class Mnemonics {
 
     static final class MnemonicMap {
 
+        /**
+         * A node in the trie of built-in mnemonics. Only the mnemonics that contain nothing but letters are in the trie, so each
+         * node has at most 26 children. The other mnemonics (e.g. <code>=</code>) are looked up by name from the node that
+         * matches the letters that precede their first other character.
+         *
+         * @author Francis Gagné
+         */
+        private static final class TrieNode {
+
+            private static final int NUMBER_OF_LETTERS = 26;
+
+            /**
+             * Folds the case of a character in the same way as {@link String#CASE_INSENSITIVE_ORDER} and returns the index of
+             * the corresponding child node.
+             *
+             * @param codePoint
+             *            the code point of the character
+             * @return the index of the child node, or -1 if the character is not a letter
+             */
+            private static int getChildIndex(int codePoint) {
+                final int index = Character.toLowerCase(Character.toUpperCase(codePoint)) - 'a';
+                if (index < 0 || index >= NUMBER_OF_LETTERS) {
+                    return -1;
+                }
+
+                return index;
+            }
+
+            // The letters that lead to this node from the root.
+            @Nonnull
+            final String prefix;
+            @CheckForNull
+            MnemonicSymbol symbol;
+            @CheckForNull
+            private TrieNode[] children;
+
+            TrieNode(@Nonnull String prefix) {
+                this.prefix = prefix;
+            }
+
+            @CheckForNull
+            TrieNode getChild(int codePoint) {
+                final int index = getChildIndex(codePoint);
+                if (index == -1 || this.children == null) {
+                    return null;
+                }
+
+                return this.children[index];
+            }
+
+            @Nonnull
+            TrieNode getOrCreateChild(char ch) {
+                final int index = getChildIndex(ch);
+                if (index == -1) {
+                    throw new IllegalArgumentException("Built-in mnemonics must only contain letters");
+                }
+
+                if (this.children == null) {
+                    this.children = new TrieNode[NUMBER_OF_LETTERS];
+                }
+
+                TrieNode child = this.children[index];
+                if (child == null) {
+                    child = new TrieNode(this.prefix + ch);
+                    this.children[index] = child;
+                }
+
+                return child;
+            }
+
+        }
+
         private final Map<String, MnemonicSymbol> map = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        private final TrieNode root = new TrieNode("");
+
+        /**
+         * Reads a mnemonic name from a logical line reader and gets the built-in mnemonic with that name. No string is allocated
+         * unless the name contains a character other than a letter. The reader is advanced up to the first period or to the end
+         * of its range.
+         *
+         * @param reader
+         *            the reader, positioned at the start of the mnemonic name
+         * @return the built-in mnemonic with the name that was read, or <code>null</code> if there is no such mnemonic
+         */
+        @CheckForNull
+        MnemonicSymbol get(@Nonnull LogicalLineReader reader) {
+            TrieNode node = this.root;
+            StringBuilder name = null;
+            while (!reader.atEnd()) {
+                final int codePoint = reader.getCurrentCodePoint();
+                if (codePoint == '.') {
+                    break;
+                }
+
+                if (name != null) {
+                    name.appendCodePoint(codePoint);
+                } else if (node != null) {
+                    if (TrieNode.getChildIndex(codePoint) == -1) {
+                        // The mnemonic is not in the trie: read the rest of its name to look it up by name.
+                        name = new StringBuilder(node.prefix).appendCodePoint(codePoint);
+                    }
+
+                    node = node.getChild(codePoint);
+                }
+
+                reader.advance();
+            }
+
+            if (name != null) {
+                return this.map.get(name.toString());
+            }
+
+            if (node == null) {
+                return null;
+            }
+
+            return node.symbol;
+        }
 
         @CheckForNull
         MnemonicSymbol get(@Nonnull String mnemonicName) {
@@ -28,7 +146,22 @@ public final class Mnemonics {
         }
 
         void put(@Nonnull String mnemonicName, @Nonnull Mnemonic mnemonicHandler) {
-            this.map.put(mnemonicName, new MnemonicSymbol(mnemonicName, mnemonicHandler));
+            final MnemonicSymbol symbol = new MnemonicSymbol(mnemonicName, mnemonicHandler);
+            this.map.put(mnemonicName, symbol);
+
+            // Add the letters that precede the first other character to the trie, so that get(LogicalLineReader) can reach the
+            // node from which the mnemonic is looked up by name.
+            TrieNode node = this.root;
+            for (int i = 0; i < mnemonicName.length(); i++) {
+                final char ch = mnemonicName.charAt(i);
+                if (TrieNode.getChildIndex(ch) == -1) {
+                    return;
+                }
+
+                node = node.getOrCreateChild(ch);
+            }
+
+            node.symbol = symbol;
         }
 
     }
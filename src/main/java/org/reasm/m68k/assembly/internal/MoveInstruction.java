@@ -1,7 +1,6 @@
 package org.reasm.m68k.assembly.internal;
 
 import java.io.IOException;
-import java.util.Set;
 
 import javax.annotation.Nonnull;
 import javax.annotation.concurrent.Immutable;
@@ -18,13 +17,13 @@ class MoveInstruction extends TwoOperandIntegerInstruction {
     static final MoveInstruction MOVE = new MoveInstruction();
 
     static void assembleBasicMove(@Nonnull M68KAssemblyContext context, @Nonnull InstructionSize size,
-            @Nonnull Set<AddressingMode> validAddressingModesForDestination) throws IOException {
+            int validAddressingModesForDestination) throws IOException {
         final EffectiveAddress ea0 = context.ea0;
         final EffectiveAddress ea1 = context.ea1;
 
         // Parse and evaluate the operands.
-        context.getEffectiveAddress(context.getOperandText(0), AddressingModeCategory.ALL, size, 2, ea0);
-        context.getEffectiveAddress(context.getOperandText(1), validAddressingModesForDestination, size, ea0.numberOfWords * 2, ea1);
+        context.getEffectiveAddress(0, AddressingModeCategory.ALL_MASK, size, 2, ea0);
+        context.getEffectiveAddress(1, validAddressingModesForDestination, size, ea0.numberOfWords * 2, ea1);
 
         // Try to optimize to MOVEQ.
         if (context.optimizeMoveToMoveq && size == InstructionSize.LONG && ea0.isImmediateData() && ea1.isDataRegisterDirect()) {
@@ -67,8 +66,8 @@ class MoveInstruction extends TwoOperandIntegerInstruction {
         final EffectiveAddress ea = context.ea0;
 
         // Parse and evaluate the operand that is not the CCR or SR register.
-        context.getEffectiveAddress(context.getOperandText(otherOperandIndex), isDest ? AddressingModeCategory.DATA
-                : AddressingModeCategory.ALTERABLE, InstructionSize.WORD, ea);
+        context.getEffectiveAddress(otherOperandIndex, isDest ? AddressingModeCategory.DATA_MASK
+                : AddressingModeCategory.ALTERABLE_MASK, InstructionSize.WORD, ea);
 
         // Encode the instruction.
         ea.word0 |= (short) (0b01000000_11000000 | (isDest ? 0b00000100_00000000 : 0) | (isCcr ^ isDest ? 0b00000010_00000000 : 0));
@@ -85,8 +84,8 @@ class MoveInstruction extends TwoOperandIntegerInstruction {
         final EffectiveAddress ea = context.ea0;
 
         // Parse and evaluate the operand that is not the USP register.
-        context.getEffectiveAddress(context.getOperandText(otherOperandIndex), AddressingModeCategory.ADDRESS_REGISTER_DIRECT,
-                InstructionSize.LONG, ea);
+        context.getEffectiveAddress(otherOperandIndex, AddressingModeCategory.ADDRESS_REGISTER_DIRECT_MASK, InstructionSize.LONG,
+                ea);
 
         // Encode the instruction.
         final int register;
@@ -114,7 +113,7 @@ class MoveInstruction extends TwoOperandIntegerInstruction {
         } else if (parseSpecialRegister(context, 0, "USP") || (isDest = parseSpecialRegister(context, 1, "USP"))) {
             assembleMoveUsp(context, isDest ? 0 : 1, size, isDest);
         } else {
-            assembleBasicMove(context, size, AddressingModeCategory.ALTERABLE);
+            assembleBasicMove(context, size, AddressingModeCategory.ALTERABLE_MASK);
         }
     }
 
@@ -21,7 +21,7 @@ class MoveaInstruction extends TwoOperandIntegerInstruction {
 
     @Override
     void assemble(M68KAssemblyContext context, InstructionSize size) throws IOException {
-        MoveInstruction.assembleBasicMove(context, size, AddressingModeCategory.ADDRESS_REGISTER_DIRECT);
+        MoveInstruction.assembleBasicMove(context, size, AddressingModeCategory.ADDRESS_REGISTER_DIRECT_MASK);
     }
 
 }
@@ -1,7 +1,6 @@
 package org.reasm.m68k.assembly.internal;
 
 import java.io.IOException;
-import java.util.Set;
 
 import javax.annotation.Nonnull;
 import javax.annotation.concurrent.Immutable;
@@ -30,46 +29,38 @@ class MovemInstruction extends TwoOperandIntegerInstruction {
         }
 
         final EffectiveAddress ea = context.ea0;
-        final Set<GeneralPurposeRegister> registerListLeft = parseRegisterList(context, 0);
-        final Set<GeneralPurposeRegister> registerListRight = parseRegisterList(context, 1);
-        final Set<GeneralPurposeRegister> registerList;
+        final int registerListLeft = parseRegisterList(context, 0);
+        final int registerListRight = parseRegisterList(context, 1);
+        final int registerList;
         final int direction;
-        if (registerListLeft != null) {
-            if (registerListRight != null) {
+        if (registerListLeft != -1) {
+            if (registerListRight != -1) {
                 context.addMessage(new MovemRequiresARegisterListInExactlyOneOperandErrorMessage());
                 return;
             }
 
-            context.getEffectiveAddress(context.getOperandText(1), AddressingModeCategory.CONTROL_ALTERABLE_WITH_PREDECREMENT,
-                    size, 4, ea);
+            context.getEffectiveAddress(1, AddressingModeCategory.CONTROL_ALTERABLE_WITH_PREDECREMENT_MASK, size, 4, ea);
             registerList = registerListLeft;
             direction = 0;
         } else {
-            if (registerListRight == null) {
+            if (registerListRight == -1) {
                 context.addMessage(new MovemRequiresARegisterListInExactlyOneOperandErrorMessage());
                 return;
             }
 
-            context.getEffectiveAddress(context.getOperandText(0), AddressingModeCategory.CONTROL_WITH_POSTINCREMENT, size, 4, ea);
+            context.getEffectiveAddress(0, AddressingModeCategory.CONTROL_WITH_POSTINCREMENT_MASK, size, 4, ea);
             registerList = registerListRight;
             direction = 1 << 10;
         }
 
         ea.word0 |= 0b01001000_10000000 | direction | (size == InstructionSize.LONG ? 1 << 6 : 0);
 
-        short registerMask = 0;
-        if (ea.isAddressRegisterIndirectWithPredecrement()) {
-            for (GeneralPurposeRegister register : registerList) {
-                registerMask |= 1 << 15 - register.ordinal();
-            }
-        } else {
-            for (GeneralPurposeRegister register : registerList) {
-                registerMask |= 1 << register.ordinal();
-            }
-        }
+        // The register list mask has D0 in bit 0 and A7 in bit 15. With the predecrement addressing mode, the order is reversed.
+        final int registerMask = ea.isAddressRegisterIndirectWithPredecrement() ? Integer.reverse(registerList) >>> 16
+                : registerList;
 
         context.appendWord(ea.word0);
-        context.appendWord(registerMask);
+        context.appendWord((short) registerMask);
         context.appendEffectiveAddress(ea, 1);
     }
 
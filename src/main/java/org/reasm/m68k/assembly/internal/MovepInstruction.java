@@ -1,9 +1,6 @@
 package org.reasm.m68k.assembly.internal;
 
 import java.io.IOException;
-import java.util.Collections;
-import java.util.EnumSet;
-import java.util.Set;
 
 import javax.annotation.Nonnull;
 import javax.annotation.concurrent.Immutable;
@@ -21,13 +18,10 @@ class MovepInstruction extends TwoEaInstruction {
     @Nonnull
     static final MovepInstruction MOVEP = new MovepInstruction();
 
-    @Nonnull
-    private static final Set<AddressingMode> ADDRESS_REGISTER_INDIRECT_WITH_DISPLACEMENT = Collections.unmodifiableSet(EnumSet
-            .of(AddressingMode.ADDRESS_REGISTER_INDIRECT_WITH_DISPLACEMENT));
-    @Nonnull
-    private static final Set<AddressingMode> DATA_REGISTER_DIRECT_OR_ADDRESS_REGISTER_INDIRECT_WITH_DISPLACEMENT = Collections
-            .unmodifiableSet(EnumSet.of(AddressingMode.DATA_REGISTER_DIRECT,
-                    AddressingMode.ADDRESS_REGISTER_INDIRECT_WITH_DISPLACEMENT));
+    private static final int ADDRESS_REGISTER_INDIRECT_WITH_DISPLACEMENT =
+            AddressingMode.ADDRESS_REGISTER_INDIRECT_WITH_DISPLACEMENT.mask;
+    private static final int DATA_REGISTER_DIRECT_OR_ADDRESS_REGISTER_INDIRECT_WITH_DISPLACEMENT =
+            AddressingMode.DATA_REGISTER_DIRECT.mask | AddressingMode.ADDRESS_REGISTER_INDIRECT_WITH_DISPLACEMENT.mask;
 
     @Override
     void assemble(M68KAssemblyContext context, InstructionSize size, EffectiveAddress ea0, EffectiveAddress ea1) throws IOException {
@@ -66,20 +60,20 @@ class MovepInstruction extends TwoEaInstruction {
     }
 
     @Override
-    Set<AddressingMode> getValidAddressingModesForDestinationOperand(InstructionSet instructionSet, EffectiveAddress ea0) {
+    int getValidAddressingModesForDestinationOperand(InstructionSet instructionSet, EffectiveAddress ea0) {
         if (ea0.isDataRegisterDirect()) {
             return ADDRESS_REGISTER_INDIRECT_WITH_DISPLACEMENT;
         }
 
         if (ea0.isAddressRegisterIndirectWithDisplacement()) {
-            return AddressingModeCategory.DATA_REGISTER_DIRECT;
+            return AddressingModeCategory.DATA_REGISTER_DIRECT_MASK;
         }
 
         return DATA_REGISTER_DIRECT_OR_ADDRESS_REGISTER_INDIRECT_WITH_DISPLACEMENT;
     }
 
     @Override
-    Set<AddressingMode> getValidAddressingModesForSourceOperand(InstructionSet instructionSet) {
+    int getValidAddressingModesForSourceOperand(InstructionSet instructionSet) {
         return DATA_REGISTER_DIRECT_OR_ADDRESS_REGISTER_INDIRECT_WITH_DISPLACEMENT;
     }
 
@@ -24,7 +24,7 @@ class MoveqInstruction extends TwoFixedEaInstruction {
     }
 
     private MoveqInstruction() {
-        super(AddressingModeCategory.IMMEDIATE_DATA, AddressingModeCategory.DATA_REGISTER_DIRECT);
+        super(AddressingModeCategory.IMMEDIATE_DATA_MASK, AddressingModeCategory.DATA_REGISTER_DIRECT_MASK);
     }
 
     @Override
@@ -51,7 +51,7 @@ class MultiplyDivideInstruction extends TwoOperandIntegerInstruction {
         final EffectiveAddress ea = context.ea0;
 
         // Parse the source operand.
-        context.getEffectiveAddress(context.getOperandText(0), AddressingModeCategory.DATA, size, ea);
+        context.getEffectiveAddress(0, AddressingModeCategory.DATA_MASK, size, ea);
 
         // Parse the destination operand.
         boolean errorInDestination = false;
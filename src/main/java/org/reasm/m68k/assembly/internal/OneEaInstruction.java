@@ -1,7 +1,6 @@
 package org.reasm.m68k.assembly.internal;
 
 import java.io.IOException;
-import java.util.Set;
 
 import javax.annotation.Nonnull;
 import javax.annotation.concurrent.Immutable;
@@ -29,8 +28,8 @@ abstract class OneEaInstruction extends Instruction {
             }
 
             @Override
-            Set<AddressingMode> getValidAddressingModes(InstructionSet instructionSet) {
-                return AddressingModeCategory.DATA_ALTERABLE;
+            int getValidAddressingModes(InstructionSet instructionSet) {
+                return AddressingModeCategory.DATA_ALTERABLE_MASK;
             }
 
         }
@@ -43,12 +42,12 @@ abstract class OneEaInstruction extends Instruction {
             }
 
             @Override
-            Set<AddressingMode> getValidAddressingModes(InstructionSet instructionSet) {
+            int getValidAddressingModes(InstructionSet instructionSet) {
                 if (InstructionSetCheck.CPU32_OR_MC68020_OR_LATER.isSupported(instructionSet)) {
-                    return AddressingModeCategory.ALL;
+                    return AddressingModeCategory.ALL_MASK;
                 }
 
-                return AddressingModeCategory.DATA_ALTERABLE;
+                return AddressingModeCategory.DATA_ALTERABLE_MASK;
             }
 
         }
@@ -97,8 +96,8 @@ abstract class OneEaInstruction extends Instruction {
         }
 
         @Override
-        Set<AddressingMode> getValidAddressingModes(InstructionSet instructionSet) {
-            return AddressingModeCategory.DATA_REGISTER_DIRECT;
+        int getValidAddressingModes(InstructionSet instructionSet) {
+            return AddressingModeCategory.DATA_REGISTER_DIRECT_MASK;
         }
 
     }
@@ -132,8 +131,8 @@ abstract class OneEaInstruction extends Instruction {
         }
 
         @Override
-        Set<AddressingMode> getValidAddressingModes(InstructionSet instructionSet) {
-            return AddressingModeCategory.DATA_REGISTER_DIRECT;
+        int getValidAddressingModes(InstructionSet instructionSet) {
+            return AddressingModeCategory.DATA_REGISTER_DIRECT_MASK;
         }
 
     }
@@ -287,8 +286,8 @@ abstract class OneEaInstruction extends Instruction {
         }
 
         @Override
-        final Set<AddressingMode> getValidAddressingModes(InstructionSet instructionSet) {
-            return AddressingModeCategory.IMMEDIATE_DATA;
+        final int getValidAddressingModes(InstructionSet instructionSet) {
+            return AddressingModeCategory.IMMEDIATE_DATA_MASK;
         }
 
     }
@@ -312,8 +311,8 @@ abstract class OneEaInstruction extends Instruction {
         }
 
         @Override
-        Set<AddressingMode> getValidAddressingModes(InstructionSet instructionSet) {
-            return AddressingModeCategory.CONTROL;
+        int getValidAddressingModes(InstructionSet instructionSet) {
+            return AddressingModeCategory.CONTROL_MASK;
         }
 
     }
@@ -341,8 +340,8 @@ abstract class OneEaInstruction extends Instruction {
         }
 
         @Override
-        Set<AddressingMode> getValidAddressingModes(InstructionSet instructionSet) {
-            return AddressingModeCategory.DATA_ALTERABLE;
+        int getValidAddressingModes(InstructionSet instructionSet) {
+            return AddressingModeCategory.DATA_ALTERABLE_MASK;
         }
 
     }
@@ -370,8 +369,8 @@ abstract class OneEaInstruction extends Instruction {
         }
 
         @Override
-        Set<AddressingMode> getValidAddressingModes(InstructionSet instructionSet) {
-            return AddressingModeCategory.CONTROL;
+        int getValidAddressingModes(InstructionSet instructionSet) {
+            return AddressingModeCategory.CONTROL_MASK;
         }
 
     }
@@ -397,8 +396,8 @@ abstract class OneEaInstruction extends Instruction {
         }
 
         @Override
-        Set<AddressingMode> getValidAddressingModes(InstructionSet instructionSet) {
-            return AddressingModeCategory.DATA_OR_ADDRESS_REGISTER_DIRECT;
+        int getValidAddressingModes(InstructionSet instructionSet) {
+            return AddressingModeCategory.DATA_OR_ADDRESS_REGISTER_DIRECT_MASK;
         }
 
     }
@@ -430,8 +429,8 @@ abstract class OneEaInstruction extends Instruction {
         }
 
         @Override
-        Set<AddressingMode> getValidAddressingModes(InstructionSet instructionSet) {
-            return AddressingModeCategory.DATA_ALTERABLE;
+        int getValidAddressingModes(InstructionSet instructionSet) {
+            return AddressingModeCategory.DATA_ALTERABLE_MASK;
         }
 
     }
@@ -460,8 +459,8 @@ abstract class OneEaInstruction extends Instruction {
         }
 
         @Override
-        Set<AddressingMode> getValidAddressingModes(InstructionSet instructionSet) {
-            return AddressingModeCategory.DATA_REGISTER_DIRECT;
+        int getValidAddressingModes(InstructionSet instructionSet) {
+            return AddressingModeCategory.DATA_REGISTER_DIRECT_MASK;
         }
 
     }
@@ -489,8 +488,8 @@ abstract class OneEaInstruction extends Instruction {
         }
 
         @Override
-        Set<AddressingMode> getValidAddressingModes(InstructionSet instructionSet) {
-            return AddressingModeCategory.DATA_ALTERABLE;
+        int getValidAddressingModes(InstructionSet instructionSet) {
+            return AddressingModeCategory.DATA_ALTERABLE_MASK;
         }
 
     }
@@ -511,8 +510,8 @@ abstract class OneEaInstruction extends Instruction {
         }
 
         @Override
-        Set<AddressingMode> getValidAddressingModes(InstructionSet instructionSet) {
-            return AddressingModeCategory.ADDRESS_REGISTER_DIRECT;
+        int getValidAddressingModes(InstructionSet instructionSet) {
+            return AddressingModeCategory.ADDRESS_REGISTER_DIRECT_MASK;
         }
 
     }
@@ -609,8 +608,7 @@ abstract class OneEaInstruction extends Instruction {
 
         if (context.requireNumberOfOperands(1)) {
             final EffectiveAddress ea = context.ea0;
-            context.getEffectiveAddress(context.getOperandText(0), this.getValidAddressingModes(context.instructionSet),
-                    immediateSize, ea);
+            context.getEffectiveAddress(0, this.getValidAddressingModes(context.instructionSet), immediateSize, ea);
             this.encode(context, size, ea);
             context.appendEffectiveAddress(ea);
         }
@@ -633,7 +631,6 @@ abstract class OneEaInstruction extends Instruction {
         return InstructionSetCheck.M68000_FAMILY;
     }
 
-    @Nonnull
-    abstract Set<AddressingMode> getValidAddressingModes(@Nonnull InstructionSet instructionSet);
+    abstract int getValidAddressingModes(@Nonnull InstructionSet instructionSet);
 
 }
@@ -0,0 +1,51 @@
+package org.reasm.m68k.assembly.internal;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+
+import org.reasm.SymbolLookupContext;
+import org.reasm.expressions.Expression;
+
+/**
+ * The result of parsing an operand that consists of a single expression, optionally preceded by <code>#</code>. Parsed operands
+ * are cached by {@link M68KAssemblyContext} so that the operand text doesn't have to be tokenized and parsed again on every pass.
+ *
+ * @author Francis Gagné
+ */
+@Immutable
+final class ParsedOperand {
+
+    /**
+     * A parsed operand that indicates that the operand could not be parsed as a single expression, or that parsing it raised
+     * messages. Such operands must be parsed again every time they are used, so that the messages are raised again.
+     */
+    @Nonnull
+    static final ParsedOperand UNCACHEABLE = new ParsedOperand(null, false, null);
+
+    @CheckForNull
+    final Expression expression;
+    final boolean immediateData;
+    @CheckForNull
+    private final SymbolLookupContext symbolLookupContext;
+
+    ParsedOperand(@CheckForNull Expression expression, boolean immediateData,
+            @CheckForNull SymbolLookupContext symbolLookupContext) {
+        this.expression = expression;
+        this.immediateData = immediateData;
+        this.symbolLookupContext = symbolLookupContext;
+    }
+
+    /**
+     * Determines whether this parsed operand can be reused in the specified symbol lookup context. The identifiers in the parsed
+     * expression are bound to the symbol lookup context that was current when the operand was parsed.
+     *
+     * @param symbolLookupContext
+     *            the current symbol lookup context
+     * @return <code>true</code> if this parsed operand can be reused, otherwise <code>false</code>
+     */
+    boolean isValidIn(@Nonnull SymbolLookupContext symbolLookupContext) {
+        return this == UNCACHEABLE || symbolLookupContext.equals(this.symbolLookupContext);
+    }
+
+}
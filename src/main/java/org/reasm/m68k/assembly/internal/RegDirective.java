@@ -1,7 +1,6 @@
 package org.reasm.m68k.assembly.internal;
 
 import java.io.IOException;
-import java.util.Set;
 
 import javax.annotation.Nonnull;
 import javax.annotation.concurrent.Immutable;
@@ -32,10 +31,10 @@ class RegDirective extends Mnemonic {
             context.addMessage(new DirectiveRequiresLabelErrorMessage(Mnemonics.REG));
         } else {
             if (context.requireNumberOfOperands(1)) {
-                final Set<GeneralPurposeRegister> registerList = parseRegisterList(context, 0);
-                if (registerList != null) {
-                    context.defineSymbols(M68KAssemblyContext.REGISTER_LIST_ALIAS, SymbolType.CONSTANT, new RegisterList(
-                            registerList));
+                final int registerList = parseRegisterList(context, 0);
+                if (registerList != -1) {
+                    context.defineSymbols(M68KAssemblyContext.REGISTER_LIST_ALIAS, SymbolType.CONSTANT,
+                            RegisterList.get(registerList));
                 } else {
                     context.addMessage(new RegisterListExpectedErrorMessage());
                 }
@@ -1,25 +1,51 @@
 package org.reasm.m68k.assembly.internal;
 
-import java.util.Set;
-
 import javax.annotation.Nonnull;
 import javax.annotation.concurrent.Immutable;
 
 import org.reasm.SymbolContext;
 
 /**
- * Wraps a {@link Set}&lt;{@link GeneralPurposeRegister}&gt; to work around type erasure when used with {@link SymbolContext}.
+ * A list of general purpose registers, as defined by the <code>REG</code> directive, used as the value of a register list alias
+ * with {@link SymbolContext}.
+ * <p>
+ * The registers are represented by a mask in which the bit at a register's {@linkplain GeneralPurposeRegister#ordinal() ordinal}
+ * is set if the register is in the list. RegisterList objects are interned: there is a single RegisterList per mask.
  *
  * @author Francis Gagné
  */
 @Immutable
 final class RegisterList {
 
+    // Interned register lists, by the upper and lower 8 bits of their mask. The second level is created on demand.
+    @Nonnull
+    private static final RegisterList[][] INTERNED = new RegisterList[256][];
+
     @Nonnull
-    private final Set<GeneralPurposeRegister> registers;
+    static synchronized RegisterList get(int mask) {
+        if ((mask & ~0xFFFF) != 0) {
+            throw new IllegalArgumentException("mask");
+        }
+
+        RegisterList[] interned = INTERNED[mask >>> 8];
+        if (interned == null) {
+            interned = new RegisterList[256];
+            INTERNED[mask >>> 8] = interned;
+        }
 
-    RegisterList(@Nonnull Set<GeneralPurposeRegister> registers) {
-        this.registers = registers;
+        RegisterList registerList = interned[mask & 0xFF];
+        if (registerList == null) {
+            registerList = new RegisterList(mask);
+            interned[mask & 0xFF] = registerList;
+        }
+
+        return registerList;
+    }
+
+    private final int mask;
+
+    private RegisterList(int mask) {
+        this.mask = mask;
     }
 
     @Override
@@ -37,7 +63,7 @@ final class RegisterList {
         }
 
         final RegisterList other = (RegisterList) obj;
-        if (!this.registers.equals(other.registers)) {
+        if (this.mask != other.mask) {
             return false;
         }
 
@@ -48,13 +74,12 @@ final class RegisterList {
     public int hashCode() {
         final int prime = 31;
         int result = 1;
-        result = prime * result + this.registers.hashCode();
+        result = prime * result + this.mask;
         return result;
     }
 
-    @Nonnull
-    final Set<GeneralPurposeRegister> getRegisters() {
-        return this.registers;
+    final int getMask() {
+        return this.mask;
     }
 
 }
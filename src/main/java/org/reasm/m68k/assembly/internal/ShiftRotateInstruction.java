@@ -58,11 +58,11 @@ class ShiftRotateInstruction extends Instruction {
 
         if (context.numberOfOperands >= 2) {
             // Parse the shift count.
-            context.getEffectiveAddress(context.getOperandText(0), AddressingModeCategory.DATA_REGISTER_DIRECT_OR_IMMEDIATE_DATA,
+            context.getEffectiveAddress(0, AddressingModeCategory.DATA_REGISTER_DIRECT_OR_IMMEDIATE_DATA_MASK,
                     InstructionSize.LONG, ea0);
 
             // Parse the destination operand.
-            context.getEffectiveAddress(context.getOperandText(1), AddressingModeCategory.DATA_REGISTER_DIRECT, size, ea1);
+            context.getEffectiveAddress(1, AddressingModeCategory.DATA_REGISTER_DIRECT_MASK, size, ea1);
 
             // Encode the instruction.
             if (ea0.isDataRegisterDirect()) {
@@ -79,7 +79,7 @@ class ShiftRotateInstruction extends Instruction {
             }
         } else if (context.numberOfOperands == 1) {
             // Parse the destination operand.
-            context.getEffectiveAddress(context.getOperandText(0), AddressingModeCategory.DATA_ALTERABLE, InstructionSize.WORD, ea0);
+            context.getEffectiveAddress(0, AddressingModeCategory.DATA_ALTERABLE_MASK, InstructionSize.WORD, ea0);
 
             if (ea0.isDataRegisterDirect()) {
                 // Encode the instruction.
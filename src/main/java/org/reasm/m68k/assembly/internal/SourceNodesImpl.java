@@ -11,6 +11,7 @@ import org.reasm.AssemblyStepLocation;
 import org.reasm.BlockEvents;
 import org.reasm.Symbol;
 import org.reasm.commons.source.SourceLocationUtils;
+import org.reasm.m68k.AssemblyProfile;
 import org.reasm.messages.UnknownMnemonicErrorMessage;
 import org.reasm.source.SourceLocation;
 import org.reasm.source.SourceNode;
@@ -36,13 +37,7 @@ public final class SourceNodesImpl {
         final M68KAssemblyContext context = M68KAssemblyContext.getAssemblyContext(builder);
 
         context.setMnemonic();
-
-        String mnemonicName = context.mnemonic;
-        if (mnemonicName.startsWith("!")) {
-            mnemonicName = mnemonicName.substring(1);
-        }
-
-        assembleMnemonic(context, Mnemonics.MAP.get(mnemonicName), true);
+        assembleMnemonic(context, context.builtInMnemonicSymbol, true);
     }
 
     /**
@@ -68,7 +63,7 @@ public final class SourceNodesImpl {
             }
         };
 
-        builder.enterBlock(sourceLocations, doBlockState, false, null);
+        builder.enterBlock(sourceLocations, doBlockState, false, context.enterLoopBlock());
     }
 
     /**
@@ -95,7 +90,7 @@ public final class SourceNodesImpl {
             }
         };
 
-        builder.enterBlock(sourceLocations, forBlockState, false, null);
+        builder.enterBlock(sourceLocations, forBlockState, false, context.enterLoopBlock());
     }
 
     /**
@@ -142,11 +137,15 @@ public final class SourceNodesImpl {
             final boolean builtInMnemonic;
 
             // If the mnemonic starts with !, ignore macros and search only the built-in mnemonics.
-            if (context.mnemonic.startsWith("!")) {
-                mnemonicSymbol = Mnemonics.MAP.get(context.mnemonic.substring(1));
+            if (context.builtInMnemonicForced) {
+                mnemonicSymbol = context.builtInMnemonicSymbol;
                 builtInMnemonic = true;
+            } else if (context.builtInMnemonicSymbol != null && !context.builtInMnemonicsShadowed) {
+                // No macro has the name of a built-in mnemonic, so there's no need to look up the mnemonic by name.
+                mnemonicSymbol = context.builtInMnemonicSymbol;
+                builtInMnemonic = false;
             } else {
-                mnemonicSymbol = context.getMnemonicSymbolByName(context.mnemonic);
+                mnemonicSymbol = context.getMnemonicSymbolByName(context.getMnemonicName());
                 builtInMnemonic = false;
             }
 
@@ -236,7 +235,7 @@ public final class SourceNodesImpl {
 
         context.blockStateMap.put(stepLocation, new ReptBlockState());
 
-        builder.enterBlock(stepLocation.getSourceLocation().getChildSourceLocations(), null, true, null);
+        builder.enterBlock(stepLocation.getSourceLocation().getChildSourceLocations(), null, true, context.enterLoopBlock());
     }
 
     /**
@@ -297,7 +296,7 @@ public final class SourceNodesImpl {
             }
         };
 
-        builder.enterBlock(sourceLocations, whileBlockState, false, null);
+        builder.enterBlock(sourceLocations, whileBlockState, false, context.enterLoopBlock());
     }
 
     private static void assembleMnemonic(@Nonnull M68KAssemblyContext context, @CheckForNull Symbol mnemonicSymbol,
@@ -310,9 +309,22 @@ public final class SourceNodesImpl {
         }
 
         if (mnemonic != null) {
-            mnemonic.defineLabels(context);
-            mnemonic.checkInstructionSet(context);
-            mnemonic.assemble(context);
+            final AssemblyProfile profile = context.profile;
+            if (profile == null) {
+                assembleMnemonic(context, mnemonic);
+            } else {
+                final String mnemonicName = mnemonicSymbol.getName();
+                if (mnemonic instanceof Macro) {
+                    profile.recordMacroExpansion(mnemonicName);
+                }
+
+                final long startTime = System.nanoTime();
+                try {
+                    assembleMnemonic(context, mnemonic);
+                } finally {
+                    profile.recordMnemonic(mnemonicName, System.nanoTime() - startTime);
+                }
+            }
         } else {
             if (builtInMnemonic) {
                 context.addMessage(new UnknownMnemonicErrorMessage());
@@ -322,6 +334,39 @@ public final class SourceNodesImpl {
         }
     }
 
+    private static void assembleMnemonic(@Nonnull M68KAssemblyContext context, @Nonnull Mnemonic mnemonic) throws IOException {
+        mnemonic.defineLabels(context);
+        mnemonic.checkInstructionSet(context);
+
+        // Instructions only output data and messages, so if nothing they depend on has changed since the previous pass, their
+        // output can be replayed. On a pass that will be discarded, let the instruction be laid out instead.
+        if (mnemonic instanceof Instruction && ((Instruction) mnemonic).canSkipEncoding(context)
+                && !(context.layoutPasses && context.anotherPassRequired)) {
+            final InstructionMemo instructionMemo = context.instructionMemo;
+            if (instructionMemo.replay(context, mnemonic)) {
+                if (context.profile != null) {
+                    context.profile.recordReplayedInstruction();
+                }
+
+                return;
+            }
+
+            instructionMemo.startRecording(context);
+            try {
+                mnemonic.assemble(context);
+                context.flushAssembledData();
+                instructionMemo.stopRecording(context, mnemonic);
+            } finally {
+                instructionMemo.discardRecording();
+            }
+
+            return;
+        }
+
+        mnemonic.assemble(context);
+        context.flushAssembledData();
+    }
+
     // This class is not meant to be instantiated.
     private SourceNodesImpl() {
     }
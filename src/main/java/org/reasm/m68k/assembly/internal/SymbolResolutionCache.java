@@ -0,0 +1,194 @@
+package org.reasm.m68k.assembly.internal;
+
+import java.util.HashMap;
+import java.util.HashSet;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+import org.reasm.Symbol;
+import org.reasm.SymbolLookupContext;
+
+/**
+ * Caches the objects and the results involved in resolving symbols for an assembly.
+ * <p>
+ * The {@link M68KSymbolLookup} for each {@link SymbolLookupContext} is created once and reused by all the operands that are parsed
+ * in that context.
+ * <p>
+ * The symbols that a name resolved to in the value context are remembered by name and by symbol lookup context, so that an
+ * operand that is evaluated again doesn't go through the assembly's symbol resolution. When a symbol is defined, the symbols that
+ * were remembered for its name are forgotten in all the symbol lookup contexts, because the new symbol may replace or hide them.
+ * All the symbols are forgotten when a new pass starts. Local names and names that didn't resolve to any symbol are not
+ * remembered: the former resolve differently depending on the enclosing labels, and the latter must be reported to the assembly
+ * every time they are used. Only the first reference to a symbol in a symbol lookup context is therefore reported to the assembly
+ * on each pass, until the symbol's name is defined again.
+ * <p>
+ * Every identifier in an effective address or a register list is first looked up as a register alias or a register list alias.
+ * Most of these identifiers are labels, so the names that resolved to a symbol that is not an alias are remembered, and they are
+ * not looked up as aliases again. Names that didn't resolve to any symbol are not remembered, so that they are reported as
+ * undefined every time they are used. The remembered names are forgotten when a register alias or a register list alias is
+ * defined and when a new pass starts.
+ *
+ * @author Francis Gagné
+ */
+final class SymbolResolutionCache {
+
+    private static void add(@Nonnull HashMap<SymbolLookupContext, HashSet<String>> names,
+            @Nonnull SymbolLookupContext symbolLookupContext, @Nonnull String name) {
+        HashSet<String> namesInContext = names.get(symbolLookupContext);
+        if (namesInContext == null) {
+            namesInContext = new HashSet<>();
+            names.put(symbolLookupContext, namesInContext);
+        }
+
+        namesInContext.add(name);
+    }
+
+    private static boolean contains(@Nonnull HashMap<SymbolLookupContext, HashSet<String>> names,
+            @Nonnull SymbolLookupContext symbolLookupContext, @Nonnull String name) {
+        final HashSet<String> namesInContext = names.get(symbolLookupContext);
+        return namesInContext != null && namesInContext.contains(name);
+    }
+
+    @Nonnull
+    private final HashMap<SymbolLookupContext, M68KSymbolLookup> symbolLookups = new HashMap<>();
+    @Nonnull
+    private final HashMap<String, HashMap<SymbolLookupContext, Symbol>> symbols = new HashMap<>();
+    @Nonnull
+    private final HashMap<SymbolLookupContext, HashSet<String>> nonRegisterAliasNames = new HashMap<>();
+    @Nonnull
+    private final HashMap<SymbolLookupContext, HashSet<String>> nonRegisterListAliasNames = new HashMap<>();
+
+    /**
+     * Remembers that a name resolved to a symbol that is not a register alias.
+     *
+     * @param symbolLookupContext
+     *            the symbol lookup context in which the name was resolved
+     * @param name
+     *            the name
+     */
+    void addNonRegisterAliasName(@Nonnull SymbolLookupContext symbolLookupContext, @Nonnull String name) {
+        add(this.nonRegisterAliasNames, symbolLookupContext, name);
+    }
+
+    /**
+     * Remembers that a name resolved to a symbol that is neither a register alias nor a register list alias.
+     *
+     * @param symbolLookupContext
+     *            the symbol lookup context in which the name was resolved
+     * @param name
+     *            the name
+     */
+    void addNonRegisterListAliasName(@Nonnull SymbolLookupContext symbolLookupContext, @Nonnull String name) {
+        add(this.nonRegisterListAliasNames, symbolLookupContext, name);
+    }
+
+    /**
+     * Remembers the symbol that a name resolved to in the value context.
+     *
+     * @param symbolLookupContext
+     *            the symbol lookup context in which the name was resolved
+     * @param name
+     *            the name, which must not be a local name
+     * @param symbol
+     *            the symbol
+     */
+    void addSymbol(@Nonnull SymbolLookupContext symbolLookupContext, @Nonnull String name, @Nonnull Symbol symbol) {
+        HashMap<SymbolLookupContext, Symbol> symbolsByContext = this.symbols.get(name);
+        if (symbolsByContext == null) {
+            symbolsByContext = new HashMap<>();
+            this.symbols.put(name, symbolsByContext);
+        }
+
+        symbolsByContext.put(symbolLookupContext, symbol);
+    }
+
+    /**
+     * Forgets the names that were remembered by {@link #addNonRegisterAliasName(SymbolLookupContext, String)} and
+     * {@link #addNonRegisterListAliasName(SymbolLookupContext, String)}.
+     */
+    void clearNonRegisterAliasNames() {
+        this.nonRegisterAliasNames.clear();
+        this.nonRegisterListAliasNames.clear();
+    }
+
+    /**
+     * Forgets all the symbols that were remembered by {@link #addSymbol(SymbolLookupContext, String, Symbol)}.
+     */
+    void clearSymbols() {
+        this.symbols.clear();
+    }
+
+    /**
+     * Gets the symbol that a name was remembered to resolve to in the value context.
+     *
+     * @param symbolLookupContext
+     *            the symbol lookup context in which the name is resolved
+     * @param name
+     *            the name
+     * @return the symbol, or <code>null</code> if no symbol was remembered for that name in that context
+     */
+    @CheckForNull
+    Symbol getSymbol(@Nonnull SymbolLookupContext symbolLookupContext, @Nonnull String name) {
+        final HashMap<SymbolLookupContext, Symbol> symbolsByContext = this.symbols.get(name);
+        return symbolsByContext == null ? null : symbolsByContext.get(symbolLookupContext);
+    }
+
+    /**
+     * Gets the {@link M68KSymbolLookup} for a symbol lookup context, creating it if it doesn't exist yet.
+     *
+     * @param context
+     *            the assembly context
+     * @param symbolLookupContext
+     *            the symbol lookup context
+     * @return the symbol lookup
+     */
+    @Nonnull
+    M68KSymbolLookup getSymbolLookup(@Nonnull M68KAssemblyContext context, @Nonnull SymbolLookupContext symbolLookupContext) {
+        M68KSymbolLookup symbolLookup = this.symbolLookups.get(symbolLookupContext);
+        if (symbolLookup == null) {
+            symbolLookup = new M68KSymbolLookup(context, symbolLookupContext);
+            this.symbolLookups.put(symbolLookupContext, symbolLookup);
+        }
+
+        return symbolLookup;
+    }
+
+    /**
+     * Determines whether a name is known to resolve to a symbol that is not a register alias.
+     *
+     * @param symbolLookupContext
+     *            the symbol lookup context in which the name is resolved
+     * @param name
+     *            the name
+     * @return <code>true</code> if the name is known not to be a register alias, otherwise <code>false</code>
+     */
+    boolean isNonRegisterAliasName(@Nonnull SymbolLookupContext symbolLookupContext, @Nonnull String name) {
+        return contains(this.nonRegisterAliasNames, symbolLookupContext, name);
+    }
+
+    /**
+     * Determines whether a name is known to resolve to a symbol that is neither a register alias nor a register list alias.
+     *
+     * @param symbolLookupContext
+     *            the symbol lookup context in which the name is resolved
+     * @param name
+     *            the name
+     * @return <code>true</code> if the name is known not to be a register alias or a register list alias, otherwise
+     *         <code>false</code>
+     */
+    boolean isNonRegisterListAliasName(@Nonnull SymbolLookupContext symbolLookupContext, @Nonnull String name) {
+        return contains(this.nonRegisterListAliasNames, symbolLookupContext, name);
+    }
+
+    /**
+     * Forgets the symbols that were remembered for a name, because a symbol with that name was defined.
+     *
+     * @param name
+     *            the name of the symbol that was defined
+     */
+    void symbolDefined(@Nonnull String name) {
+        this.symbols.remove(name);
+    }
+
+}
@@ -1,7 +1,6 @@
 package org.reasm.m68k.assembly.internal;
 
 import java.io.IOException;
-import java.util.Set;
 
 import javax.annotation.Nonnull;
 import javax.annotation.concurrent.Immutable;
@@ -24,11 +23,10 @@ abstract class TwoEaInstruction extends TwoOperandIntegerInstruction {
         final EffectiveAddress ea1 = context.ea1;
 
         // Parse the source operand.
-        context.getEffectiveAddress(context.getOperandText(0),
-                this.getValidAddressingModesForSourceOperand(context.instructionSet), size, ea0);
+        context.getEffectiveAddress(0, this.getValidAddressingModesForSourceOperand(context.instructionSet), size, ea0);
 
         // Parse the destination operand.
-        context.getEffectiveAddress(context.getOperandText(1),
+        context.getEffectiveAddress(1,
                 this.getValidAddressingModesForDestinationOperand(context.instructionSet, ea0), size, ea0.numberOfWords * 2, ea1);
 
         this.assemble(context, size, ea0, ea1);
@@ -37,11 +35,9 @@ abstract class TwoEaInstruction extends TwoOperandIntegerInstruction {
     abstract void assemble(@Nonnull M68KAssemblyContext context, @Nonnull InstructionSize size, @Nonnull EffectiveAddress ea0,
             @Nonnull EffectiveAddress ea1) throws IOException;
 
-    @Nonnull
-    abstract Set<AddressingMode> getValidAddressingModesForDestinationOperand(@Nonnull InstructionSet instructionSet,
+    abstract int getValidAddressingModesForDestinationOperand(@Nonnull InstructionSet instructionSet,
             @Nonnull EffectiveAddress ea0);
 
-    @Nonnull
-    abstract Set<AddressingMode> getValidAddressingModesForSourceOperand(@Nonnull InstructionSet instructionSet);
+    abstract int getValidAddressingModesForSourceOperand(@Nonnull InstructionSet instructionSet);
 
 }
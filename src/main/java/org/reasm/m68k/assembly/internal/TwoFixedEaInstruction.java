@@ -1,6 +1,5 @@
 package org.reasm.m68k.assembly.internal;
 
-import java.util.Set;
 
 import javax.annotation.Nonnull;
 import javax.annotation.concurrent.Immutable;
@@ -15,24 +14,22 @@ import org.reasm.m68k.InstructionSet;
 @Immutable
 abstract class TwoFixedEaInstruction extends TwoEaInstruction {
 
-    @Nonnull
-    private final Set<AddressingMode> validAddressingModesForFirstOperand;
-    @Nonnull
-    private final Set<AddressingMode> validAddressingModesForSecondOperand;
+    private final int validAddressingModesForFirstOperand;
+    private final int validAddressingModesForSecondOperand;
 
-    TwoFixedEaInstruction(@Nonnull Set<AddressingMode> validAddressingModesForFirstOperand,
-            @Nonnull Set<AddressingMode> validAddressingModesForSecondOperand) {
+    TwoFixedEaInstruction(int validAddressingModesForFirstOperand,
+            int validAddressingModesForSecondOperand) {
         this.validAddressingModesForFirstOperand = validAddressingModesForFirstOperand;
         this.validAddressingModesForSecondOperand = validAddressingModesForSecondOperand;
     }
 
     @Override
-    final Set<AddressingMode> getValidAddressingModesForDestinationOperand(InstructionSet instructionSet, EffectiveAddress ea0) {
+    final int getValidAddressingModesForDestinationOperand(InstructionSet instructionSet, EffectiveAddress ea0) {
         return this.validAddressingModesForSecondOperand;
     }
 
     @Override
-    final Set<AddressingMode> getValidAddressingModesForSourceOperand(InstructionSet instructionSet) {
+    final int getValidAddressingModesForSourceOperand(InstructionSet instructionSet) {
         return this.validAddressingModesForFirstOperand;
     }
 
@@ -43,7 +43,7 @@ class UntilDirective extends Mnemonic {
 
             final Value condition;
             if (doBlockState.conditionExpression != null) {
-                condition = doBlockState.conditionExpression.evaluate(context.getEvaluationContext());
+                condition = context.evaluateExpression(doBlockState.conditionExpression);
             } else {
                 condition = null;
             }
@@ -43,7 +43,7 @@ class WhileDirective extends Mnemonic {
 
         final Value condition;
         if (whileBlockState.conditionExpression != null) {
-            condition = whileBlockState.conditionExpression.evaluate(context.getEvaluationContext());
+            condition = context.evaluateExpression(whileBlockState.conditionExpression);
         } else {
             condition = null;
         }
@@ -0,0 +1,145 @@
+package org.reasm.m68k.expressions.internal;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+import org.reasm.Assembly;
+import org.reasm.AssemblyMessage;
+import org.reasm.Value;
+import org.reasm.expressions.*;
+
+import ca.fragag.Consumer;
+
+/**
+ * Replaces the subexpressions of a parsed expression that only involve literals with the value they evaluate to.
+ * <p>
+ * The subexpressions are evaluated by the expressions themselves, so the folded value is exactly the value the subexpression
+ * would have produced. Subexpressions whose evaluation raises a message (e.g. a division by zero) are left as is, so that the
+ * message is raised every time the expression is evaluated. Parentheses are kept, because they are significant in effective
+ * addresses.
+ * <p>
+ * Subexpressions that read a symbol or the program counter are not folded: they are still evaluated through the expression tree,
+ * which boxes every intermediate result in a {@link Value}.
+ * <p>
+ * This class is not thread-safe.
+ *
+ * @author Francis Gagné
+ */
+public final class ConstantFolder {
+
+    private static boolean isLiteral(@Nonnull Expression expression) {
+        if (expression instanceof GroupingExpression) {
+            return ((GroupingExpression) expression).getChildExpression() instanceof ValueExpression;
+        }
+
+        return expression instanceof ValueExpression;
+    }
+
+    @Nonnull
+    private final EvaluationContext evaluationContext;
+    private boolean messageRaised;
+
+    /**
+     * Initializes a new ConstantFolder.
+     *
+     * @param assembly
+     *            the assembly in which the folded expressions are evaluated
+     */
+    public ConstantFolder(@Nonnull Assembly assembly) {
+        // Literals don't depend on the program counter.
+        this.evaluationContext = new EvaluationContext(assembly, 0, new Consumer<AssemblyMessage>() {
+            @Override
+            public void accept(AssemblyMessage message) {
+                ConstantFolder.this.messageRaised = true;
+            }
+        });
+    }
+
+    /**
+     * Folds the subexpressions of an expression that only involve literals.
+     *
+     * @param expression
+     *            the expression to fold
+     * @return the folded expression, or the specified expression if nothing could be folded
+     */
+    @Nonnull
+    public final Expression fold(@Nonnull Expression expression) {
+        // TODO: Compile integer-only trees that read symbols to an evaluator on primitive longs. This needs the integer semantics
+        // of the operators (signedness of the results, conversions), which are only available through Expression.evaluate().
+        if (expression instanceof UnaryOperatorExpression) {
+            final UnaryOperatorExpression unaryOperatorExpression = (UnaryOperatorExpression) expression;
+            final Expression operand = this.fold(unaryOperatorExpression.getOperand());
+            if (operand == unaryOperatorExpression.getOperand()) {
+                return this.foldIfLiteral(expression, isLiteral(operand));
+            }
+
+            return this.foldIfLiteral(new UnaryOperatorExpression(unaryOperatorExpression.getOperator(), operand),
+                    isLiteral(operand));
+        }
+
+        if (expression instanceof BinaryOperatorExpression) {
+            final BinaryOperatorExpression binaryOperatorExpression = (BinaryOperatorExpression) expression;
+            final Expression operand1 = this.fold(binaryOperatorExpression.getOperand1());
+            final Expression operand2 = this.fold(binaryOperatorExpression.getOperand2());
+            final boolean literal = isLiteral(operand1) && isLiteral(operand2);
+            if (operand1 == binaryOperatorExpression.getOperand1() && operand2 == binaryOperatorExpression.getOperand2()) {
+                return this.foldIfLiteral(expression, literal);
+            }
+
+            return this.foldIfLiteral(new BinaryOperatorExpression(binaryOperatorExpression.getOperator(), operand1, operand2),
+                    literal);
+        }
+
+        if (expression instanceof ConditionalExpression) {
+            final ConditionalExpression conditionalExpression = (ConditionalExpression) expression;
+            final Expression condition = this.fold(conditionalExpression.getCondition());
+            final Expression truePart = this.fold(conditionalExpression.getTruePart());
+            final Expression falsePart = this.fold(conditionalExpression.getFalsePart());
+            final boolean literal = isLiteral(condition) && isLiteral(truePart) && isLiteral(falsePart);
+            if (condition == conditionalExpression.getCondition() && truePart == conditionalExpression.getTruePart()
+                    && falsePart == conditionalExpression.getFalsePart()) {
+                return this.foldIfLiteral(expression, literal);
+            }
+
+            return this.foldIfLiteral(new ConditionalExpression(condition, truePart, falsePart), literal);
+        }
+
+        if (expression instanceof GroupingExpression) {
+            final Expression childExpression = ((GroupingExpression) expression).getChildExpression();
+            final Expression foldedChildExpression = this.fold(childExpression);
+            if (foldedChildExpression == childExpression) {
+                return expression;
+            }
+
+            return new GroupingExpression(foldedChildExpression);
+        }
+
+        return expression;
+    }
+
+    @CheckForNull
+    private Value evaluate(@Nonnull Expression expression) {
+        this.messageRaised = false;
+        final Value value = expression.evaluate(this.evaluationContext);
+        if (this.messageRaised) {
+            return null;
+        }
+
+        return value;
+    }
+
+    @Nonnull
+    private Expression foldIfLiteral(@Nonnull Expression expression, boolean literal) {
+        if (!literal) {
+            return expression;
+        }
+
+        final Value value = this.evaluate(expression);
+        if (value == null) {
+            return expression;
+        }
+
+        return new ValueExpression(value);
+    }
+
+}
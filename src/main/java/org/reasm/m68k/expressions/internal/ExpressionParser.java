@@ -52,28 +52,32 @@ public final class ExpressionParser {
             @CheckForNull Consumer<AssemblyMessage> assemblyMessageConsumer) throws InvalidTokenException {
         Expression expression = parseLevel3(tokenizer, symbolLookup, assemblyMessageConsumer);
         if (expression != null) {
-            Tokenizer tokenizer1;
-            for (;; tokenizer.copyFrom(tokenizer1)) {
+            for (;;) {
                 if (tokenizer.getTokenType() != TokenType.CONDITIONAL_OPERATOR_FIRST) {
                     break;
                 }
 
-                tokenizer1 = tokenizer.duplicateAndAdvance();
-                Expression truePart = parse(tokenizer1, symbolLookup, assemblyMessageConsumer);
+                final int mark = tokenizer.mark();
+                tokenizer.advance();
+                Expression truePart = parse(tokenizer, symbolLookup, assemblyMessageConsumer);
                 if (truePart == null) {
+                    tokenizer.reset(mark);
                     break;
                 }
 
-                if (tokenizer1.getTokenType() != TokenType.CONDITIONAL_OPERATOR_SECOND) {
+                if (tokenizer.getTokenType() != TokenType.CONDITIONAL_OPERATOR_SECOND) {
+                    tokenizer.reset(mark);
                     break;
                 }
 
-                tokenizer1.advance();
-                Expression falsePart = parse(tokenizer1, symbolLookup, assemblyMessageConsumer);
+                tokenizer.advance();
+                Expression falsePart = parse(tokenizer, symbolLookup, assemblyMessageConsumer);
                 if (falsePart == null) {
+                    tokenizer.reset(mark);
                     break;
                 }
 
+                tokenizer.release(mark);
                 expression = new ConditionalExpression(expression, truePart, falsePart);
             }
         }
@@ -258,17 +262,20 @@ public final class ExpressionParser {
             break;
 
         case OPENING_PARENTHESIS:
-            Tokenizer tokenizer1 = tokenizer.duplicateAndAdvance();
-            Expression childExpression = parse(tokenizer1, symbolLookup, assemblyMessageConsumer);
+            final int mark = tokenizer.mark();
+            tokenizer.advance();
+            Expression childExpression = parse(tokenizer, symbolLookup, assemblyMessageConsumer);
             if (childExpression == null) {
+                tokenizer.reset(mark);
                 return null;
             }
 
-            if (tokenizer1.getTokenType() != TokenType.CLOSING_PARENTHESIS) {
+            if (tokenizer.getTokenType() != TokenType.CLOSING_PARENTHESIS) {
+                tokenizer.reset(mark);
                 return null;
             }
 
-            tokenizer.copyFrom(tokenizer1);
+            tokenizer.release(mark);
             expression = new GroupingExpression(childExpression);
             break;
 
@@ -292,13 +299,15 @@ public final class ExpressionParser {
 
         if (tokenizer.getTokenType() == TokenType.PERIOD) {
             // Treat the period operator as a unary operator too.
-            final Tokenizer tokenizer1 = tokenizer.duplicateAndAdvance();
-            final Expression expression1 = parseLevel1(tokenizer1, symbolLookup, assemblyMessageConsumer);
+            final int mark = tokenizer.mark();
+            tokenizer.advance();
+            final Expression expression1 = parseLevel1(tokenizer, symbolLookup, assemblyMessageConsumer);
             if (expression1 != null) {
-                tokenizer.copyFrom(tokenizer1);
+                tokenizer.release(mark);
                 return new PeriodExpression(EMPTY_IDENTIFIER, expression1, symbolLookup);
             }
 
+            tokenizer.reset(mark);
             return null;
         }
 
@@ -324,36 +333,40 @@ public final class ExpressionParser {
             }
 
             if (operator != null) {
-                final Tokenizer tokenizer1 = tokenizer.duplicateAndAdvance();
-                final Expression expression1 = parseLevel1(tokenizer1, symbolLookup, assemblyMessageConsumer);
+                final int mark = tokenizer.mark();
+                tokenizer.advance();
+                final Expression expression1 = parseLevel1(tokenizer, symbolLookup, assemblyMessageConsumer);
                 if (expression1 != null) {
-                    tokenizer.copyFrom(tokenizer1);
+                    tokenizer.release(mark);
                     return new UnaryOperatorExpression(operator, expression1);
                 }
 
+                tokenizer.reset(mark);
                 return null;
             }
         }
 
         Expression expression = parseLevel0(tokenizer, symbolLookup, assemblyMessageConsumer);
         if (expression != null) {
-            Tokenizer tokenizer1;
-            outer: for (;; tokenizer.copyFrom(tokenizer1)) {
+            outer: for (;;) {
                 final TokenType tokenType = tokenizer.getTokenType();
+                final int mark;
                 switch (tokenType) {
                 case OPENING_PARENTHESIS:
-                    tokenizer1 = tokenizer.duplicateAndAdvance();
+                    mark = tokenizer.mark();
+                    tokenizer.advance();
 
                     // If the argument list is empty, return a function call expression with no arguments.
-                    if (tokenizer1.getTokenType() == TokenType.CLOSING_PARENTHESIS) {
-                        tokenizer1.advance();
+                    if (tokenizer.getTokenType() == TokenType.CLOSING_PARENTHESIS) {
+                        tokenizer.release(mark);
+                        tokenizer.advance();
                         expression = new FunctionCallExpression(expression, NO_ARGUMENTS);
                         continue;
                     }
 
                     final ArrayList<Expression> arguments = new ArrayList<>();
-                    for (; tokenizer1.getTokenType() != TokenType.END; tokenizer1.advance()) {
-                        final Expression argument = parse(tokenizer1, symbolLookup, assemblyMessageConsumer);
+                    for (; tokenizer.getTokenType() != TokenType.END; tokenizer.advance()) {
+                        final Expression argument = parse(tokenizer, symbolLookup, assemblyMessageConsumer);
 
                         // If we couldn't parse a valid argument, give up parsing the argument list.
                         if (argument == null) {
@@ -362,9 +375,10 @@ public final class ExpressionParser {
 
                         arguments.add(argument);
 
-                        final TokenType tokenType1 = tokenizer1.getTokenType();
+                        final TokenType tokenType1 = tokenizer.getTokenType();
                         if (tokenType1 == TokenType.CLOSING_PARENTHESIS) {
-                            tokenizer1.advance();
+                            tokenizer.release(mark);
+                            tokenizer.advance();
                             expression = new FunctionCallExpression(expression, arguments);
                             continue outer;
                         }
@@ -375,33 +389,41 @@ public final class ExpressionParser {
                         }
                     }
 
+                    tokenizer.reset(mark);
                     break outer;
 
                 case OPENING_BRACKET:
-                    tokenizer1 = tokenizer.duplicateAndAdvance();
+                    mark = tokenizer.mark();
+                    tokenizer.advance();
 
                     // Parse the index expression between the brackets.
-                    final Expression indexExpression = parse(tokenizer1, symbolLookup, assemblyMessageConsumer);
+                    final Expression indexExpression = parse(tokenizer, symbolLookup, assemblyMessageConsumer);
                     if (indexExpression == null) {
+                        tokenizer.reset(mark);
                         break outer;
                     }
 
-                    if (tokenizer1.getTokenType() != TokenType.CLOSING_BRACKET) {
+                    if (tokenizer.getTokenType() != TokenType.CLOSING_BRACKET) {
+                        tokenizer.reset(mark);
                         break outer;
                     }
 
-                    tokenizer1.advance();
+                    tokenizer.release(mark);
+                    tokenizer.advance();
                     expression = new IndexerExpression(expression, indexExpression, symbolLookup);
                     break;
 
                 case PERIOD:
-                    tokenizer1 = tokenizer.duplicateAndAdvance();
+                    mark = tokenizer.mark();
+                    tokenizer.advance();
 
-                    final Expression rightOperand = parseLevel0(tokenizer1, symbolLookup, assemblyMessageConsumer);
+                    final Expression rightOperand = parseLevel0(tokenizer, symbolLookup, assemblyMessageConsumer);
                     if (rightOperand == null) {
+                        tokenizer.reset(mark);
                         break outer;
                     }
 
+                    tokenizer.release(mark);
                     expression = new PeriodExpression(expression, rightOperand, symbolLookup);
                     break;
 
@@ -420,8 +442,7 @@ public final class ExpressionParser {
             throws InvalidTokenException {
         Expression expression = parseLevel1(tokenizer, symbolLookup, assemblyMessageConsumer);
         if (expression != null) {
-            Tokenizer tokenizer1;
-            for (;; tokenizer.copyFrom(tokenizer1)) {
+            for (;;) {
                 if (tokenizer.getTokenType() == TokenType.PLUS_OR_MINUS_SEQUENCE) {
                     tokenizer.breakSequence();
                 }
@@ -431,18 +452,20 @@ public final class ExpressionParser {
                     break;
                 }
 
-                tokenizer1 = tokenizer.duplicateAndAdvance();
-
                 // Honor operator precedence.
                 if (referenceOperator != null && operator.getPriority() >= referenceOperator.getPriority()) {
                     break;
                 }
 
-                final Expression rightOperand = parseLevel2(tokenizer1, symbolLookup, operator, assemblyMessageConsumer);
+                final int mark = tokenizer.mark();
+                tokenizer.advance();
+                final Expression rightOperand = parseLevel2(tokenizer, symbolLookup, operator, assemblyMessageConsumer);
                 if (rightOperand == null) {
+                    tokenizer.reset(mark);
                     break;
                 }
 
+                tokenizer.release(mark);
                 expression = new BinaryOperatorExpression(operator.getOperator(), expression, rightOperand);
             }
         }
@@ -458,8 +481,9 @@ public final class ExpressionParser {
 
         final CharSequence tokenText = tokenizer.getTokenText();
         if (tokenizer.getTokenType() == TokenType.PLUS_OR_MINUS_SEQUENCE) {
-            Tokenizer tokenizer1 = tokenizer.duplicateAndAdvance();
-            final TokenType tokenType = tokenizer1.getTokenType();
+            final int mark = tokenizer.mark();
+            tokenizer.advance();
+            final TokenType tokenType = tokenizer.getTokenType();
             switch (tokenType) {
             case END:
             case CLOSING_PARENTHESIS:
@@ -467,10 +491,11 @@ public final class ExpressionParser {
             case CONDITIONAL_OPERATOR_FIRST:
             case CONDITIONAL_OPERATOR_SECOND:
             case COMMA:
-                tokenizer.copyFrom(tokenizer1);
+                tokenizer.release(mark);
                 return new IdentifierExpression(tokenText.toString(), symbolLookup);
 
             default:
+                tokenizer.reset(mark);
                 break;
             }
         }
@@ -1,5 +1,7 @@
 package org.reasm.m68k.expressions.internal;
 
+import java.util.Arrays;
+
 import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
 
@@ -9,17 +11,45 @@ import org.reasm.m68k.source.M68KParser;
 
 /**
  * The tokenizer for expressions and effective addresses.
+ * <p>
+ * The parsers often need to read ahead and go back to an earlier token. To do so without allocating, they {@linkplain #mark()
+ * mark} the current state of the tokenizer, then either {@linkplain #reset(int) reset} the tokenizer to that state or
+ * {@linkplain #release(int) release} the mark. Marks are kept on a stack that grows as needed and is reused for the lifetime of
+ * the tokenizer, so a tokenizer that is reused for many expressions eventually stops allocating.
  *
  * @author Francis Gagné
  */
 public final class Tokenizer {
 
+    private static final int INITIAL_MARK_CAPACITY = 8;
+
+    // The stack of marks is only allocated when a mark is first made, so that duplicating a tokenizer stays cheap.
+    @Nonnull
+    private static final CharSequenceParserReader[] NO_READERS = new CharSequenceParserReader[0];
+    @Nonnull
+    private static final TokenType[] NO_TOKEN_TYPES = new TokenType[0];
+    @Nonnull
+    private static final int[] NO_INTS = new int[0];
+
     private CharSequenceParserReader reader;
     private int endOfBrokenSequence;
     private TokenType tokenType;
     private int tokenStart;
     private int tokenEnd;
 
+    // The stack of marks. The readers are reused from one mark to the next.
+    private int numberOfMarks;
+    @Nonnull
+    private CharSequenceParserReader[] markedReaders = NO_READERS;
+    @Nonnull
+    private int[] markedEndsOfBrokenSequence = NO_INTS;
+    @Nonnull
+    private TokenType[] markedTokenTypes = NO_TOKEN_TYPES;
+    @Nonnull
+    private int[] markedTokenStarts = NO_INTS;
+    @Nonnull
+    private int[] markedTokenEnds = NO_INTS;
+
     /**
      * Initializes a new Tokenizer.
      */
@@ -536,6 +566,66 @@ public final class Tokenizer {
         return this.tokenType;
     }
 
+    /**
+     * Saves the current state of this tokenizer on the stack of marks.
+     *
+     * @return the mark, to pass to {@link #reset(int)} or {@link #release(int)}
+     */
+    public final int mark() {
+        final int mark = this.numberOfMarks;
+        if (mark == this.markedReaders.length) {
+            final int newCapacity = Math.max(INITIAL_MARK_CAPACITY, mark * 2);
+            this.markedReaders = Arrays.copyOf(this.markedReaders, newCapacity);
+            this.markedEndsOfBrokenSequence = Arrays.copyOf(this.markedEndsOfBrokenSequence, newCapacity);
+            this.markedTokenTypes = Arrays.copyOf(this.markedTokenTypes, newCapacity);
+            this.markedTokenStarts = Arrays.copyOf(this.markedTokenStarts, newCapacity);
+            this.markedTokenEnds = Arrays.copyOf(this.markedTokenEnds, newCapacity);
+        }
+
+        // A reader can only copy the state of a reader that reads from the same CharSequence.
+        final CharSequenceParserReader markedReader = this.markedReaders[mark];
+        if (markedReader == null || markedReader.getCharSequence() != this.reader.getCharSequence()) {
+            this.markedReaders[mark] = this.reader.duplicate();
+        } else {
+            markedReader.copyFrom(this.reader);
+        }
+
+        this.markedEndsOfBrokenSequence[mark] = this.endOfBrokenSequence;
+        this.markedTokenTypes[mark] = this.tokenType;
+        this.markedTokenStarts[mark] = this.tokenStart;
+        this.markedTokenEnds[mark] = this.tokenEnd;
+        this.numberOfMarks = mark + 1;
+        return mark;
+    }
+
+    /**
+     * Discards a mark, and the marks that were made after it, without changing the current state of this tokenizer.
+     *
+     * @param mark
+     *            the mark returned by {@link #mark()}
+     */
+    public final void release(int mark) {
+        this.checkMark(mark);
+        this.numberOfMarks = mark;
+    }
+
+    /**
+     * Restores the state of this tokenizer to the state it was in when a mark was made, then discards that mark and the marks
+     * that were made after it.
+     *
+     * @param mark
+     *            the mark returned by {@link #mark()}
+     */
+    public final void reset(int mark) {
+        this.checkMark(mark);
+        this.reader.copyFrom(this.markedReaders[mark]);
+        this.endOfBrokenSequence = this.markedEndsOfBrokenSequence[mark];
+        this.tokenType = this.markedTokenTypes[mark];
+        this.tokenStart = this.markedTokenStarts[mark];
+        this.tokenEnd = this.markedTokenEnds[mark];
+        this.numberOfMarks = mark;
+    }
+
     /**
      * Sets that {@link CharSequence} this tokenizer will read from. The first token is parsed.
      *
@@ -549,6 +639,7 @@ public final class Tokenizer {
 
         this.reader = new CharSequenceParserReader(charSequence);
         this.endOfBrokenSequence = -1;
+        this.numberOfMarks = 0;
         this.setToken(TokenType.END, 0, 0);
         this.advance();
     }
@@ -589,6 +680,12 @@ public final class Tokenizer {
         return true;
     }
 
+    private final void checkMark(int mark) {
+        if (mark < 0 || mark >= this.numberOfMarks) {
+            throw new IllegalArgumentException("mark");
+        }
+    }
+
     /**
      * Advances the reader until a code point that is not valid for an identifier is found.
      */
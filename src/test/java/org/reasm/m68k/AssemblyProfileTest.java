@@ -0,0 +1,171 @@
+package org.reasm.m68k;
+
+import static org.hamcrest.Matchers.hasEntry;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.annotation.Nonnull;
+
+import org.junit.Test;
+import org.reasm.Assembly;
+import org.reasm.AssemblyCompletionStatus;
+import org.reasm.Configuration;
+import org.reasm.Environment;
+import org.reasm.source.SourceFile;
+
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Test class for {@link AssemblyProfile}.
+ *
+ * @author Francis Gagné
+ */
+public class AssemblyProfileTest {
+
+    @Nonnull
+    private static AssemblyProfile assemble(@Nonnull String code) throws IOException {
+        return assemble(code, Collections.<String, Object> emptyMap());
+    }
+
+    @Nonnull
+    private static AssemblyProfile assemble(@Nonnull String code, @Nonnull Map<String, Object> options) throws IOException {
+        return assemble(code, options, new ByteArrayOutputStream());
+    }
+
+    @Nonnull
+    private static AssemblyProfile assemble(@Nonnull String code, @Nonnull Map<String, Object> options,
+            @Nonnull ByteArrayOutputStream out) throws IOException {
+        final AssemblyProfile profile = new AssemblyProfile();
+        final HashMap<String, Object> m68kOptions = new HashMap<>(options);
+        m68kOptions.put(ConfigurationOptions.PROFILE, profile);
+        final ConfigurationOptions configurationOptions = ConfigurationOptions.create(m68kOptions,
+                ConfigurationOptionsTest.FAILING_CONSUMER);
+        final Configuration configuration = new Configuration(Environment.DEFAULT, new SourceFile(code, null),
+                M68KArchitecture.MC68000).setCustomConfigurationOptions(ImmutableMap.<Object, Object> of(ConfigurationOptions.KEY,
+                configurationOptions));
+        final Assembly assembly = new Assembly(configuration);
+        while (assembly.step() != AssemblyCompletionStatus.COMPLETE) {
+        }
+
+        assembly.writeAssembledDataTo(out);
+        return profile;
+    }
+
+    /**
+     * Asserts that the branch relaxation enlarges the branches that other branches push out of range before the next pass, and
+     * that it records them in the {@link AssemblyProfile}.
+     *
+     * @throws IOException
+     *             an I/O exception occurred
+     */
+    @Test
+    public void branchRelaxation() throws IOException {
+        // The third branch is a word branch. It pushes the target of the second branch out of range, which then pushes the
+        // target of the first branch out of range. Without the relaxation, each of these would take a pass.
+        final AssemblyProfile profile = assemble(" BRA L0\n DCB.B 98,0\n BRA L1\n DCB.B 26,0\nL0:\n BRA L2\n DCB.B 98,0\nL1:\n"
+                + " DCB.B 200,0\nL2:", Collections.<String, Object> singletonMap(ConfigurationOptions.OPTIMIZE_UNSIZED_BRANCHES,
+                true));
+        assertThat(profile.getRelaxedBranches(), is(2L));
+        assertThat(profile.getPasses(), is(4));
+    }
+
+    /**
+     * Asserts that the assembler records expression parses and evaluations in the {@link AssemblyProfile}, and that operands
+     * are not parsed again on subsequent passes.
+     *
+     * @throws IOException
+     *             an I/O exception occurred
+     */
+    @Test
+    public void expressions() throws IOException {
+        final AssemblyProfile profile = assemble(" DC.B W\nW EQU 1");
+        assertThat(profile.getPasses(), is(2));
+        assertThat(profile.getExpressionParses(), is(2L));
+        assertThat(profile.getExpressionEvaluations(), is(4L));
+    }
+
+    /**
+     * Asserts that the assembler lays out instructions on passes that are known not to be the last one, and that it records them
+     * in the {@link AssemblyProfile}.
+     *
+     * @throws IOException
+     *             an I/O exception occurred
+     */
+    @Test
+    public void laidOutInstructions() throws IOException {
+        // A changes on the second pass, after it was read: the NOPs that follow are laid out.
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final AssemblyProfile profile = assemble(" DC.W A\n MOVE.W C,D0\nA: NOP\n NOP\nC EQU $12345",
+                Collections.<String, Object> singletonMap(ConfigurationOptions.LAYOUT_PASSES, true), out);
+        assertThat(profile.getLaidOutInstructions(), is(2L));
+        assertThat(profile.getPasses(), is(3));
+
+        // The last pass encodes every instruction.
+        assertThat(out.toByteArray(), is(new byte[] { 0x00, 0x08, 0x30, 0x39, 0x00, 0x01, 0x23, 0x45, 0x4E, 0x71, 0x4E, 0x71 }));
+    }
+
+    /**
+     * Asserts that the assembler records macro expansions in the {@link AssemblyProfile}.
+     *
+     * @throws IOException
+     *             an I/O exception occurred
+     */
+    @Test
+    public void macroExpansions() throws IOException {
+        final AssemblyProfile profile = assemble("A MACRO\n NOP\n ENDM\n A\n A");
+        assertThat(profile.getMacroExpansionCounts(), is(ImmutableMap.of("A", 2L)));
+        assertThat(profile.getMnemonicCounts(), hasEntry("NOP", 2L));
+    }
+
+    /**
+     * Asserts that the assembler records the mnemonics that are assembled in the {@link AssemblyProfile}.
+     *
+     * @throws IOException
+     *             an I/O exception occurred
+     */
+    @Test
+    public void mnemonics() throws IOException {
+        final AssemblyProfile profile = assemble(" NOP\n MOVE.W D0,D1\n NOP");
+        assertThat(profile.getMnemonicCounts(), is(ImmutableMap.of("MOVE", 1L, "NOP", 2L)));
+        assertThat(profile.getMnemonicNanoseconds().size(), is(2));
+        assertThat(profile.getMacroExpansionCounts().isEmpty(), is(true));
+        assertThat(profile.getPasses(), is(1));
+    }
+
+    /**
+     * Asserts that the assembler records the number of passes in the {@link AssemblyProfile}.
+     *
+     * @throws IOException
+     *             an I/O exception occurred
+     */
+    @Test
+    public void passes() throws IOException {
+        // W is resolved one pass later than X, which is resolved one pass later than Y, etc.
+        final AssemblyProfile profile = assemble(" DC.B W\nW EQU X\nX EQU Y\nY EQU Z\nZ EQU 1");
+        assertThat(profile.getPasses(), is(5));
+        assertThat(profile.getMnemonicCounts(), hasEntry("EQU", 20L));
+    }
+
+    /**
+     * Asserts that the assembler replays the output of the instructions whose inputs didn't change since the previous pass, and
+     * that it records them in the {@link AssemblyProfile}.
+     *
+     * @throws IOException
+     *             an I/O exception occurred
+     */
+    @Test
+    public void replayedInstructions() throws IOException {
+        // W is undefined on the first pass, so there is a second pass, on which the instructions are replayed.
+        final AssemblyProfile profile = assemble(" DC.W W\n MOVE.W D0,D1\n NOP\nW EQU 1");
+        assertThat(profile.getReplayedInstructions(), is(2L));
+        assertThat(profile.getMnemonicCounts(), hasEntry("NOP", 2L));
+        assertThat(profile.getPasses(), is(2));
+    }
+
+}
@@ -1,6 +1,7 @@
 package org.reasm.m68k;
 
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
 import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.fail;
@@ -72,6 +73,16 @@ public class ConfigurationOptionsTest {
         return configurationOptions;
     }
 
+    private static void layoutPasses(boolean value) {
+        final ConfigurationOptions configurationOptions = validOption(ConfigurationOptions.LAYOUT_PASSES, value);
+        assertThat(configurationOptions.layoutPasses(), is(value));
+    }
+
+    private static void memoryMappedIncbin(boolean value) {
+        final ConfigurationOptions configurationOptions = validOption(ConfigurationOptions.MEMORY_MAPPED_INCBIN, value);
+        assertThat(configurationOptions.memoryMappedIncbin(), is(value));
+    }
+
     private static void optimizeCmpiToTst(boolean value) {
         final ConfigurationOptions configurationOptions = validOption(ConfigurationOptions.OPTIMIZE_CMPI_TO_TST, value);
         assertThat(configurationOptions.optimizeCmpiToTst(), is(value));
@@ -148,12 +159,16 @@ public class ConfigurationOptionsTest {
         final Map<String, Object> optionsMap = new HashMap<>();
         final ConfigurationOptions configurationOptions = ConfigurationOptions.create(optionsMap, FAILING_CONSUMER);
         assertThat(configurationOptions.automaticEven(), is(false));
+        assertThat(configurationOptions.incrementalCache(), is(nullValue()));
+        assertThat(configurationOptions.layoutPasses(), is(false));
+        assertThat(configurationOptions.memoryMappedIncbin(), is(false));
         assertThat(configurationOptions.optimizeCmpiToTst(), is(false));
         assertThat(configurationOptions.optimizeMoveToMoveq(), is(false));
         assertThat(configurationOptions.optimizeToAddqSubq(), is(false));
         assertThat(configurationOptions.optimizeUnsizedAbsoluteAddressingToPcRelative(), is(false));
         assertThat(configurationOptions.optimizeUnsizedBranches(), is(false));
         assertThat(configurationOptions.optimizeZeroDisplacement(), is(false));
+        assertThat(configurationOptions.profile(), is(nullValue()));
     }
 
     /**
@@ -187,6 +202,93 @@ public class ConfigurationOptionsTest {
         ConfigurationOptions.create(null, FAILING_CONSUMER);
     }
 
+    /**
+     * Asserts that {@link ConfigurationOptions#create(Map, Consumer)} treats the {@link ConfigurationOptions#INCREMENTAL_CACHE}
+     * option set to an {@link Object} value as invalid.
+     */
+    @Test
+    public void incrementalCacheBad() {
+        final InvalidEntriesConsumer invalidEntriesConsumer = new InvalidEntriesConsumer(ConfigurationOptions.INCREMENTAL_CACHE);
+        final ConfigurationOptions configurationOptions = invalidOption(ConfigurationOptions.INCREMENTAL_CACHE,
+                invalidEntriesConsumer);
+        invalidEntriesConsumer.assertGotExpectedEntry();
+        assertThat(configurationOptions.incrementalCache(), is(nullValue()));
+    }
+
+    /**
+     * Asserts that {@link ConfigurationOptions#incrementalCache()} returns the {@link IncrementalAssemblyCache} that was specified
+     * in the {@link ConfigurationOptions#INCREMENTAL_CACHE} option when the {@link ConfigurationOptions} was created.
+     */
+    @Test
+    public void incrementalCacheValid() {
+        final IncrementalAssemblyCache incrementalCache = new IncrementalAssemblyCache();
+        final ConfigurationOptions configurationOptions = validOption(ConfigurationOptions.INCREMENTAL_CACHE, incrementalCache);
+        assertThat(configurationOptions.incrementalCache(), is(sameInstance(incrementalCache)));
+    }
+
+    /**
+     * Asserts that {@link ConfigurationOptions#create(Map, Consumer)} treats the {@link ConfigurationOptions#LAYOUT_PASSES} option
+     * set to an {@link Object} value as invalid.
+     */
+    @Test
+    public void layoutPassesBad() {
+        final InvalidEntriesConsumer invalidEntriesConsumer = new InvalidEntriesConsumer(ConfigurationOptions.LAYOUT_PASSES);
+        final ConfigurationOptions configurationOptions = invalidOption(ConfigurationOptions.LAYOUT_PASSES, invalidEntriesConsumer);
+        invalidEntriesConsumer.assertGotExpectedEntry();
+        assertThat(configurationOptions.layoutPasses(), is(false));
+    }
+
+    /**
+     * Asserts that {@link ConfigurationOptions#layoutPasses()} returns <code>false</code> when the {@link ConfigurationOptions}
+     * is created with the {@link ConfigurationOptions#LAYOUT_PASSES} option set to <code>false</code>.
+     */
+    @Test
+    public void layoutPassesFalse() {
+        layoutPasses(false);
+    }
+
+    /**
+     * Asserts that {@link ConfigurationOptions#layoutPasses()} returns <code>true</code> when the {@link ConfigurationOptions}
+     * is created with the {@link ConfigurationOptions#LAYOUT_PASSES} option set to <code>true</code>.
+     */
+    @Test
+    public void layoutPassesTrue() {
+        layoutPasses(true);
+    }
+
+    /**
+     * Asserts that {@link ConfigurationOptions#create(Map, Consumer)} treats the {@link ConfigurationOptions#MEMORY_MAPPED_INCBIN}
+     * option set to an {@link Object} value as invalid.
+     */
+    @Test
+    public void memoryMappedIncbinBad() {
+        final InvalidEntriesConsumer invalidEntriesConsumer = new InvalidEntriesConsumer(ConfigurationOptions.MEMORY_MAPPED_INCBIN);
+        final ConfigurationOptions configurationOptions = invalidOption(ConfigurationOptions.MEMORY_MAPPED_INCBIN,
+                invalidEntriesConsumer);
+        invalidEntriesConsumer.assertGotExpectedEntry();
+        assertThat(configurationOptions.memoryMappedIncbin(), is(false));
+    }
+
+    /**
+     * Asserts that {@link ConfigurationOptions#memoryMappedIncbin()} returns <code>false</code> when the
+     * {@link ConfigurationOptions} is created with the {@link ConfigurationOptions#MEMORY_MAPPED_INCBIN} option set to
+     * <code>false</code>.
+     */
+    @Test
+    public void memoryMappedIncbinFalse() {
+        memoryMappedIncbin(false);
+    }
+
+    /**
+     * Asserts that {@link ConfigurationOptions#memoryMappedIncbin()} returns <code>true</code> when the
+     * {@link ConfigurationOptions} is created with the {@link ConfigurationOptions#MEMORY_MAPPED_INCBIN} option set to
+     * <code>true</code>.
+     */
+    @Test
+    public void memoryMappedIncbinTrue() {
+        memoryMappedIncbin(true);
+    }
+
     /**
      * Asserts that {@link ConfigurationOptions#create(Map, Consumer)} treats the {@link ConfigurationOptions#OPTIMIZE_CMPI_TO_TST}
      * option set to an {@link Object} value as invalid.
@@ -389,4 +491,27 @@ public class ConfigurationOptionsTest {
         optimizeZeroDisplacement(true);
     }
 
+    /**
+     * Asserts that {@link ConfigurationOptions#create(Map, Consumer)} treats the {@link ConfigurationOptions#PROFILE} option set to
+     * an {@link Object} value as invalid.
+     */
+    @Test
+    public void profileBad() {
+        final InvalidEntriesConsumer invalidEntriesConsumer = new InvalidEntriesConsumer(ConfigurationOptions.PROFILE);
+        final ConfigurationOptions configurationOptions = invalidOption(ConfigurationOptions.PROFILE, invalidEntriesConsumer);
+        invalidEntriesConsumer.assertGotExpectedEntry();
+        assertThat(configurationOptions.profile(), is(nullValue()));
+    }
+
+    /**
+     * Asserts that {@link ConfigurationOptions#profile()} returns the {@link AssemblyProfile} that was specified in the
+     * {@link ConfigurationOptions#PROFILE} option when the {@link ConfigurationOptions} was created.
+     */
+    @Test
+    public void profileValid() {
+        final AssemblyProfile profile = new AssemblyProfile();
+        final ConfigurationOptions configurationOptions = validOption(ConfigurationOptions.PROFILE, profile);
+        assertThat(configurationOptions.profile(), is(sameInstance(profile)));
+    }
+
 }
@@ -0,0 +1,221 @@
+package org.reasm.m68k;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+import org.junit.Test;
+import org.reasm.Assembly;
+import org.reasm.AssemblyCompletionStatus;
+import org.reasm.Configuration;
+import org.reasm.Environment;
+import org.reasm.UserSymbol;
+import org.reasm.m68k.messages.MultipleOperandPacksInMacroDefinitionErrorMessage;
+import org.reasm.source.SourceFile;
+
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Test class for {@link IncrementalAssemblyCache}.
+ *
+ * @author Francis Gagné
+ */
+public class IncrementalAssemblyCacheTest {
+
+    @Nonnull
+    private static final String MACRO_PROGRAM = "A MACRO X\n DC.W X\n ENDM\nB MACRO\n MOVE.W D0,D1\n ENDM\n A 1\n B\n A 2\n B";
+    @Nonnull
+    private static final byte[] MACRO_PROGRAM_OUTPUT = new byte[] { 0x00, 0x01, 0x32, 0x00, 0x00, 0x02, 0x32, 0x00 };
+
+    @Nonnull
+    private static Assembly assemble(@Nonnull SourceFile sourceFile, @CheckForNull IncrementalAssemblyCache incrementalCache) {
+        return assemble(sourceFile, incrementalCache, null);
+    }
+
+    @Nonnull
+    private static Assembly assemble(@Nonnull SourceFile sourceFile, @CheckForNull IncrementalAssemblyCache incrementalCache,
+            @CheckForNull AssemblyProfile profile) {
+        final Map<String, Object> options = new HashMap<>();
+        if (incrementalCache != null) {
+            options.put(ConfigurationOptions.INCREMENTAL_CACHE, incrementalCache);
+        }
+
+        if (profile != null) {
+            options.put(ConfigurationOptions.PROFILE, profile);
+        }
+
+        final ConfigurationOptions configurationOptions = ConfigurationOptions.create(options,
+                ConfigurationOptionsTest.FAILING_CONSUMER);
+        final Configuration configuration = new Configuration(Environment.DEFAULT, sourceFile, M68KArchitecture.MC68000)
+                .setCustomConfigurationOptions(ImmutableMap.<Object, Object> of(ConfigurationOptions.KEY, configurationOptions));
+        final Assembly assembly = new Assembly(configuration);
+        while (assembly.step() != AssemblyCompletionStatus.COMPLETE) {
+        }
+
+        return assembly;
+    }
+
+    @Nonnull
+    private static byte[] getOutput(@Nonnull Assembly assembly) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assembly.writeAssembledDataTo(out);
+        return out.toByteArray();
+    }
+
+    @Nonnull
+    private static Object getSymbolValue(@Nonnull Assembly assembly, @Nonnull String name) {
+        for (UserSymbol symbol : assembly.getSymbols()) {
+            if (name.equals(symbol.getName())) {
+                return symbol.getValue();
+            }
+        }
+
+        throw new AssertionError("Symbol " + name + " not found");
+    }
+
+    /**
+     * Asserts that assembling a program whose source file has changed with an {@link IncrementalAssemblyCache} that was used for a
+     * previous version of the program produces the same result as assembling it from scratch.
+     *
+     * @throws IOException
+     *             an I/O exception occurred
+     */
+    @Test
+    public void changedSource() throws IOException {
+        final IncrementalAssemblyCache incrementalCache = new IncrementalAssemblyCache();
+        assemble(new SourceFile(MACRO_PROGRAM, null), incrementalCache);
+
+        final Assembly assembly = assemble(new SourceFile(MACRO_PROGRAM.replace("DC.W X", "DC.W X+1"), null), incrementalCache);
+        assertThat(getOutput(assembly), is(new byte[] { 0x00, 0x02, 0x32, 0x00, 0x00, 0x03, 0x32, 0x00 }));
+        assertThat(assembly.getMessages().isEmpty(), is(true));
+    }
+
+    /**
+     * Asserts that the messages that are raised when a macro is defined are raised again when the macro is reused by an assembly
+     * with an {@link IncrementalAssemblyCache}.
+     */
+    @Test
+    public void definitionMessages() {
+        final SourceFile sourceFile = new SourceFile("A MACRO X,...,...\n NOP\n ENDM", null);
+        final IncrementalAssemblyCache incrementalCache = new IncrementalAssemblyCache();
+        final Assembly firstAssembly = assemble(sourceFile, incrementalCache);
+        final Assembly secondAssembly = assemble(sourceFile, incrementalCache);
+        assertThat(firstAssembly.getMessages(), hasSize(1));
+        assertThat(firstAssembly.getMessages().get(0), is(instanceOf(MultipleOperandPacksInMacroDefinitionErrorMessage.class)));
+        assertThat(secondAssembly.getMessages(), hasSize(1));
+        assertThat(secondAssembly.getMessages().get(0), is(instanceOf(MultipleOperandPacksInMacroDefinitionErrorMessage.class)));
+    }
+
+    /**
+     * Asserts that assembling successive edits of a source file with the same {@link IncrementalAssemblyCache} produces the same
+     * result as assembling each version of the source file from scratch. The parsed forms of the edited source files are produced
+     * by {@link M68KArchitecture#reparse(ca.fragag.text.Document, org.reasm.source.AbstractSourceFile, int, int, int)}.
+     *
+     * @throws IOException
+     *             an I/O exception occurred
+     */
+    @Test
+    public void editedSource() throws IOException {
+        final IncrementalAssemblyCache incrementalCache = new IncrementalAssemblyCache();
+        final SourceFile sourceFile = new SourceFile(MACRO_PROGRAM, null);
+        assertThat(getOutput(assemble(sourceFile, incrementalCache)), is(MACRO_PROGRAM_OUTPUT));
+
+        // Edit an invocation, after the macro definitions.
+        final SourceFile firstEdit = sourceFile.replaceText(MACRO_PROGRAM.indexOf(" A 2") + 3, 1, "3");
+        final Assembly firstAssembly = assemble(firstEdit, incrementalCache);
+        final byte[] firstOutput = new byte[] { 0x00, 0x01, 0x32, 0x00, 0x00, 0x03, 0x32, 0x00 };
+        assertThat(getOutput(firstAssembly), is(firstOutput));
+        assertThat(firstAssembly.getMessages().isEmpty(), is(true));
+        final String firstText = MACRO_PROGRAM.replace(" A 2", " A 3");
+        assertThat(getOutput(assemble(new SourceFile(firstText, null), null)), is(firstOutput));
+
+        // Edit the body of the first macro, which moves the second macro.
+        final SourceFile secondEdit = firstEdit.replaceText(MACRO_PROGRAM.indexOf("DC.W X") + 6, 0, "+1");
+        final Assembly secondAssembly = assemble(secondEdit, incrementalCache);
+        final byte[] secondOutput = new byte[] { 0x00, 0x02, 0x32, 0x00, 0x00, 0x04, 0x32, 0x00 };
+        assertThat(getOutput(secondAssembly), is(secondOutput));
+        assertThat(secondAssembly.getMessages().isEmpty(), is(true));
+        assertThat(getOutput(assemble(new SourceFile(firstText.replace("DC.W X", "DC.W X+1"), null), null)), is(secondOutput));
+    }
+
+    /**
+     * Asserts that the output of the instructions on the lines that were not edited is replayed from the
+     * {@link IncrementalAssemblyCache} when the symbols they read still have the same value, and that the result is the same as
+     * assembling the edited source file from scratch.
+     *
+     * @throws IOException
+     *             an I/O exception occurred
+     */
+    @Test
+    public void instructionsReplayed() throws IOException {
+        final String text = "X EQU 1\n MOVE.W #X,D1\n NOP\n MOVEQ #1,D0";
+        final IncrementalAssemblyCache incrementalCache = new IncrementalAssemblyCache();
+        final SourceFile sourceFile = new SourceFile(text, null);
+        final AssemblyProfile firstProfile = new AssemblyProfile();
+        assertThat(getOutput(assemble(sourceFile, incrementalCache, firstProfile)), is(new byte[] { 0x32, 0x3C, 0x00, 0x01,
+                0x4E, 0x71, 0x70, 0x01 }));
+        assertThat(firstProfile.getReplayedInstructions(), is(0L));
+
+        // Assemble the same source file again: all the instructions are replayed.
+        final AssemblyProfile secondProfile = new AssemblyProfile();
+        assertThat(getOutput(assemble(sourceFile, incrementalCache, secondProfile)), is(new byte[] { 0x32, 0x3C, 0x00, 0x01,
+                0x4E, 0x71, 0x70, 0x01 }));
+        assertThat(secondProfile.getReplayedInstructions(), is(3L));
+
+        // Change the value of X: the MOVE instruction, which reads X, is assembled again.
+        final SourceFile edit = sourceFile.replaceText(text.indexOf('1'), 1, "2");
+        final AssemblyProfile thirdProfile = new AssemblyProfile();
+        final Assembly assembly = assemble(edit, incrementalCache, thirdProfile);
+        final byte[] output = new byte[] { 0x32, 0x3C, 0x00, 0x02, 0x4E, 0x71, 0x70, 0x01 };
+        assertThat(getOutput(assembly), is(output));
+        assertThat(assembly.getMessages().isEmpty(), is(true));
+        assertThat(thirdProfile.getReplayedInstructions(), is(2L));
+        assertThat(getOutput(assemble(new SourceFile(text.replace("EQU 1", "EQU 2"), null), null)), is(output));
+    }
+
+    /**
+     * Asserts that macros are reused when a source file that hasn't changed is assembled again with the same
+     * {@link IncrementalAssemblyCache}, and that the result is the same.
+     *
+     * @throws IOException
+     *             an I/O exception occurred
+     */
+    @Test
+    public void unchangedSource() throws IOException {
+        final SourceFile sourceFile = new SourceFile(MACRO_PROGRAM, null);
+        final IncrementalAssemblyCache incrementalCache = new IncrementalAssemblyCache();
+        final Assembly firstAssembly = assemble(sourceFile, incrementalCache);
+        final Assembly secondAssembly = assemble(sourceFile, incrementalCache);
+        assertThat(getOutput(firstAssembly), is(MACRO_PROGRAM_OUTPUT));
+        assertThat(getOutput(secondAssembly), is(MACRO_PROGRAM_OUTPUT));
+        assertThat(getSymbolValue(secondAssembly, "A"), is(sameInstance(getSymbolValue(firstAssembly, "A"))));
+        assertThat(getSymbolValue(secondAssembly, "B"), is(sameInstance(getSymbolValue(firstAssembly, "B"))));
+    }
+
+    /**
+     * Asserts that macros are not reused when a program is assembled again without an {@link IncrementalAssemblyCache}.
+     *
+     * @throws IOException
+     *             an I/O exception occurred
+     */
+    @Test
+    public void withoutCache() throws IOException {
+        final SourceFile sourceFile = new SourceFile(MACRO_PROGRAM, null);
+        final Assembly firstAssembly = assemble(sourceFile, null);
+        final Assembly secondAssembly = assemble(sourceFile, null);
+        assertThat(getOutput(secondAssembly), is(MACRO_PROGRAM_OUTPUT));
+        assertThat(getSymbolValue(secondAssembly, "A"), is(not(sameInstance(getSymbolValue(firstAssembly, "A")))));
+    }
+
+}
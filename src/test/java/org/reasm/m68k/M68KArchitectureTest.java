@@ -3,6 +3,7 @@ package org.reasm.m68k;
 import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
@@ -13,6 +14,7 @@ import static org.junit.Assert.fail;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 import javax.annotation.Nonnull;
 
@@ -20,6 +22,7 @@ import org.hamcrest.Matcher;
 import org.junit.Test;
 import org.reasm.*;
 import org.reasm.source.SourceFile;
+import org.reasm.source.SourceNode;
 import org.reasm.testhelpers.UserSymbolMatcher;
 
 import ca.fragag.Consumer;
@@ -176,4 +179,48 @@ public class M68KArchitectureTest {
                 equalTo("68000"), equalTo("MC68000"), equalTo("68008"), equalTo("MC68008"))));
     }
 
+    /**
+     * Asserts that {@link M68KArchitecture#parseAll(java.util.Collection, ForkJoinPool)} parses all the specified source files and
+     * caches their parsed forms in the source files.
+     */
+    @Test
+    public void parseAll() {
+        final ArrayList<SourceFile> sourceFiles = new ArrayList<>();
+        final ArrayList<Integer> lengths = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            final String code = " MOVE.W D0,D1\n DC.B " + i + "\n IF 1\n NOP\n ENDIF\n";
+            sourceFiles.add(new SourceFile(code, "file" + i));
+            lengths.add(code.length());
+        }
+
+        final List<SourceNode> parsed;
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            parsed = M68KArchitecture.MC68000.parseAll(sourceFiles, pool);
+        } finally {
+            pool.shutdown();
+        }
+
+        assertThat(parsed, hasSize(sourceFiles.size()));
+        for (int i = 0; i < sourceFiles.size(); i++) {
+            assertThat(parsed.get(i), is(notNullValue()));
+            assertThat(parsed.get(i).getLength(), is(lengths.get(i).intValue()));
+            assertThat(sourceFiles.get(i).getParsed(M68KArchitecture.MC68000), is(sameInstance(parsed.get(i))));
+        }
+    }
+
+    /**
+     * Asserts that {@link M68KArchitecture#parseAll(java.util.Collection, ForkJoinPool)} throws a {@link NullPointerException}
+     * when the <code>sourceFiles</code> argument is <code>null</code>.
+     */
+    @Test(expected = NullPointerException.class)
+    public void parseAllNullSourceFiles() {
+        final ForkJoinPool pool = new ForkJoinPool(1);
+        try {
+            M68KArchitecture.MC68000.parseAll(null, pool);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
 }
@@ -0,0 +1,138 @@
+package org.reasm.m68k;
+
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import javax.annotation.Nonnull;
+
+import org.junit.Test;
+import org.reasm.Environment;
+import org.reasm.FileFetcher;
+import org.reasm.m68k.MultiVariantBuild.Variant;
+import org.reasm.m68k.MultiVariantBuild.VariantResult;
+import org.reasm.source.SourceFile;
+
+/**
+ * Test class for {@link MultiVariantBuild}.
+ *
+ * @author Francis Gagné
+ */
+public class MultiVariantBuildTest {
+
+    @Nonnull
+    private static ConfigurationOptions createConfigurationOptions(@Nonnull String optionName) {
+        return ConfigurationOptions.create(Collections.<String, Object> singletonMap(optionName, true),
+                ConfigurationOptionsTest.FAILING_CONSUMER);
+    }
+
+    /**
+     * Asserts that {@link MultiVariantBuild#assemble(List, ForkJoinPool)} assembles the program for each variant and returns the
+     * results in the same order as the variants.
+     *
+     * @throws IOException
+     *             an I/O exception occurred
+     */
+    @Test
+    public void assemble() throws IOException {
+        final Variant mc68000 = new Variant(M68KArchitecture.MC68000,
+                createConfigurationOptions(ConfigurationOptions.AUTOMATIC_EVEN));
+        final Variant mc68020 = new Variant(M68KArchitecture.MC68020,
+                createConfigurationOptions(ConfigurationOptions.OPTIMIZE_MOVE_TO_MOVEQ));
+        final Variant cpu32 = new Variant(M68KArchitecture.CPU32,
+                createConfigurationOptions(ConfigurationOptions.AUTOMATIC_EVEN));
+
+        final MultiVariantBuild build = new MultiVariantBuild(Environment.DEFAULT,
+                new SourceFile(" MOVE.L #1,D0\n EXTB D0", null), null);
+        final ForkJoinPool pool = new ForkJoinPool(2);
+        final List<VariantResult> results;
+        try {
+            results = build.assemble(Arrays.asList(mc68000, mc68020, cpu32), pool);
+        } finally {
+            pool.shutdown();
+        }
+
+        assertThat(results, hasSize(3));
+
+        assertThat(results.get(0).getVariant(), is(sameInstance(mc68000)));
+        assertThat(results.get(0).getOutput(), is(new byte[] { 0x20, 0x3C, 0x00, 0x00, 0x00, 0x01, 0x49, (byte) 0xC0 }));
+        assertThat(results.get(0).getMessages(), hasSize(1));
+
+        assertThat(results.get(1).getVariant(), is(sameInstance(mc68020)));
+        assertThat(results.get(1).getOutput(), is(new byte[] { 0x70, 0x01, 0x49, (byte) 0xC0 }));
+        assertThat(results.get(1).getMessages(), is(empty()));
+
+        assertThat(results.get(2).getVariant(), is(sameInstance(cpu32)));
+        assertThat(results.get(2).getOutput(), is(new byte[] { 0x20, 0x3C, 0x00, 0x00, 0x00, 0x01, 0x49, (byte) 0xC0 }));
+        assertThat(results.get(2).getMessages(), is(empty()));
+    }
+
+    /**
+     * Asserts that {@link MultiVariantBuild#assemble(List, ForkJoinPool)} fetches the included files through the file fetcher.
+     *
+     * @throws IOException
+     *             an I/O exception occurred
+     */
+    @Test
+    public void assembleWithFileFetcher() throws IOException {
+        final FileFetcher fileFetcher = new FileFetcher() {
+            @Override
+            public byte[] fetchBinaryFile(String filePath) throws IOException {
+                return new byte[] { 0x4E, 0x71 };
+            }
+
+            @Override
+            public SourceFile fetchSourceFile(String filePath) throws IOException {
+                return new SourceFile(" MOVE.W D0,D1", filePath);
+            }
+        };
+
+        final Variant mc68000 = new Variant(M68KArchitecture.MC68000,
+                createConfigurationOptions(ConfigurationOptions.AUTOMATIC_EVEN));
+        final Variant mc68020 = new Variant(M68KArchitecture.MC68020,
+                createConfigurationOptions(ConfigurationOptions.AUTOMATIC_EVEN));
+
+        final MultiVariantBuild build = new MultiVariantBuild(Environment.DEFAULT, new SourceFile(
+                " INCLUDE 'a.s'\n INCBIN 'b.bin'\n INCLUDE 'a.s'", null), fileFetcher);
+        final ForkJoinPool pool = new ForkJoinPool(2);
+        final List<VariantResult> results;
+        try {
+            results = build.assemble(Arrays.asList(mc68000, mc68020), pool);
+        } finally {
+            pool.shutdown();
+        }
+
+        assertThat(results, hasSize(2));
+        for (VariantResult result : results) {
+            assertThat(result.getOutput(), is(new byte[] { 0x32, 0x00, 0x4E, 0x71, 0x32, 0x00 }));
+            assertThat(result.getMessages(), is(empty()));
+        }
+    }
+
+    /**
+     * Asserts that {@link MultiVariantBuild#MultiVariantBuild(Environment, SourceFile, FileFetcher)} throws a
+     * {@link NullPointerException} when the <code>mainSourceFile</code> argument is <code>null</code>.
+     */
+    @Test(expected = NullPointerException.class)
+    public void multiVariantBuildNullMainSourceFile() {
+        new MultiVariantBuild(Environment.DEFAULT, null, null);
+    }
+
+    /**
+     * Asserts that {@link Variant#Variant(M68KArchitecture, ConfigurationOptions)} throws a {@link NullPointerException} when the
+     * <code>architecture</code> argument is <code>null</code>.
+     */
+    @Test(expected = NullPointerException.class)
+    public void variantNullArchitecture() {
+        new Variant(null, createConfigurationOptions(ConfigurationOptions.AUTOMATIC_EVEN));
+    }
+
+}
@@ -0,0 +1,149 @@
+package org.reasm.m68k;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.io.IOException;
+
+import javax.annotation.Nonnull;
+
+import org.junit.Test;
+import org.reasm.FileFetcher;
+import org.reasm.source.SourceFile;
+
+/**
+ * Test class for {@link ParsedSourceCache}.
+ *
+ * @author Francis Gagné
+ */
+public class ParsedSourceCacheTest {
+
+    @Nonnull
+    private static final FileFetcher FILE_FETCHER = new FileFetcher() {
+        @Override
+        public byte[] fetchBinaryFile(String filePath) throws IOException {
+            return new byte[] { 1, 2, 3 };
+        }
+
+        @Override
+        public SourceFile fetchSourceFile(String filePath) throws IOException {
+            // Return a new source file on every call, as a file fetcher that reads files does.
+            return new SourceFile(" MOVE.W D0,D1\n RTS", filePath);
+        }
+    };
+
+    /**
+     * Asserts that {@link ParsedSourceCache#clear()} removes the source files from the cache.
+     */
+    @Test
+    public void clear() {
+        final ParsedSourceCache cache = new ParsedSourceCache(1 << 20);
+        final SourceFile sourceFile = new SourceFile(" MOVE.W D0,D1\n RTS", "a.s");
+        cache.intern(sourceFile);
+        cache.clear();
+
+        final SourceFile other = new SourceFile(" MOVE.W D0,D1\n RTS", "a.s");
+        assertThat(cache.intern(other), is(sameInstance(other)));
+    }
+
+    /**
+     * Asserts that {@link ParsedSourceCache#intern(SourceFile)} doesn't share source files when the capacity of the cache is 0.
+     */
+    @Test
+    public void disabled() {
+        final ParsedSourceCache cache = new ParsedSourceCache(0);
+        cache.intern(new SourceFile(" NOP\n NOP", "a.s"));
+
+        final SourceFile other = new SourceFile(" NOP\n NOP", "a.s");
+        assertThat(cache.intern(other), is(sameInstance(other)));
+    }
+
+    /**
+     * Asserts that {@link ParsedSourceCache#intern(SourceFile)} doesn't share source files that have the same text but different
+     * file paths.
+     */
+    @Test
+    public void differentFilePath() {
+        final ParsedSourceCache cache = new ParsedSourceCache(1 << 20);
+        cache.intern(new SourceFile(" DC.B 1", "a.s"));
+
+        final SourceFile other = new SourceFile(" DC.B 1", "b.s");
+        assertThat(cache.intern(other), is(sameInstance(other)));
+    }
+
+    /**
+     * Asserts that {@link ParsedSourceCache#intern(SourceFile)} doesn't share source files that have different texts.
+     */
+    @Test
+    public void differentText() {
+        final ParsedSourceCache cache = new ParsedSourceCache(1 << 20);
+        cache.intern(new SourceFile(" DC.B 1", "a.s"));
+
+        final SourceFile other = new SourceFile(" DC.B 2", "a.s");
+        assertThat(cache.intern(other), is(sameInstance(other)));
+    }
+
+    /**
+     * Asserts that {@link ParsedSourceCache#intern(SourceFile)} doesn't keep source files that don't fit in the capacity of the
+     * cache.
+     */
+    @Test
+    public void evict() {
+        final ParsedSourceCache cache = new ParsedSourceCache(16);
+        cache.intern(new SourceFile(" DC.B 1,2,3,4,5,6,7,8", "a.s"));
+
+        final SourceFile other = new SourceFile(" DC.B 1,2,3,4,5,6,7,8", "a.s");
+        assertThat(cache.intern(other), is(sameInstance(other)));
+    }
+
+    /**
+     * Asserts that {@link ParsedSourceCache#intern(SourceFile)} returns the source file that was interned first for source files
+     * that have the same file path and the same text.
+     */
+    @Test
+    public void intern() {
+        final ParsedSourceCache cache = new ParsedSourceCache(1 << 20);
+        final SourceFile sourceFile = new SourceFile("A MACRO\n ADDQ.W #1,D0\n ENDM\n A", "a.s");
+        assertThat(cache.intern(sourceFile), is(sameInstance(sourceFile)));
+        assertThat(cache.intern(new SourceFile("A MACRO\n ADDQ.W #1,D0\n ENDM\n A", "a.s")), is(sameInstance(sourceFile)));
+    }
+
+    /**
+     * Asserts that {@link ParsedSourceCache#ParsedSourceCache(long)} throws an {@link IllegalArgumentException} when the
+     * capacity is negative.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void parsedSourceCacheNegativeCapacity() {
+        new ParsedSourceCache(-1);
+    }
+
+    /**
+     * Asserts that the {@link FileFetcher} returned by {@link ParsedSourceCache#wrap(FileFetcher)} returns the same source file,
+     * and thus the same parsed form, when a source file is fetched several times.
+     *
+     * @throws IOException
+     *             an I/O exception occurred
+     */
+    @Test
+    public void wrap() throws IOException {
+        final FileFetcher fileFetcher = new ParsedSourceCache(1 << 20).wrap(FILE_FETCHER);
+        final SourceFile sourceFile = fileFetcher.fetchSourceFile("a.s");
+        assertThat(fileFetcher.fetchSourceFile("a.s"), is(sameInstance(sourceFile)));
+        assertThat(fileFetcher.fetchSourceFile("b.s"), is(not(sameInstance(sourceFile))));
+        assertThat(fileFetcher.fetchSourceFile("a.s").getParsed(M68KArchitecture.MC68000),
+                is(sameInstance(sourceFile.getParsed(M68KArchitecture.MC68000))));
+        assertThat(fileFetcher.fetchBinaryFile("c.bin"), is(new byte[] { 1, 2, 3 }));
+    }
+
+    /**
+     * Asserts that {@link ParsedSourceCache#wrap(FileFetcher)} throws a {@link NullPointerException} when the
+     * <code>fileFetcher</code> argument is <code>null</code>.
+     */
+    @Test(expected = NullPointerException.class)
+    public void wrapNullFileFetcher() {
+        new ParsedSourceCache(1 << 20).wrap(null);
+    }
+
+}
@@ -8,9 +8,7 @@ import static org.junit.Assert.assertThat;
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
-import java.util.EnumSet;
 import java.util.List;
-import java.util.Set;
 
 import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
@@ -80,8 +78,7 @@ public class EffectiveAddressTest {
 
             @Nonnull
             final String text;
-            @Nonnull
-            final Set<AddressingMode> validAddressingModes;
+            final int validAddressingModes;
             final boolean expectBitFieldSpecification;
             @Nonnull
             final InstructionSize instructionSize;
@@ -92,7 +89,7 @@ public class EffectiveAddressTest {
             @Nonnull
             final M68KTestAssemblyContext context;
 
-            public DataItem(@Nonnull String text, @Nonnull Set<AddressingMode> validAddressingModes,
+            public DataItem(@Nonnull String text, int validAddressingModes,
                     boolean expectBitFieldSpecification, @Nonnull InstructionSize instructionSize,
                     @Nonnull InstructionSet instructionSet, @CheckForNull SymbolLookup symbolLookup,
                     @CheckForNull M68KTestAssemblyContext context) {
@@ -146,7 +143,7 @@ public class EffectiveAddressTest {
             @Nonnull
             final short[] words;
 
-            public DataItem(@Nonnull String text, @Nonnull Set<AddressingMode> validAddressingModes,
+            public DataItem(@Nonnull String text, int validAddressingModes,
                     boolean expectBitFieldSpecification, @Nonnull InstructionSize instructionSize,
                     @Nonnull InstructionSet instructionSet, @CheckForNull SymbolLookup symbolLookup,
                     @CheckForNull M68KTestAssemblyContext context, short[] words) {
@@ -594,8 +591,8 @@ public class EffectiveAddressTest {
 
         private static void addDataItem(@Nonnull String text, @Nonnull InstructionSize instructionSize,
                 @Nonnull InstructionSet instructionSet, @CheckForNull M68KTestAssemblyContext context, short[] words) {
-            TEST_DATA.add(new Object[] { new DataItem(text, AddressingModeCategory.ALL, false, instructionSize, instructionSet,
-                    DummySymbolLookup.DEFAULT, context, words) });
+            TEST_DATA.add(new Object[] { new DataItem(text, AddressingModeCategory.ALL_MASK, false, instructionSize,
+                    instructionSet, DummySymbolLookup.DEFAULT, context, words) });
         }
 
         private static void addDataItem(@Nonnull String text, @CheckForNull M68KTestAssemblyContext context, @Nonnull short[] words) {
@@ -623,8 +620,8 @@ public class EffectiveAddressTest {
             public DataItem(@Nonnull String text, boolean expectBitFieldSpecification, @Nonnull InstructionSize instructionSize,
                     @Nonnull InstructionSet instructionSet, @CheckForNull SymbolLookup symbolLookup,
                     @Nonnull Matcher<AssemblyMessage>[] messageMatchers, @Nonnull short[] words) {
-                super(text, AddressingModeCategory.ALL, expectBitFieldSpecification, instructionSize, instructionSet, symbolLookup,
-                        null, words);
+                super(text, AddressingModeCategory.ALL_MASK, expectBitFieldSpecification, instructionSize, instructionSet,
+                        symbolLookup, null, words);
                 this.messageMatchers = messageMatchers;
             }
 
@@ -808,8 +805,8 @@ public class EffectiveAddressTest {
 
         private static void addDataItem(@Nonnull String text, @Nonnull InstructionSize instructionSize,
                 @Nonnull InstructionSet instructionSet, @Nonnull M68KTestAssemblyContext context, @Nonnull short[] words) {
-            TEST_DATA.add(new Object[] { new DataItem(text, AddressingModeCategory.ALL, false, instructionSize, instructionSet,
-                    DummySymbolLookup.DEFAULT, context, words) });
+            TEST_DATA.add(new Object[] { new DataItem(text, AddressingModeCategory.ALL_MASK, false, instructionSize,
+                    instructionSet, DummySymbolLookup.DEFAULT, context, words) });
         }
 
         private static void addDataItem(@Nonnull String text, @Nonnull M68KTestAssemblyContext context, @Nonnull short[] words) {
@@ -856,9 +853,9 @@ public class EffectiveAddressTest {
             // Address register indirect
             addDataItem("(A0)", new short[] { 0b010000 });
             addDataItem("(A7)", new short[] { 0b010111 });
-            addDataItem("(A0)", EnumSet.of(AddressingMode.ADDRESS_REGISTER_INDIRECT_WITH_DISPLACEMENT), new short[] { 0b101000,
+            addDataItem("(A0)", AddressingMode.ADDRESS_REGISTER_INDIRECT_WITH_DISPLACEMENT.mask, new short[] { 0b101000,
                     0x0000 });
-            addDataItem("(A7)", EnumSet.of(AddressingMode.ADDRESS_REGISTER_INDIRECT_WITH_DISPLACEMENT), new short[] { 0b101111,
+            addDataItem("(A7)", AddressingMode.ADDRESS_REGISTER_INDIRECT_WITH_DISPLACEMENT.mask, new short[] { 0b101111,
                     0x0000 });
 
             // Address register indirect with postincrement
@@ -1269,7 +1266,7 @@ public class EffectiveAddressTest {
             context = new M68KTestAssemblyContext();
             context.optimizeZeroDisplacement = true;
             addDataItem("(0,A0)", context, new short[] { 0b010000 });
-            addDataItem("(0,A0)", EnumSet.of(AddressingMode.ADDRESS_REGISTER_INDIRECT_WITH_DISPLACEMENT), context, new short[] {
+            addDataItem("(0,A0)", AddressingMode.ADDRESS_REGISTER_INDIRECT_WITH_DISPLACEMENT.mask, context, new short[] {
                     0b101000, 0x0000 });
             addDataItem("($7FFF,A0)", context, new short[] { 0b101000, 0x7FFF });
             addDataItem("(2,PC)", context, new short[] { 0b111010, 0x0000 });
@@ -1281,7 +1278,7 @@ public class EffectiveAddressTest {
             addDataItem("$38000", context, new short[] { 0b111001, 0x0003, (short) 0x8000 });
             addDataItem("$38002", context, new short[] { 0b111010, -0x8000 });
             addDataItem("$40000", context, new short[] { 0b111010, -0x0002 });
-            addDataItem("$40000", AddressingModeCategory.ALTERABLE, context, new short[] { 0b111001, 0x0004, 0x0000 });
+            addDataItem("$40000", AddressingModeCategory.ALTERABLE_MASK, context, new short[] { 0b111001, 0x0004, 0x0000 });
             addDataItem("$40002", context, new short[] { 0b111010, 0x0000 });
             addDataItem("$48001", context, new short[] { 0b111010, 0x7FFF });
             addDataItem("$48002", context, new short[] { 0b111001, 0x0004, (short) 0x8002 });
@@ -1297,41 +1294,43 @@ public class EffectiveAddressTest {
         }
 
         private static void addDataItem(@Nonnull String text, boolean expectBitFieldSpecification, @Nonnull short[] words) {
-            addDataItem(text, AddressingModeCategory.ALL, expectBitFieldSpecification, InstructionSize.DEFAULT,
+            addDataItem(text, AddressingModeCategory.ALL_MASK, expectBitFieldSpecification, InstructionSize.DEFAULT,
                     InstructionSet.MC68000, null, words);
         }
 
         private static void addDataItem(@Nonnull String text, @Nonnull InstructionSet instructionSet, @Nonnull short[] words) {
-            addDataItem(text, AddressingModeCategory.ALL, false, InstructionSize.DEFAULT, instructionSet, null, words);
+            addDataItem(text, AddressingModeCategory.ALL_MASK, false, InstructionSize.DEFAULT, instructionSet, null, words);
         }
 
         private static void addDataItem(@Nonnull String text, @Nonnull InstructionSize instructionSize, @Nonnull short[] words) {
-            addDataItem(text, AddressingModeCategory.ALL, false, instructionSize, InstructionSet.MC68000, null, words);
+            addDataItem(text, AddressingModeCategory.ALL_MASK, false, instructionSize, InstructionSet.MC68000, null, words);
         }
 
         private static void addDataItem(@Nonnull String text, @CheckForNull M68KTestAssemblyContext context, @Nonnull short[] words) {
-            addDataItem(text, AddressingModeCategory.ALL, false, InstructionSize.DEFAULT, InstructionSet.MC68000, context, words);
+            addDataItem(text, AddressingModeCategory.ALL_MASK, false, InstructionSize.DEFAULT, InstructionSet.MC68000, context,
+                    words);
         }
 
-        private static void addDataItem(@Nonnull String text, @Nonnull Set<AddressingMode> validAddressingModes,
+        private static void addDataItem(@Nonnull String text, int validAddressingModes,
                 boolean expectBitFieldSpecification, @Nonnull InstructionSize instructionSize,
                 @Nonnull InstructionSet instructionSet, @CheckForNull M68KTestAssemblyContext context, @Nonnull short[] words) {
             TEST_DATA.add(new Object[] { new DataItem(text, validAddressingModes, expectBitFieldSpecification, instructionSize,
                     instructionSet, DummySymbolLookup.DEFAULT, context, words) });
         }
 
-        private static void addDataItem(@Nonnull String text, @Nonnull Set<AddressingMode> validAddressingModes,
+        private static void addDataItem(@Nonnull String text, int validAddressingModes,
                 @CheckForNull M68KTestAssemblyContext context, @Nonnull short[] words) {
             addDataItem(text, validAddressingModes, false, InstructionSize.DEFAULT, InstructionSet.MC68000, context, words);
         }
 
-        private static void addDataItem(@Nonnull String text, @Nonnull Set<AddressingMode> validAddressingModes,
+        private static void addDataItem(@Nonnull String text, int validAddressingModes,
                 @Nonnull short[] words) {
             addDataItem(text, validAddressingModes, false, InstructionSize.DEFAULT, InstructionSet.MC68000, null, words);
         }
 
         private static void addDataItem(@Nonnull String text, @Nonnull short[] words) {
-            addDataItem(text, AddressingModeCategory.ALL, false, InstructionSize.DEFAULT, InstructionSet.MC68000, null, words);
+            addDataItem(text, AddressingModeCategory.ALL_MASK, false, InstructionSize.DEFAULT, InstructionSet.MC68000, null,
+                    words);
         }
 
         public StandardSyntaxTest(@Nonnull DataItem data) {
@@ -1430,8 +1429,8 @@ public class EffectiveAddressTest {
 
         private static void addDataItem(@Nonnull String text, @Nonnull InstructionSize instructionSize,
                 @Nonnull InstructionSet instructionSet, @CheckForNull SymbolLookup symbolLookup, @Nonnull short[] words) {
-            TEST_DATA.add(new Object[] { new DataItem(text, AddressingModeCategory.ALL, false, instructionSize, instructionSet,
-                    symbolLookup, null, words) });
+            TEST_DATA.add(new Object[] { new DataItem(text, AddressingModeCategory.ALL_MASK, false, instructionSize,
+                    instructionSet, symbolLookup, null, words) });
         }
 
         private static void addDataItem(@Nonnull String text, @CheckForNull SymbolLookup symbolLookup, @Nonnull short[] words) {
@@ -1451,7 +1450,7 @@ public class EffectiveAddressTest {
 
             final boolean expectedValid;
 
-            DataItem(@Nonnull String text, @Nonnull Set<AddressingMode> validAddressingModes, boolean expectedValid) {
+            DataItem(@Nonnull String text, int validAddressingModes, boolean expectedValid) {
                 super(text, validAddressingModes, false, InstructionSize.DEFAULT, InstructionSet.MC68020, null, null);
                 this.expectedValid = expectedValid;
             }
@@ -1465,7 +1464,7 @@ public class EffectiveAddressTest {
                 new AddressingModeNotAllowedHereErrorMessage());
 
         @Nonnull
-        private static final ArrayList<Set<AddressingMode>> CATEGORIES = loadCategories();
+        private static final ArrayList<Integer> CATEGORIES = loadCategories();
         @Nonnull
         private static final ArrayList<Object[]> TEST_DATA = new ArrayList<>();
 
@@ -1490,22 +1489,20 @@ public class EffectiveAddressTest {
         }
 
         private static void addDataItem(@Nonnull String text, @Nonnull AddressingMode addressingMode) {
-            for (Set<AddressingMode> category : CATEGORIES) {
-                TEST_DATA.add(new Object[] { new DataItem(text, category, category.contains(addressingMode)) });
+            for (int category : CATEGORIES) {
+                TEST_DATA.add(new Object[] { new DataItem(text, category, (category & addressingMode.mask) != 0) });
             }
         }
 
         @Nonnull
-        @SuppressWarnings("unchecked")
-        private static ArrayList<Set<AddressingMode>> loadCategories() {
+        private static ArrayList<Integer> loadCategories() {
             try {
-                ArrayList<Set<AddressingMode>> categories = new ArrayList<>();
+                ArrayList<Integer> categories = new ArrayList<>();
                 final Field[] categoryFields = AddressingModeCategory.class.getDeclaredFields();
                 for (Field categoryField : categoryFields) {
                     if ((categoryField.getModifiers() & CLASS_CONSTANT_MODIFIERS) == CLASS_CONSTANT_MODIFIERS) {
-                        final Object object = categoryField.get(null);
-                        if (object instanceof Set) {
-                            categories.add((Set<AddressingMode>) object);
+                        if (categoryField.getType() == int.class) {
+                            categories.add(categoryField.getInt(null));
                         }
                     }
                 }
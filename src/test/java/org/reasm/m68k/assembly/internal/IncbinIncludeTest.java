@@ -49,7 +49,7 @@ public class IncbinIncludeTest extends BaseProgramsTest {
     private static final byte[] FILE_D_OUTPUT = new byte[] { (byte) 0xF8, 0x00, 0x01, (byte) 0xC0, 0x12, 0x34 };
 
     @Nonnull
-    private static final FileFetcher FILE_FETCHER = new FileFetcher() {
+    static final FileFetcher FILE_FETCHER = new FileFetcher() {
         @Override
         public byte[] fetchBinaryFile(String filePath) throws IOException {
             if ("B".equals(filePath)) {
@@ -1052,6 +1052,7 @@ public class InstructionsTest extends BaseInstructionsTest {
         addDataItem(" MOVEM D0-D4/D3-D6,(A0)", new short[] { 0x4890, 0x007F }, new DuplicateRegistersInRegisterListWarningMessage());
         addDataItem(" MOVEM D0-D4/A0-A2,(A0)", new short[] { 0x4890, 0x071F });
         addDataItem(" MOVEM D0 - D4 /\tA0 - A2,(A0)", new short[] { 0x4890, 0x071F });
+        addDataItem(" MOVEM d0-a2/sp,(A0)", new short[] { 0x4890, (short) 0x87FF });
         addDataItem(" MOVEM D0,-(A0)", new short[] { 0x48A0, (short) 0x8000 });
         addDataItem(" MOVEM D0-D4/A0-A2,-(A0)", new short[] { 0x48A0, (short) 0xF8E0 });
         addDataItem(" MOVEM (A0),D0", new short[] { 0x4C90, 0x0001 });
@@ -1062,6 +1063,7 @@ public class InstructionsTest extends BaseInstructionsTest {
         addDataItem(" MOVEM D0-,(A0)", NO_DATA, MOVEM_REQUIRES_A_REGISTER_LIST_IN_EXACTLY_ONE_OPERAND);
         addDataItem(" MOVEM D0/,(A0)", NO_DATA, MOVEM_REQUIRES_A_REGISTER_LIST_IN_EXACTLY_ONE_OPERAND);
         addDataItem(" MOVEM D0~,(A0)", NO_DATA, MOVEM_REQUIRES_A_REGISTER_LIST_IN_EXACTLY_ONE_OPERAND);
+        addDataItem(" MOVEM D0X,(A0)", NO_DATA, MOVEM_REQUIRES_A_REGISTER_LIST_IN_EXACTLY_ONE_OPERAND);
         addDataItem("FOO: MOVEM FOO.W,D0-A6", new short[] { 0x4CB8, 0x7FFF, 0x0000 });
         addDataItem(" MOVEM. D0,(A0)", new short[] { 0x4890, 0x0001 }, INVALID_SIZE_ATTRIBUTE_EMPTY);
         addDataItem(" MOVEM.B D0,(A0)", new short[] { 0x4890, 0x0001 }, INVALID_SIZE_ATTRIBUTE_B);
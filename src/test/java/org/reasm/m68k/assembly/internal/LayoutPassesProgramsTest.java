@@ -0,0 +1,51 @@
+package org.reasm.m68k.assembly.internal;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.reasm.AssemblyMessage;
+import org.reasm.m68k.ConfigurationOptions;
+
+/**
+ * Test class that assembles the programs of {@link ProgramsTest} with the {@link ConfigurationOptions#LAYOUT_PASSES}
+ * configuration option enabled. The output must be the same as when the programs are assembled with the option disabled.
+ *
+ * @author Francis Gagné
+ */
+@RunWith(Parameterized.class)
+public class LayoutPassesProgramsTest extends ProgramsTest {
+
+    /**
+     * Initializes a new LayoutPassesProgramsTest.
+     *
+     * @param code
+     *            assembly code to assemble
+     * @param steps
+     *            the number of steps the program is expected to take to assemble completely
+     * @param output
+     *            the program's output
+     * @param expectedMessage
+     *            an {@link AssemblyMessage} that is expected to be generated while assembling the code
+     * @param expectedMessages
+     *            an array of {@link AssemblyMessage AssemblyMessages} that are expected to be generated while assembling the code.
+     *            Takes priority over <code>expectedMessage</code>.
+     */
+    public LayoutPassesProgramsTest(@Nonnull String code, int steps, @Nonnull byte[] output,
+            @CheckForNull AssemblyMessage expectedMessage, @CheckForNull AssemblyMessage[] expectedMessages) {
+        super(code, steps, output, expectedMessage, expectedMessages);
+    }
+
+    @Nonnull
+    @Override
+    protected Map<String, Object> getM68KConfigurationOptions() {
+        final HashMap<String, Object> m68kOptions = new HashMap<>();
+        m68kOptions.put(ConfigurationOptions.LAYOUT_PASSES, true);
+        return m68kOptions;
+    }
+
+}
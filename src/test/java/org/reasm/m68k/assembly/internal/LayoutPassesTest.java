@@ -0,0 +1,77 @@
+package org.reasm.m68k.assembly.internal;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Nonnull;
+
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+import org.reasm.m68k.ConfigurationOptions;
+import org.reasm.m68k.M68KArchitecture;
+
+/**
+ * Test class for the {@link ConfigurationOptions#LAYOUT_PASSES} configuration option.
+ *
+ * @author Francis Gagné
+ */
+@RunWith(Parameterized.class)
+public class LayoutPassesTest extends BaseProgramsTest {
+
+    @Nonnull
+    private static final List<Object[]> TEST_DATA = new ArrayList<>();
+
+    static {
+        // Single pass
+        addDataItem(" NOP\n MOVE.W D0,D1", 3, new byte[] { 0x4E, 0x71, 0x32, 0x00 });
+
+        // A is undefined when it is read on the first pass, but no instruction was encoded before, so nothing is laid out.
+        addDataItem(" DC.W A\nA: NOP", 6, new byte[] { 0x00, 0x02, 0x4E, 0x71 });
+
+        // C doesn't fit in an absolute short address on the second pass, so A changes and the NOPs are laid out on the second
+        // pass. They are encoded again on the third pass.
+        addDataItem(" DC.W A\n MOVE.W C,D0\nA: NOP\n NOP\nC EQU $12345", 18, new byte[] { 0x00, 0x08, 0x30, 0x39, 0x00, 0x01,
+                0x23, 0x45, 0x4E, 0x71, 0x4E, 0x71 });
+    }
+
+    /**
+     * Gets the test data for this parameterized test.
+     *
+     * @return the test data
+     */
+    @Nonnull
+    @Parameters
+    public static List<Object[]> data() {
+        return TEST_DATA;
+    }
+
+    private static void addDataItem(@Nonnull String code, int steps, @Nonnull byte[] output) {
+        TEST_DATA.add(new Object[] { code, steps, output });
+    }
+
+    /**
+     * Initializes a new LayoutPassesTest.
+     *
+     * @param code
+     *            assembly code to assemble
+     * @param steps
+     *            the number of steps the program is expected to take to assemble completely
+     * @param output
+     *            the program's output
+     */
+    public LayoutPassesTest(@Nonnull String code, int steps, @Nonnull byte[] output) {
+        super(code, steps, output, M68KArchitecture.MC68000, null, null, null);
+    }
+
+    @Nonnull
+    @Override
+    protected Map<String, Object> getM68KConfigurationOptions() {
+        final HashMap<String, Object> m68kOptions = new HashMap<>();
+        m68kOptions.put(ConfigurationOptions.LAYOUT_PASSES, true);
+        return m68kOptions;
+    }
+
+}
@@ -0,0 +1,156 @@
+package org.reasm.m68k.assembly.internal;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+import org.reasm.AssemblyMessage;
+import org.reasm.FileFetcher;
+import org.reasm.commons.messages.ValueOutOfRangeErrorMessage;
+import org.reasm.m68k.ConfigurationOptions;
+import org.reasm.m68k.M68KArchitecture;
+import org.reasm.m68k.MappableFileFetcher;
+import org.reasm.source.SourceFile;
+
+/**
+ * Test class for the <code>INCBIN</code> directive with the {@link ConfigurationOptions#MEMORY_MAPPED_INCBIN} configuration
+ * option.
+ *
+ * @author Francis Gagné
+ */
+@RunWith(Parameterized.class)
+public class MemoryMappedIncbinTest extends BaseProgramsTest {
+
+    @Nonnull
+    private static final byte[] FILE_CONTENTS = new byte[] { 5, 6, 7, 8, 9 };
+    @Nonnull
+    private static final String FILE_NAME = "incbin.bin";
+    @Nonnull
+    private static final Path DIRECTORY = createDirectory();
+
+    // Resolves relative paths against DIRECTORY rather than against the current working directory. Files in DIRECTORY can only
+    // be included by mapping them, so the tests fail if they are not mapped.
+    @Nonnull
+    private static final MappableFileFetcher FILE_FETCHER = new MappableFileFetcher() {
+        @Override
+        public byte[] fetchBinaryFile(String filePath) throws IOException {
+            return IncbinIncludeTest.FILE_FETCHER.fetchBinaryFile(filePath);
+        }
+
+        @Override
+        public SourceFile fetchSourceFile(String filePath) throws IOException {
+            return IncbinIncludeTest.FILE_FETCHER.fetchSourceFile(filePath);
+        }
+
+        @Override
+        public Path resolveBinaryFilePath(String filePath) throws IOException {
+            final Path path = DIRECTORY.resolve(filePath).normalize();
+            if (!path.startsWith(DIRECTORY) || !Files.exists(path)) {
+                return this.getNull();
+            }
+
+            return path;
+        }
+
+        // method to bypass FindBugs's null analysis
+        private <T> T getNull() {
+            return null;
+        }
+    };
+
+    @Nonnull
+    private static final ArrayList<Object[]> TEST_DATA = new ArrayList<>();
+
+    static {
+        final String incbin = " INCBIN '" + FILE_NAME + "'";
+        addDataItem(incbin, 2, FILE_CONTENTS);
+        addDataItem(incbin + ",1", 2, new byte[] { 6, 7, 8, 9 });
+        addDataItem(incbin + ",1,3", 2, new byte[] { 6, 7, 8 });
+        addDataItem(incbin + ",5", 2, NO_DATA);
+        addDataItem(incbin + ",6", 2, NO_DATA, new ValueOutOfRangeErrorMessage(6));
+        addDataItem(incbin + ",4,2", 2, new byte[] { 9 }, new ValueOutOfRangeErrorMessage(2));
+        addDataItem(incbin + ",3\n" + incbin + ",0,2", 3, new byte[] { 8, 9, 5, 6 });
+        addDataItem(" DC.B 1\n" + incbin + ",2,1\n DC.B 2", 4, new byte[] { 1, 7, 2 });
+        addDataItem(" INCBIN './" + FILE_NAME + "',1,1", 2, new byte[] { 6 });
+
+        // Files that the file fetcher doesn't resolve on the file system are fetched through the file fetcher.
+        addDataItem(" INCBIN 'B'", 2, IncbinIncludeTest.FILE_B);
+    }
+
+    /**
+     * Gets the test data for this parameterized test.
+     *
+     * @return the test data
+     */
+    @Nonnull
+    @Parameters
+    public static List<Object[]> data() {
+        return TEST_DATA;
+    }
+
+    private static void addDataItem(@Nonnull String code, int steps, @Nonnull byte[] output) {
+        addDataItem(code, steps, output, null);
+    }
+
+    private static void addDataItem(@Nonnull String code, int steps, @Nonnull byte[] output,
+            @CheckForNull AssemblyMessage expectedMessage) {
+        TEST_DATA.add(new Object[] { code, steps, output, expectedMessage });
+    }
+
+    @Nonnull
+    private static Path createDirectory() {
+        try {
+            // Files registered for deletion are deleted in reverse order, so the file is deleted before its directory.
+            final Path directory = Files.createTempDirectory("incbin").toAbsolutePath();
+            directory.toFile().deleteOnExit();
+            final Path file = directory.resolve(FILE_NAME);
+            Files.write(file, FILE_CONTENTS);
+            file.toFile().deleteOnExit();
+            return directory;
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Initializes a new MemoryMappedIncbinTest.
+     *
+     * @param code
+     *            assembly code to assemble
+     * @param steps
+     *            the number of steps the program is expected to take to assemble completely
+     * @param output
+     *            the program's output
+     * @param expectedMessage
+     *            an {@link AssemblyMessage} that is expected to be generated while assembling the code
+     */
+    public MemoryMappedIncbinTest(@Nonnull String code, int steps, @Nonnull byte[] output,
+            @CheckForNull AssemblyMessage expectedMessage) {
+        super(code, steps, output, M68KArchitecture.MC68000, expectedMessage, null, null);
+    }
+
+    @Nonnull
+    @Override
+    protected FileFetcher getFileFetcher() {
+        return FILE_FETCHER;
+    }
+
+    @Nonnull
+    @Override
+    protected Map<String, Object> getM68KConfigurationOptions() {
+        final HashMap<String, Object> m68kOptions = new HashMap<>();
+        m68kOptions.put(ConfigurationOptions.MEMORY_MAPPED_INCBIN, true);
+        return m68kOptions;
+    }
+
+}
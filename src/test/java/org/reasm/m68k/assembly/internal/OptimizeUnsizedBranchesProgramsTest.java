@@ -0,0 +1,98 @@
+package org.reasm.m68k.assembly.internal;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Nonnull;
+
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+import org.reasm.m68k.ConfigurationOptions;
+import org.reasm.m68k.M68KArchitecture;
+
+/**
+ * Test class for programs with several unsized branches, with the {@link ConfigurationOptions#OPTIMIZE_UNSIZED_BRANCHES}
+ * configuration option.
+ *
+ * @author Francis Gagné
+ */
+@RunWith(Parameterized.class)
+public class OptimizeUnsizedBranchesProgramsTest extends BaseProgramsTest {
+
+    @Nonnull
+    private static final List<Object[]> TEST_DATA = new ArrayList<>();
+
+    static {
+        addDataItem(" BRA L\n NOP\nL:", 8, new byte[] { 0x60, 0x02, 0x4E, 0x71 });
+
+        // The third branch is a word branch. It pushes the target of the second branch out of range, which then pushes the target
+        // of the first branch out of range.
+        final byte[] chain = new byte[434];
+        setWords(chain, 0, 0x6000, 0x0082);
+        setWords(chain, 102, 0x6000, 0x0082);
+        setWords(chain, 132, 0x6000, 0x012C);
+        addDataItem(" BRA L0\n DCB.B 98,0\n BRA L1\n DCB.B 26,0\nL0:\n BRA L2\n DCB.B 98,0\nL1:\n DCB.B 200,0\nL2:", 55, chain);
+
+        // The forward branch and the first backward branch jump over each other, so each one's growth pushes the other's target
+        // away. The sizes converge in 3 passes.
+        final byte[] mutual = new byte[140];
+        setWords(mutual, 0, 0x6000, 0x0084);
+        setWords(mutual, 128, 0x6000, 0xFF7E);
+        setWords(mutual, 134, 0x60FC, 0x6000, 0xFF76);
+        addDataItem("L0:\n BRA L2\n DCB.B 124,0\n BRA L0\nL1:\n DCB.B 2,0\nL2:\n BRA L1\n BRA L0", 30, mutual);
+
+        // The second branch grows. T's value was not known before, so the relaxation assumes that it is a fixed address and
+        // doesn't enlarge the first branch: the output is the same as without the relaxation.
+        final byte[] fixedTarget = new byte[134];
+        setWords(fixedTarget, 0, 0x607E, 0x6000, 0x0082);
+        addDataItem(" BRA T\n BRA L1\n DCB.B 128,0\nL1:\nT EQU 128", 18, fixedTarget);
+    }
+
+    /**
+     * Gets the test data for this parameterized test.
+     *
+     * @return the test data
+     */
+    @Nonnull
+    @Parameters
+    public static List<Object[]> data() {
+        return TEST_DATA;
+    }
+
+    private static void addDataItem(@Nonnull String code, int steps, @Nonnull byte[] output) {
+        TEST_DATA.add(new Object[] { code, steps, output });
+    }
+
+    private static void setWords(@Nonnull byte[] output, int offset, int... words) {
+        for (int i = 0; i < words.length; i++) {
+            output[offset + i * 2] = (byte) (words[i] >>> 8);
+            output[offset + i * 2 + 1] = (byte) words[i];
+        }
+    }
+
+    /**
+     * Initializes a new OptimizeUnsizedBranchesProgramsTest.
+     *
+     * @param code
+     *            assembly code to assemble
+     * @param steps
+     *            the number of steps the program is expected to take to assemble completely
+     * @param output
+     *            the program's output
+     */
+    public OptimizeUnsizedBranchesProgramsTest(@Nonnull String code, int steps, @Nonnull byte[] output) {
+        super(code, steps, output, M68KArchitecture.MC68000, null, null, null);
+    }
+
+    @Nonnull
+    @Override
+    protected Map<String, Object> getM68KConfigurationOptions() {
+        final HashMap<String, Object> m68kOptions = new HashMap<>();
+        m68kOptions.put(ConfigurationOptions.OPTIMIZE_UNSIZED_BRANCHES, true);
+        return m68kOptions;
+    }
+
+}
@@ -59,6 +59,7 @@ public class OutputDirectivesTest extends BaseProgramsTest {
                 0x69, 0x6C, 0x79, 0x20, 0x6C, 0x6F, 0x6E, 0x67 });
         addDataItem(" DC.B 0, 1, 2, 3", new byte[] { 0, 1, 2, 3 });
         addDataItem(" DC.B 'foo', 7", new byte[] { 0x66, 0x6F, 0x6F, 7 });
+        addDataItem(" DC.B 7, 'foo', 8", new byte[] { 7, 0x66, 0x6F, 0x6F, 8 });
         addDataItem(" DC.W 0", new byte[] { 0, 0 });
         addDataItem(" DC.W $FF", new byte[] { 0, -1 });
         addDataItem(" DC.W $FF00", new byte[] { -1, 0 });
@@ -71,6 +72,12 @@ public class OutputDirectivesTest extends BaseProgramsTest {
         addDataItem(" DC.W +$10000", new byte[] { 0, 0 }, new ValueOutOfRangeErrorMessage(0x10000));
         addDataItem(" DC.W 'AB'", new byte[] { 0x41, 0x42 });
         addDataItem(" DC.W 0, 1, 2, 3", new byte[] { 0, 0, 0, 1, 0, 2, 0, 3 });
+        final StringBuilder manyWords = new StringBuilder(" DC.W $1234");
+        for (int i = 0; i < 200; i++) {
+            manyWords.append(", $1234");
+        }
+
+        addDataItem(manyWords.toString(), repeat(new byte[] { 0x12, 0x34 }, 201));
         addDataItem(" DC.L 0", new byte[] { 0, 0, 0, 0 });
         addDataItem(" DC.L $FF", new byte[] { 0, 0, 0, -1 });
         addDataItem(" DC.L $FF00", new byte[] { 0, 0, -1, 0 });
@@ -121,10 +128,24 @@ public class OutputDirectivesTest extends BaseProgramsTest {
         //addDataItem(" DC.D STRLEN", new byte[] { 0, 0, 0, 0, 0, 0, 0, 0 }, new FunctionCannotBeConvertedToRealErrorMessage());
         addDataItem(" DC.D 0, 1, 2, 3", new byte[] { 0, 0, 0, 0, 0, 0, 0, 0, 0x3F, (byte) 0xF0, 0, 0, 0, 0, 0, 0, 0x40, 0, 0, 0, 0,
                 0, 0, 0, 0x40, 8, 0, 0, 0, 0, 0, 0 });
-        // TODO: implement DC.X
-        //addDataItem(" DC.X 0", new byte[] { 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0 });
-        // TODO: implement DC.P
-        //addDataItem(" DC.P 0", new byte[] { 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0 });
+        addDataItem(" DC.X 0", new byte[] { 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0 });
+        addDataItem(" DC.X 1", new byte[] { 0x3F, (byte) 0xFF, 0, 0, (byte) 0x80, 0, 0, 0, 0, 0, 0, 0 });
+        addDataItem(" DC.X -2", new byte[] { (byte) 0xC0, 0x00, 0, 0, (byte) 0x80, 0, 0, 0, 0, 0, 0, 0 });
+        addDataItem(" DC.X 0.5", new byte[] { 0x3F, (byte) 0xFE, 0, 0, (byte) 0x80, 0, 0, 0, 0, 0, 0, 0 });
+        addDataItem(" DC.X 3.141592653589793", new byte[] { 0x40, 0x00, 0, 0, (byte) 0xC9, 0x0F, (byte) 0xDA, (byte) 0xA2, 0x21,
+                0x68, (byte) 0xC0, 0x00 });
+        addDataItem(" DC.X 4.9E-324", new byte[] { 0x3B, (byte) 0xCD, 0, 0, (byte) 0x80, 0, 0, 0, 0, 0, 0, 0 });
+        addDataItem(" DC.X 0, 1", new byte[] { 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0x3F, (byte) 0xFF, 0, 0, (byte) 0x80, 0, 0, 0, 0,
+                0, 0, 0 });
+        addDataItem(" DC.P 0", new byte[] { 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0 });
+        addDataItem(" DC.P 1", new byte[] { 0, 0, 0, 0x01, 0, 0, 0, 0, 0, 0, 0, 0 });
+        addDataItem(" DC.P -1.5", new byte[] { (byte) 0x80, 0, 0, 0x01, 0x50, 0, 0, 0, 0, 0, 0, 0 });
+        addDataItem(" DC.P 123", new byte[] { 0x00, 0x02, 0, 0x01, 0x23, 0, 0, 0, 0, 0, 0, 0 });
+        addDataItem(" DC.P 0.001", new byte[] { 0x40, 0x03, 0, 0x01, 0, 0, 0, 0, 0, 0, 0, 0 });
+        addDataItem(" DC.P 0.1", new byte[] { 0x40, 0x01, 0, 0x01, 0, 0, 0, 0, 0, 0, 0, 0x01 });
+        addDataItem(" DC.P 3.141592653589793", new byte[] { 0, 0, 0, 0x03, 0x14, 0x15, (byte) 0x92, 0x65, 0x35, (byte) 0x89,
+                0x79, 0x31 });
+        addDataItem(" DC.P 1E100", new byte[] { 0x01, 0x00, 0, 0x01, 0, 0, 0, 0, 0, 0, 0, 0 });
         addDataItem(" DC.Z 0", new byte[] { 0, 0 }, INVALID_SIZE_ATTRIBUTE_Z);
 
         // DCB
@@ -160,13 +181,16 @@ public class OutputDirectivesTest extends BaseProgramsTest {
         addDataItem(" DCB.D 4, 0.03125", new byte[] { 0x3F, (byte) 0xA0, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x3F, (byte) 0xA0,
                 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x3F, (byte) 0xA0, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x3F, (byte) 0xA0, 0x00,
                 0x00, 0x00, 0x00, 0x00, 0x00 });
-        // TODO: implement DCB.X
-        //addDataItem(" DCB.X 4, 0", new byte[] { 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0,
-        //        0, 0, 0, 0 });
-        // TODO: implement DCB.P
-        //addDataItem(" DCB.P 4, 0", new byte[] { 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0,
-        //        0, 0, 0, 0 });
+        addDataItem(" DCB.X 4, 0", new byte[48]);
+        addDataItem(" DCB.X 4, 1", repeat(new byte[] { 0x3F, (byte) 0xFF, 0, 0, (byte) 0x80, 0, 0, 0, 0, 0, 0, 0 }, 4));
+        addDataItem(" DCB.P 4, 0", new byte[48]);
+        addDataItem(" DCB.P 4, -1.5", repeat(new byte[] { (byte) 0x80, 0, 0, 0x01, 0x50, 0, 0, 0, 0, 0, 0, 0 }, 4));
         addDataItem(" DCB.Z 4, $137F", new byte[] { 0x13, 0x7F, 0x13, 0x7F, 0x13, 0x7F, 0x13, 0x7F }, INVALID_SIZE_ATTRIBUTE_Z);
+        addDataItem(" DCB.B 3, 'ABC'", repeat(new byte[] { 0x41, 0x42, 0x43 }, 3));
+        addDataItem(" DCB.B 2, ''", NO_DATA);
+        addDataItem(" DCB.B 5000, $13", repeat(new byte[] { 0x13 }, 5000));
+        addDataItem(" DCB.B 2000, 'ABC'", repeat(new byte[] { 0x41, 0x42, 0x43 }, 2000));
+        addDataItem(" DCB.L 3000, $137F0248", repeat(new byte[] { 0x13, 0x7F, 0x02, 0x48 }, 3000));
 
         // DS
         addDataItem(" DS", NO_DATA, WRONG_NUMBER_OF_OPERANDS);
@@ -187,6 +211,7 @@ public class OutputDirectivesTest extends BaseProgramsTest {
         addDataItem(" DS.X 1", new byte[] { 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0 });
         addDataItem(" DS.P 1", new byte[] { 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0 });
         addDataItem(" DS.Z 1", new byte[] { 0, 0 }, INVALID_SIZE_ATTRIBUTE_Z);
+        addDataItem(" DS.L 3000", new byte[12000]);
 
         // HEX
         final AssemblyMessage oddNumberOfCharactersInHexDirective = new OddNumberOfCharactersInHexDirectiveErrorMessage();
@@ -237,6 +262,16 @@ public class OutputDirectivesTest extends BaseProgramsTest {
         TEST_DATA.add(new Object[] { code, output, null, expectedMessages });
     }
 
+    @Nonnull
+    private static byte[] repeat(@Nonnull byte[] pattern, int count) {
+        final byte[] result = new byte[pattern.length * count];
+        for (int i = 0; i < count; i++) {
+            System.arraycopy(pattern, 0, result, i * pattern.length, pattern.length);
+        }
+
+        return result;
+    }
+
     /**
      * Initializes a new OutputDirectivesTest.
      *
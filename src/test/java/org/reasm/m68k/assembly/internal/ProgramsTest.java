@@ -118,6 +118,8 @@ public class ProgramsTest extends BaseProgramsTest {
         addDataItem(" ENCODING '???'", 2, NO_DATA, new UnknownEncodingNameErrorMessage("???",
                 new IllegalCharsetNameException("???")));
         addDataItem(" ENCODING UNDEFINED", 2, NO_DATA, UNDEFINED_SYMBOL);
+        addDataItem(" ENCODING 'UTF-8'\n MOVE.W #'\u00E9',D0\n ENCODING 'UTF-16BE'\n MOVE.W #'\u00E9',D0", 5, new byte[] { 0x30, 0x3C,
+                (byte) 0xC3, (byte) 0xA9, 0x30, 0x3C, 0x00, (byte) 0xE9 }); // the encoded strings are cached per encoding
 
         // END
         addDataItem(" END", 2, NO_DATA);
@@ -181,6 +183,8 @@ public class ProgramsTest extends BaseProgramsTest {
         addDataItem(" FOR 1,5,UNDEFINED\n DC.W $1234\n NEXT", 8, new byte[] { 0x12, 0x34 }, UNDEFINED_SYMBOL);
         addDataItem("I FOR 11,15\n DC.B I\n NEXT", 24, new byte[] { 11, 12, 13, 14, 15 });
         addDataItem("I: J: FOR 11,15\n DC.B I+J\n NEXT", 24, new byte[] { 22, 24, 26, 28, 30 });
+        addDataItem("I FOR 1,3\n MOVE.B #I,D0\n ADDQ.W #I,D1\n NEXT", 19, new byte[] { 0x10, 0x3C, 0x00, 0x01, 0x52, 0x41,
+                0x10, 0x3C, 0x00, 0x02, 0x54, 0x41, 0x10, 0x3C, 0x00, 0x03, 0x56, 0x41 });
 
         // FUNCTION
         addDataItem(" FUNCTION", 2, NO_DATA, new DirectiveRequiresLabelErrorMessage("FUNCTION"));
@@ -355,6 +359,9 @@ public class ProgramsTest extends BaseProgramsTest {
         addDataItem(" REPT 0\n DC.W $1234\n ENDR", 5, NO_DATA);
         addDataItem(" REPT.W 0\n DC.W $1234\n ENDR", 5, NO_DATA, SIZE_ATTRIBUTE_NOT_ALLOWED);
         addDataItem(" REPT 5\n DC.W $1234\n ENDR", 10, new byte[] { 0x12, 0x34, 0x12, 0x34, 0x12, 0x34, 0x12, 0x34, 0x12, 0x34 });
+        addDataItem(" REPT 3\n MOVE.B D0,D1\n MOVE.W D0,D1\n ENDR", 11, new byte[] { 0x12, 0x00, 0x32, 0x00, 0x12, 0x00, 0x32,
+                0x00, 0x12, 0x00, 0x32, 0x00 });
+        addDataItem("I SET 0\n REPT 3\nI SET I + 1\n DC.B I\n ENDR", 12, new byte[] { 1, 2, 3 });
 
         // UNTIL
         final UntilWithoutDoErrorMessage untilWithoutDo = new UntilWithoutDoErrorMessage();
@@ -382,6 +389,9 @@ public class ProgramsTest extends BaseProgramsTest {
         addDataItem("A EQUR D0\n MOVE.W A,D1", 3, new byte[] { 0x32, 0x00 });
         addDataItem("A EQU 0\n MOVE.W A,D1", 3, new byte[] { 0x32, 0x38, 0x00, 0x00 });
         addDataItem(" MOVE.W UNDEFINED,D1", 2, new byte[] { 0x32, 0x38, 0x00, 0x00 }, UNDEFINED_SYMBOL, UNDEFINED_SYMBOL);
+        addDataItem("A EQU 0\n MOVE.W A,D1\n MOVE.W A,D2", 4, new byte[] { 0x32, 0x38, 0x00, 0x00, 0x34, 0x38, 0x00, 0x00 });
+        addDataItem("A EQU 0\n MOVE.W A,D1\nB EQUR D0\n MOVE.W A,D2\n MOVE.W B,D3", 6, new byte[] { 0x32, 0x38, 0x00, 0x00, 0x34,
+                0x38, 0x00, 0x00, 0x36, 0x00 });
 
         // M68KAssemblyContext.getRegisterAliasOrRegisterListAliasSymbolByName()
         addDataItem("A REG D0-D3/A2-A4\n MOVEM.L A,(A0)", 3, new byte[] { 0x48, (byte) 0xD0, 0x1C, 0x0F });
@@ -389,6 +399,12 @@ public class ProgramsTest extends BaseProgramsTest {
         addDataItem("A EQU 0\n MOVEM.L A,D0", 3, new byte[] { 0x4C, (byte) 0xF8, 0x00, 0x01, 0x00, 0x00 });
         addDataItem(" MOVEM.L UNDEFINED,D0", 2, new byte[] { 0x4C, (byte) 0xF8, 0x00, 0x01, 0x00, 0x00 }, UNDEFINED_SYMBOL,
                 UNDEFINED_SYMBOL, UNDEFINED_SYMBOL);
+        addDataItem("A EQU 0\n MOVEM.L A,D0\n MOVEM.L A,D1", 4, new byte[] { 0x4C, (byte) 0xF8, 0x00, 0x01, 0x00, 0x00, 0x4C,
+                (byte) 0xF8, 0x00, 0x02, 0x00, 0x00 });
+
+        // M68KSymbolLookup.getSymbol()
+        addDataItem("A SET 1\n MOVEQ #A,D0\n MOVEQ #A,D1\nA SET 2\n MOVEQ #A,D2", 6, new byte[] { 0x70, 0x01, 0x72, 0x01, 0x74,
+                0x02 });
 
         // Mnemonic.identifyRegister()
         addDataItem("A EQUR D0\nB EQUR D3\n MOVEM A-B,(A0)", 4, new byte[] { 0x48, (byte) 0x90, 0x00, 0x0F });
@@ -428,6 +444,12 @@ public class ProgramsTest extends BaseProgramsTest {
         addDataItem(" DC&\n\t.B 1", 2, new byte[] { 1 });
         addDataItem(" DC&\n\t\t  .B 1", 2, new byte[] { 1 });
         addDataItem(" DC.B 1&\n1", 2, new byte[] { 11 });
+
+        // forward references that change the program counter (see LayoutPassesProgramsTest)
+        addDataItem(" DC.W A\n MOVE.W C,D0\nA: NOP\n NOP\nC EQU $12345", 18, new byte[] { 0x00, 0x08, 0x30, 0x39, 0x00, 0x01,
+                0x23, 0x45, 0x4E, 0x71, 0x4E, 0x71 });
+        addDataItem(" DC.W A\n MOVE.W C,D0\nA:\n REPT 2\n NOP\n ENDR\nC EQU $12345", 33, new byte[] { 0x00, 0x08, 0x30, 0x39,
+                0x00, 0x01, 0x23, 0x45, 0x4E, 0x71, 0x4E, 0x71 });
     }
 
     /**
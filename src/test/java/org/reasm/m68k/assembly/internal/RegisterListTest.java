@@ -4,9 +4,6 @@ import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertThat;
 
-import java.util.EnumSet;
-import java.util.Set;
-
 import org.junit.Test;
 
 import ca.fragag.testhelpers.ObjectHashCodeEqualsContract;
@@ -22,21 +19,28 @@ public class RegisterListTest extends ObjectHashCodeEqualsContract {
      * Initializes a new RegisterListTest.
      */
     public RegisterListTest() {
-        super(new RegisterList(EnumSet.of(GeneralPurposeRegister.D0, GeneralPurposeRegister.D3, GeneralPurposeRegister.A1)),
-                new RegisterList(EnumSet.of(GeneralPurposeRegister.D0, GeneralPurposeRegister.D3, GeneralPurposeRegister.A1)),
-                new RegisterList(EnumSet.of(GeneralPurposeRegister.D0, GeneralPurposeRegister.D3, GeneralPurposeRegister.A1)),
-                new RegisterList(EnumSet.of(GeneralPurposeRegister.D0, GeneralPurposeRegister.D3)), new Object());
+        super(RegisterList.get(0x0209), RegisterList.get(0x0209), RegisterList.get(0x0209), RegisterList.get(0x0009),
+                new Object());
     }
 
     /**
-     * Asserts that {@link RegisterList#RegisterList(Set)} initializes a {@link RegisterList} instance correctly.
+     * Asserts that {@link RegisterList#get(int)} returns a {@link RegisterList} with the specified mask, and that it returns the
+     * same instance for the same mask.
      */
     @Test
-    public void registerList() {
-        final Set<GeneralPurposeRegister> set = EnumSet.of(GeneralPurposeRegister.D0, GeneralPurposeRegister.D3,
-                GeneralPurposeRegister.A1);
-        final RegisterList registerList = new RegisterList(set);
-        assertThat(registerList.getRegisters(), is(sameInstance(set)));
+    public void get() {
+        final RegisterList registerList = RegisterList.get(0x8001);
+        assertThat(registerList.getMask(), is(0x8001));
+        assertThat(RegisterList.get(0x8001), is(sameInstance(registerList)));
+    }
+
+    /**
+     * Asserts that {@link RegisterList#get(int)} throws an {@link IllegalArgumentException} when the mask has bits set above bit
+     * 15.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void getInvalidMask() {
+        RegisterList.get(0x10000);
     }
 
 }
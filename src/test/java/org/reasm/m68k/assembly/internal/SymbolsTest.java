@@ -1,7 +1,6 @@
 package org.reasm.m68k.assembly.internal;
 
 import java.util.ArrayList;
-import java.util.EnumSet;
 import java.util.List;
 
 import javax.annotation.CheckForNull;
@@ -39,7 +38,7 @@ public class SymbolsTest extends BaseProgramsTest {
     @Nonnull
     private static final UnsignedIntValue UINT_2 = new UnsignedIntValue(2);
     @Nonnull
-    private static final RegisterList REGISTER_LIST_D0 = new RegisterList(EnumSet.of(GeneralPurposeRegister.D0));
+    private static final RegisterList REGISTER_LIST_D0 = RegisterList.get(0x0001);
 
     @Nonnull
     private static final UserSymbolMatcher<Value> FOO_CONSTANT_UINT_0 = new UserSymbolMatcher<>(SymbolContext.VALUE, "foo",
@@ -112,9 +111,9 @@ public class SymbolsTest extends BaseProgramsTest {
                 "foo REG D0-A7",
                 2,
                 new UserSymbolMatcher[] { new UserSymbolMatcher<>(M68KAssemblyContext.REGISTER_LIST_ALIAS, "foo",
-                        SymbolType.CONSTANT, new RegisterList(EnumSet.range(GeneralPurposeRegister.D0, GeneralPurposeRegister.A7))) });
+                        SymbolType.CONSTANT, RegisterList.get(0xFFFF)) });
         addDataItem("foo REG D0/A7", 2, new UserSymbolMatcher[] { new UserSymbolMatcher<>(M68KAssemblyContext.REGISTER_LIST_ALIAS,
-                "foo", SymbolType.CONSTANT, new RegisterList(EnumSet.of(GeneralPurposeRegister.D0, GeneralPurposeRegister.A7))) });
+                "foo", SymbolType.CONSTANT, RegisterList.get(0x8001)) });
         addDataItem("foo bar: REG D0", 2, new UserSymbolMatcher[] {
                 new UserSymbolMatcher<>(M68KAssemblyContext.REGISTER_LIST_ALIAS, "foo", SymbolType.CONSTANT, REGISTER_LIST_D0),
                 new UserSymbolMatcher<>(M68KAssemblyContext.REGISTER_LIST_ALIAS, "bar", SymbolType.CONSTANT, REGISTER_LIST_D0) });
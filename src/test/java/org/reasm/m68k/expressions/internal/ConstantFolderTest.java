@@ -0,0 +1,101 @@
+package org.reasm.m68k.expressions.internal;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import javax.annotation.Nonnull;
+
+import org.junit.Test;
+import org.reasm.Assembly;
+import org.reasm.Configuration;
+import org.reasm.Environment;
+import org.reasm.SignedIntValue;
+import org.reasm.UnsignedIntValue;
+import org.reasm.expressions.*;
+import org.reasm.m68k.M68KArchitecture;
+import org.reasm.source.SourceFile;
+import org.reasm.testhelpers.DummySymbolLookup;
+
+/**
+ * Test class for {@link ConstantFolder}.
+ *
+ * @author Francis Gagné
+ */
+public class ConstantFolderTest {
+
+    @Nonnull
+    private static final ConstantFolder CONSTANT_FOLDER = new ConstantFolder(new Assembly(new Configuration(Environment.DEFAULT,
+            new SourceFile("", null), M68KArchitecture.MC68000)));
+
+    @Nonnull
+    private static Expression parse(@Nonnull String text) throws InvalidTokenException {
+        final Tokenizer tokenizer = new Tokenizer();
+        tokenizer.setCharSequence(text);
+        final Expression expression = ExpressionParser.parse(tokenizer, DummySymbolLookup.DEFAULT, null);
+        assertThat(expression, is(notNullValue()));
+        return expression;
+    }
+
+    /**
+     * Asserts that {@link ConstantFolder#fold(Expression)} folds binary operators whose operands are literals.
+     *
+     * @throws InvalidTokenException
+     *             an invalid token was encountered
+     */
+    @Test
+    public void foldBinaryOperator() throws InvalidTokenException {
+        assertThat(CONSTANT_FOLDER.fold(parse("1+2*3")), is((Expression) new ValueExpression(new UnsignedIntValue(7))));
+    }
+
+    /**
+     * Asserts that {@link ConstantFolder#fold(Expression)} folds the subexpressions of an expression that only involve literals,
+     * and leaves the rest of the expression as is.
+     *
+     * @throws InvalidTokenException
+     *             an invalid token was encountered
+     */
+    @Test
+    public void foldConstantSubexpression() throws InvalidTokenException {
+        assertThat(CONSTANT_FOLDER.fold(parse("a+2*3")), is((Expression) new BinaryOperatorExpression(BinaryOperator.ADDITION,
+                new IdentifierExpression("a", DummySymbolLookup.DEFAULT), new ValueExpression(new UnsignedIntValue(6)))));
+    }
+
+    /**
+     * Asserts that {@link ConstantFolder#fold(Expression)} folds the child of a grouping expression, but keeps the parentheses.
+     *
+     * @throws InvalidTokenException
+     *             an invalid token was encountered
+     */
+    @Test
+    public void foldGrouping() throws InvalidTokenException {
+        assertThat(CONSTANT_FOLDER.fold(parse("(1+2)")), is((Expression) new GroupingExpression(new ValueExpression(
+                new UnsignedIntValue(3)))));
+        assertThat(CONSTANT_FOLDER.fold(parse("(1+2)*2")), is((Expression) new ValueExpression(new UnsignedIntValue(6))));
+    }
+
+    /**
+     * Asserts that {@link ConstantFolder#fold(Expression)} returns the same expression when there is nothing to fold.
+     *
+     * @throws InvalidTokenException
+     *             an invalid token was encountered
+     */
+    @Test
+    public void foldNothing() throws InvalidTokenException {
+        final Expression expression = parse("a*(b+c)");
+        assertThat(CONSTANT_FOLDER.fold(expression), is(sameInstance(expression)));
+    }
+
+    /**
+     * Asserts that {@link ConstantFolder#fold(Expression)} folds unary operators whose operand is a literal.
+     *
+     * @throws InvalidTokenException
+     *             an invalid token was encountered
+     */
+    @Test
+    public void foldUnaryOperator() throws InvalidTokenException {
+        assertThat(CONSTANT_FOLDER.fold(parse("-$100")), is((Expression) new ValueExpression(new SignedIntValue(-0x100))));
+    }
+
+}
@@ -415,6 +415,66 @@ public class TokenizerTest {
         assertThat(tokenizer.getTokenText().toString(), is("abc"));
     }
 
+    /**
+     * Asserts that {@link Tokenizer#release(int)} discards a mark without changing the tokenizer's current token.
+     */
+    @Test
+    public void markRelease() {
+        final Tokenizer tokenizer = new Tokenizer();
+        tokenizer.setCharSequence("abc + def");
+
+        final int mark = tokenizer.mark();
+        tokenizer.advance();
+        tokenizer.release(mark);
+        assertThat(tokenizer, new TokenMatcher(TokenType.PLUS_OR_MINUS_SEQUENCE, 4, 5));
+
+        tokenizer.advance();
+        assertThat(tokenizer, new TokenMatcher(TokenType.IDENTIFIER, 6, 9));
+    }
+
+    /**
+     * Asserts that {@link Tokenizer#reset(int)} restores the state the tokenizer was in when the mark was made, including the
+     * state of a broken sequence, and discards the marks that were made after it.
+     */
+    @Test
+    public void markReset() {
+        final Tokenizer tokenizer = new Tokenizer();
+        tokenizer.setCharSequence("--a+b");
+        tokenizer.breakSequence();
+        assertThat(tokenizer, new TokenMatcher(TokenType.OPERATOR, 0, 1));
+
+        final int mark0 = tokenizer.mark();
+        tokenizer.advance();
+        final int mark1 = tokenizer.mark();
+        tokenizer.advance();
+        tokenizer.advance();
+        assertThat(tokenizer, new TokenMatcher(TokenType.PLUS_OR_MINUS_SEQUENCE, 3, 4));
+
+        tokenizer.reset(mark1);
+        assertThat(tokenizer, new TokenMatcher(TokenType.OPERATOR, 1, 2));
+
+        tokenizer.reset(mark0);
+        assertThat(tokenizer, new TokenMatcher(TokenType.OPERATOR, 0, 1));
+        tokenizer.advance();
+        assertThat(tokenizer, new TokenMatcher(TokenType.OPERATOR, 1, 2));
+        tokenizer.advance();
+        assertThat(tokenizer, new TokenMatcher(TokenType.IDENTIFIER, 2, 3));
+    }
+
+    /**
+     * Asserts that {@link Tokenizer#reset(int)} throws an {@link IllegalArgumentException} when the mark has already been
+     * released.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void resetReleasedMark() {
+        final Tokenizer tokenizer = new Tokenizer();
+        tokenizer.setCharSequence("abc + def");
+
+        final int mark = tokenizer.mark();
+        tokenizer.release(mark);
+        tokenizer.reset(mark);
+    }
+
     /**
      * Asserts that {@link Tokenizer#setCharSequence(CharSequence)} throws a {@link NullPointerException} when the
      * <code>charSequence</code> argument is <code>null</code>.